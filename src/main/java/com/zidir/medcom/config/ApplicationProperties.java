@@ -1,5 +1,6 @@
 package com.zidir.medcom.config;
 
+import com.zidir.medcom.domain.enumeration.NotificationType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -17,6 +18,16 @@ public class ApplicationProperties {
 
     private final SupplierApi supplierApi = new SupplierApi();
 
+    private final SupplierPush supplierPush = new SupplierPush();
+
+    private final NotificationDispatch notificationDispatch = new NotificationDispatch();
+
+    private final UnreadCounter unreadCounter = new UnreadCounter();
+
+    private final NotificationFeed notificationFeed = new NotificationFeed();
+
+    private final NotificationRetention notificationRetention = new NotificationRetention();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
@@ -31,6 +42,26 @@ public class ApplicationProperties {
         return supplierApi;
     }
 
+    public SupplierPush getSupplierPush() {
+        return supplierPush;
+    }
+
+    public NotificationDispatch getNotificationDispatch() {
+        return notificationDispatch;
+    }
+
+    public UnreadCounter getUnreadCounter() {
+        return unreadCounter;
+    }
+
+    public NotificationFeed getNotificationFeed() {
+        return notificationFeed;
+    }
+
+    public NotificationRetention getNotificationRetention() {
+        return notificationRetention;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -50,6 +81,26 @@ public class ApplicationProperties {
 
         private Integer intervalMinutes = 30;
 
+        private Integer poolSize = 16;
+
+        private Integer maxConcurrentRequests = 8;
+
+        private Integer sweepTimeoutMinutes = 25;
+
+        private Integer chunkSize = 500;
+
+        private Integer tickSeconds = 60;
+
+        private Integer minIntervalMinutes = 5;
+
+        private Integer maxIntervalMinutes = 240;
+
+        private Integer maxChecksPerTick = 1000;
+
+        private Integer watchRefreshSeconds = 300;
+
+        private Boolean sharded = true;
+
         public Integer getIntervalMinutes() {
             return intervalMinutes;
         }
@@ -57,6 +108,86 @@ public class ApplicationProperties {
         public void setIntervalMinutes(Integer intervalMinutes) {
             this.intervalMinutes = intervalMinutes;
         }
+
+        public Integer getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(Integer poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public Integer getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(Integer maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public Integer getSweepTimeoutMinutes() {
+            return sweepTimeoutMinutes;
+        }
+
+        public void setSweepTimeoutMinutes(Integer sweepTimeoutMinutes) {
+            this.sweepTimeoutMinutes = sweepTimeoutMinutes;
+        }
+
+        public Integer getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(Integer chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Integer getTickSeconds() {
+            return tickSeconds;
+        }
+
+        public void setTickSeconds(Integer tickSeconds) {
+            this.tickSeconds = tickSeconds;
+        }
+
+        public Integer getMinIntervalMinutes() {
+            return minIntervalMinutes;
+        }
+
+        public void setMinIntervalMinutes(Integer minIntervalMinutes) {
+            this.minIntervalMinutes = minIntervalMinutes;
+        }
+
+        public Integer getMaxIntervalMinutes() {
+            return maxIntervalMinutes;
+        }
+
+        public void setMaxIntervalMinutes(Integer maxIntervalMinutes) {
+            this.maxIntervalMinutes = maxIntervalMinutes;
+        }
+
+        public Integer getMaxChecksPerTick() {
+            return maxChecksPerTick;
+        }
+
+        public void setMaxChecksPerTick(Integer maxChecksPerTick) {
+            this.maxChecksPerTick = maxChecksPerTick;
+        }
+
+        public Integer getWatchRefreshSeconds() {
+            return watchRefreshSeconds;
+        }
+
+        public void setWatchRefreshSeconds(Integer watchRefreshSeconds) {
+            this.watchRefreshSeconds = watchRefreshSeconds;
+        }
+
+        public Boolean getSharded() {
+            return sharded;
+        }
+
+        public void setSharded(Boolean sharded) {
+            this.sharded = sharded;
+        }
     }
 
     public static class SupplierApi {
@@ -65,6 +196,30 @@ public class ApplicationProperties {
 
         private String baseUrl = "";
 
+        private Integer batchSize = 100;
+
+        private Integer cacheTtlSeconds = 300;
+
+        private Integer negativeCacheTtlSeconds = 30;
+
+        private Integer validatorTtlSeconds = 86400;
+
+        private String client = "rest-template";
+
+        private Integer connectTimeoutMillis = 5000;
+
+        private Integer readTimeoutMillis = 10000;
+
+        private Integer maxInFlightRequests = 64;
+
+        private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+        private final ConnectionPool connectionPool = new ConnectionPool();
+
+        private final Hedging hedging = new Hedging();
+
         public Boolean getEnabled() {
             return enabled;
         }
@@ -80,6 +235,533 @@ public class ApplicationProperties {
         public void setBaseUrl(String baseUrl) {
             this.baseUrl = baseUrl;
         }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Integer getCacheTtlSeconds() {
+            return cacheTtlSeconds;
+        }
+
+        public void setCacheTtlSeconds(Integer cacheTtlSeconds) {
+            this.cacheTtlSeconds = cacheTtlSeconds;
+        }
+
+        public Integer getNegativeCacheTtlSeconds() {
+            return negativeCacheTtlSeconds;
+        }
+
+        public void setNegativeCacheTtlSeconds(Integer negativeCacheTtlSeconds) {
+            this.negativeCacheTtlSeconds = negativeCacheTtlSeconds;
+        }
+
+        public Integer getValidatorTtlSeconds() {
+            return validatorTtlSeconds;
+        }
+
+        public void setValidatorTtlSeconds(Integer validatorTtlSeconds) {
+            this.validatorTtlSeconds = validatorTtlSeconds;
+        }
+
+        public String getClient() {
+            return client;
+        }
+
+        public void setClient(String client) {
+            this.client = client;
+        }
+
+        public Integer getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+
+        public void setConnectTimeoutMillis(Integer connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public Integer getReadTimeoutMillis() {
+            return readTimeoutMillis;
+        }
+
+        public void setReadTimeoutMillis(Integer readTimeoutMillis) {
+            this.readTimeoutMillis = readTimeoutMillis;
+        }
+
+        public Integer getMaxInFlightRequests() {
+            return maxInFlightRequests;
+        }
+
+        public void setMaxInFlightRequests(Integer maxInFlightRequests) {
+            this.maxInFlightRequests = maxInFlightRequests;
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public ConcurrencyLimit getConcurrencyLimit() {
+            return concurrencyLimit;
+        }
+
+        public ConnectionPool getConnectionPool() {
+            return connectionPool;
+        }
+
+        public Hedging getHedging() {
+            return hedging;
+        }
+
+        public static class CircuitBreaker {
+
+            private Integer failureRateThreshold = 50;
+
+            private Integer slidingWindowSize = 20;
+
+            private Integer minimumCalls = 10;
+
+            private Integer slowCallThresholdMillis = 5000;
+
+            private Integer openDurationSeconds = 60;
+
+            private Integer halfOpenCalls = 3;
+
+            public Integer getFailureRateThreshold() {
+                return failureRateThreshold;
+            }
+
+            public void setFailureRateThreshold(Integer failureRateThreshold) {
+                this.failureRateThreshold = failureRateThreshold;
+            }
+
+            public Integer getSlidingWindowSize() {
+                return slidingWindowSize;
+            }
+
+            public void setSlidingWindowSize(Integer slidingWindowSize) {
+                this.slidingWindowSize = slidingWindowSize;
+            }
+
+            public Integer getMinimumCalls() {
+                return minimumCalls;
+            }
+
+            public void setMinimumCalls(Integer minimumCalls) {
+                this.minimumCalls = minimumCalls;
+            }
+
+            public Integer getSlowCallThresholdMillis() {
+                return slowCallThresholdMillis;
+            }
+
+            public void setSlowCallThresholdMillis(Integer slowCallThresholdMillis) {
+                this.slowCallThresholdMillis = slowCallThresholdMillis;
+            }
+
+            public Integer getOpenDurationSeconds() {
+                return openDurationSeconds;
+            }
+
+            public void setOpenDurationSeconds(Integer openDurationSeconds) {
+                this.openDurationSeconds = openDurationSeconds;
+            }
+
+            public Integer getHalfOpenCalls() {
+                return halfOpenCalls;
+            }
+
+            public void setHalfOpenCalls(Integer halfOpenCalls) {
+                this.halfOpenCalls = halfOpenCalls;
+            }
+        }
+
+        public static class ConcurrencyLimit {
+
+            private Integer initialLimit = 8;
+
+            private Integer minLimit = 1;
+
+            private Integer maxLimit = 32;
+
+            private Double backoffRatio = 0.5;
+
+            public Integer getInitialLimit() {
+                return initialLimit;
+            }
+
+            public void setInitialLimit(Integer initialLimit) {
+                this.initialLimit = initialLimit;
+            }
+
+            public Integer getMinLimit() {
+                return minLimit;
+            }
+
+            public void setMinLimit(Integer minLimit) {
+                this.minLimit = minLimit;
+            }
+
+            public Integer getMaxLimit() {
+                return maxLimit;
+            }
+
+            public void setMaxLimit(Integer maxLimit) {
+                this.maxLimit = maxLimit;
+            }
+
+            public Double getBackoffRatio() {
+                return backoffRatio;
+            }
+
+            public void setBackoffRatio(Double backoffRatio) {
+                this.backoffRatio = backoffRatio;
+            }
+        }
+
+        public static class ConnectionPool {
+
+            private Integer maxConnections = 64;
+
+            private Integer maxConnectionsPerRoute = 32;
+
+            private Integer connectionRequestTimeoutMillis = 2000;
+
+            private Integer idleTimeoutSeconds = 30;
+
+            private Integer timeToLiveSeconds = 300;
+
+            public Integer getMaxConnections() {
+                return maxConnections;
+            }
+
+            public void setMaxConnections(Integer maxConnections) {
+                this.maxConnections = maxConnections;
+            }
+
+            public Integer getMaxConnectionsPerRoute() {
+                return maxConnectionsPerRoute;
+            }
+
+            public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+                this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            }
+
+            public Integer getConnectionRequestTimeoutMillis() {
+                return connectionRequestTimeoutMillis;
+            }
+
+            public void setConnectionRequestTimeoutMillis(Integer connectionRequestTimeoutMillis) {
+                this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+            }
+
+            public Integer getIdleTimeoutSeconds() {
+                return idleTimeoutSeconds;
+            }
+
+            public void setIdleTimeoutSeconds(Integer idleTimeoutSeconds) {
+                this.idleTimeoutSeconds = idleTimeoutSeconds;
+            }
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+
+        public static class Hedging {
+
+            private Boolean enabled = false;
+
+            private Integer percentile = 95;
+
+            private Integer minDelayMillis = 50;
+
+            private Integer minSamples = 20;
+
+            private Integer windowSize = 200;
+
+            private Integer budgetPercent = 10;
+
+            private Integer poolSize = 32;
+
+            public Boolean getEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(Boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Integer getPercentile() {
+                return percentile;
+            }
+
+            public void setPercentile(Integer percentile) {
+                this.percentile = percentile;
+            }
+
+            public Integer getMinDelayMillis() {
+                return minDelayMillis;
+            }
+
+            public void setMinDelayMillis(Integer minDelayMillis) {
+                this.minDelayMillis = minDelayMillis;
+            }
+
+            public Integer getMinSamples() {
+                return minSamples;
+            }
+
+            public void setMinSamples(Integer minSamples) {
+                this.minSamples = minSamples;
+            }
+
+            public Integer getWindowSize() {
+                return windowSize;
+            }
+
+            public void setWindowSize(Integer windowSize) {
+                this.windowSize = windowSize;
+            }
+
+            public Integer getBudgetPercent() {
+                return budgetPercent;
+            }
+
+            public void setBudgetPercent(Integer budgetPercent) {
+                this.budgetPercent = budgetPercent;
+            }
+
+            public Integer getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(Integer poolSize) {
+                this.poolSize = poolSize;
+            }
+        }
+    }
+
+    public static class SupplierPush {
+
+        private Integer bufferCapacity = 10000;
+
+        private Integer batchSize = 500;
+
+        private Integer flushIntervalMillis = 1000;
+
+        private Integer retryAfterSeconds = 1;
+
+        public Integer getBufferCapacity() {
+            return bufferCapacity;
+        }
+
+        public void setBufferCapacity(Integer bufferCapacity) {
+            this.bufferCapacity = bufferCapacity;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Integer getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(Integer flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public Integer getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(Integer retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    public static class NotificationDispatch {
+
+        private Boolean enabled = true;
+
+        private Integer intervalSeconds = 10;
+
+        private Integer batchSize = 100;
+
+        private NotificationType defaultType = NotificationType.EMAIL;
+
+        private String gateway = "log";
+
+        private Integer mailBatchSize = 50;
+
+        private Integer pendingWindowHours = 48;
+
+        private Integer claimLeaseSeconds = 300;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Integer getIntervalSeconds() {
+            return intervalSeconds;
+        }
+
+        public void setIntervalSeconds(Integer intervalSeconds) {
+            this.intervalSeconds = intervalSeconds;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public NotificationType getDefaultType() {
+            return defaultType;
+        }
+
+        public void setDefaultType(NotificationType defaultType) {
+            this.defaultType = defaultType;
+        }
+
+        public String getGateway() {
+            return gateway;
+        }
+
+        public void setGateway(String gateway) {
+            this.gateway = gateway;
+        }
+
+        public Integer getMailBatchSize() {
+            return mailBatchSize;
+        }
+
+        public void setMailBatchSize(Integer mailBatchSize) {
+            this.mailBatchSize = mailBatchSize;
+        }
+
+        public Integer getPendingWindowHours() {
+            return pendingWindowHours;
+        }
+
+        public void setPendingWindowHours(Integer pendingWindowHours) {
+            this.pendingWindowHours = pendingWindowHours;
+        }
+
+        public Integer getClaimLeaseSeconds() {
+            return claimLeaseSeconds;
+        }
+
+        public void setClaimLeaseSeconds(Integer claimLeaseSeconds) {
+            this.claimLeaseSeconds = claimLeaseSeconds;
+        }
+    }
+
+    public static class NotificationFeed {
+
+        private Integer recentWindowDays = 31;
+
+        public Integer getRecentWindowDays() {
+            return recentWindowDays;
+        }
+
+        public void setRecentWindowDays(Integer recentWindowDays) {
+            this.recentWindowDays = recentWindowDays;
+        }
+    }
+
+    public static class UnreadCounter {
+
+        private Integer reconcileIntervalSeconds = 3600;
+
+        private Integer reconcileBatchSize = 1000;
+
+        public Integer getReconcileIntervalSeconds() {
+            return reconcileIntervalSeconds;
+        }
+
+        public void setReconcileIntervalSeconds(Integer reconcileIntervalSeconds) {
+            this.reconcileIntervalSeconds = reconcileIntervalSeconds;
+        }
+
+        public Integer getReconcileBatchSize() {
+            return reconcileBatchSize;
+        }
+
+        public void setReconcileBatchSize(Integer reconcileBatchSize) {
+            this.reconcileBatchSize = reconcileBatchSize;
+        }
+    }
+
+    public static class NotificationRetention {
+
+        private Boolean enabled = true;
+
+        private String cron = "0 30 2 * * ?";
+
+        private Integer retentionMonths = 12;
+
+        private Integer premakeMonths = 2;
+
+        private String archiveSchema = "notification_archive";
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public Integer getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(Integer retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public Integer getPremakeMonths() {
+            return premakeMonths;
+        }
+
+        public void setPremakeMonths(Integer premakeMonths) {
+            this.premakeMonths = premakeMonths;
+        }
+
+        public String getArchiveSchema() {
+            return archiveSchema;
+        }
+
+        public void setArchiveSchema(String archiveSchema) {
+            this.archiveSchema = archiveSchema;
+        }
     }
     // jhipster-needle-application-properties-property-class
 }
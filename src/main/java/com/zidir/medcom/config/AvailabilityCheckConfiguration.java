@@ -0,0 +1,48 @@
+package com.zidir.medcom.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration of the resources used by the scheduled availability checks.
+ */
+@Configuration
+public class AvailabilityCheckConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvailabilityCheckConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public AvailabilityCheckConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean(name = "availabilityCheckExecutor")
+    public ThreadPoolTaskExecutor availabilityCheckExecutor() {
+        LOG.debug("Creating Availability Check Executor");
+        int poolSize = applicationProperties.getAvailabilityCheck().getPoolSize();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("medcom-availability-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    @Bean(name = "supplierHedgeExecutor")
+    public ThreadPoolTaskExecutor supplierHedgeExecutor() {
+        LOG.debug("Creating Supplier Hedge Executor");
+        int poolSize = applicationProperties.getSupplierApi().getHedging().getPoolSize();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("medcom-supplier-hedge-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -1,18 +1,80 @@
 package com.zidir.medcom.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Configuration for RestTemplate beans.
+ * <p>
+ * The RestTemplate keeps its connections to the supplier API open in a pool sized by
+ * {@code application.supplier-api.connection-pool}, so availability sweeps do not pay a TCP and TLS handshake per call.
+ * Responses are requested compressed and decompressed transparently.
  */
 @Configuration
 public class RestTemplateConfiguration {
 
+    public static final String SUPPLIER_POOL_NAME = "supplier-api";
+
+    @Bean
+    public PoolingHttpClientConnectionManager supplierConnectionManager(ApplicationProperties applicationProperties) {
+        ApplicationProperties.SupplierApi supplierApi = applicationProperties.getSupplierApi();
+        ApplicationProperties.SupplierApi.ConnectionPool connectionPool = supplierApi.getConnectionPool();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(connectionPool.getMaxConnections())
+            .setMaxConnPerRoute(connectionPool.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(supplierApi.getConnectTimeoutMillis()))
+                    .setSocketTimeout(Timeout.ofMilliseconds(supplierApi.getReadTimeoutMillis()))
+                    .setTimeToLive(TimeValue.ofSeconds(connectionPool.getTimeToLiveSeconds()))
+                    .build()
+            )
+            .build();
+    }
+
+    @Bean
+    public CloseableHttpClient supplierHttpClient(
+        PoolingHttpClientConnectionManager supplierConnectionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.SupplierApi supplierApi = applicationProperties.getSupplierApi();
+        ApplicationProperties.SupplierApi.ConnectionPool connectionPool = supplierApi.getConnectionPool();
+        return HttpClients.custom()
+            .setConnectionManager(supplierConnectionManager)
+            .setDefaultRequestConfig(
+                RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionPool.getConnectionRequestTimeoutMillis()))
+                    .setResponseTimeout(Timeout.ofMilliseconds(supplierApi.getReadTimeoutMillis()))
+                    .build()
+            )
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofSeconds(connectionPool.getIdleTimeoutSeconds()))
+            .build();
+    }
+
+    /**
+     * Publishes the {@code httpcomponents.httpclient.pool.*} gauges of the supplier connection pool.
+     */
+    @Bean
+    public MeterBinder supplierConnectionPoolMetrics(PoolingHttpClientConnectionManager supplierConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(supplierConnectionManager, SUPPLIER_POOL_NAME);
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient supplierHttpClient) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(supplierHttpClient)).build();
     }
 }
@@ -22,6 +22,9 @@ public class WebsocketSecurityConfiguration extends AbstractSecurityWebSocketMes
             // /topic/messages-user<id>)
             .simpDestMatchers("/topic/**")
             .authenticated()
+            // users only receive their own messages, /user/queue/** is resolved against the session principal
+            .simpSubscribeDestMatchers("/user/queue/**")
+            .authenticated()
             // message types other than MESSAGE and SUBSCRIBE
             .simpTypeMatchers(SimpMessageType.MESSAGE, SimpMessageType.SUBSCRIBE)
             .denyAll()
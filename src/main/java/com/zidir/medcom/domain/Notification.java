@@ -5,6 +5,7 @@ import com.zidir.medcom.domain.enumeration.NotificationType;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
@@ -61,6 +62,10 @@ public class Notification implements Serializable {
     @Column(name = "external_message_id")
     private String externalMessageId;
 
+    // Partition key of the table, set by the database when the notification is inserted
+    @Column(name = "created_date", insertable = false, updatable = false)
+    private Instant createdDate;
+
     @ManyToOne(fetch = FetchType.LAZY)
     private Pharmacy pharmacy;
 
@@ -229,6 +234,10 @@ public class Notification implements Serializable {
         this.externalMessageId = externalMessageId;
     }
 
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
     public Pharmacy getPharmacy() {
         return this.pharmacy;
     }
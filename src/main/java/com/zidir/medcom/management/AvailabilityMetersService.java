@@ -0,0 +1,337 @@
+package com.zidir.medcom.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AvailabilityMetersService {
+
+    public static final String SWEEP_DURATION_METER_NAME = "availability.sweep.duration";
+    public static final String SWEEP_DURATION_METER_DESCRIPTION = "Wall time of a complete availability check sweep.";
+
+    public static final String SUPPLIER_CHECKS_METER_NAME = "availability.supplier.checks";
+    public static final String SUPPLIER_CHECKS_METER_DESCRIPTION = "Indicates the number of supplier availability checks by outcome.";
+    public static final String SUPPLIER_CHECKS_METER_BASE_UNIT = "checks";
+    public static final String SUPPLIER_CHECKS_METER_OUTCOME_DIMENSION = "outcome";
+
+    public static final String SUPPLIER_IN_FLIGHT_METER_NAME = "availability.supplier.in-flight";
+    public static final String SUPPLIER_IN_FLIGHT_METER_DESCRIPTION = "Number of supplier availability checks currently in progress.";
+
+    public static final String SWEEP_CALLS_SAVED_METER_NAME = "availability.sweep.calls-saved";
+    public static final String SWEEP_CALLS_SAVED_METER_DESCRIPTION =
+        "Indicates the number of supplier calls avoided by checking each product code once per sweep.";
+
+    public static final String SWEEP_CALLS_SAVED_RATIO_METER_NAME = "availability.sweep.calls-saved.ratio";
+    public static final String SWEEP_CALLS_SAVED_RATIO_METER_DESCRIPTION =
+        "Share of watch-list items of the last sweep served by a supplier call made for another item.";
+
+    public static final String CACHE_REQUESTS_METER_NAME = "availability.cache.requests";
+    public static final String CACHE_REQUESTS_METER_DESCRIPTION = "Indicates the number of availability cache lookups by result.";
+    public static final String CACHE_REQUESTS_METER_RESULT_DIMENSION = "result";
+
+    public static final String CACHE_EVICTIONS_METER_NAME = "availability.cache.evictions";
+    public static final String CACHE_EVICTIONS_METER_DESCRIPTION = "Indicates the number of availability cache entries expired or evicted.";
+
+    public static final String CIRCUIT_TRANSITIONS_METER_NAME = "availability.supplier.circuit.transitions";
+    public static final String CIRCUIT_TRANSITIONS_METER_DESCRIPTION =
+        "Indicates the number of supplier circuit breaker transitions by target state.";
+    public static final String CIRCUIT_TRANSITIONS_METER_STATE_DIMENSION = "state";
+
+    public static final String CIRCUIT_STATE_METER_NAME = "availability.supplier.circuit.state";
+    public static final String CIRCUIT_STATE_METER_DESCRIPTION = "Current supplier circuit breaker state: 0 closed, 1 half-open, 2 open.";
+
+    public static final String REJECTIONS_METER_NAME = "availability.supplier.rejections";
+    public static final String REJECTIONS_METER_DESCRIPTION =
+        "Indicates the number of supplier calls rejected before reaching the supplier.";
+    public static final String REJECTIONS_METER_REASON_DIMENSION = "reason";
+
+    public static final String CONCURRENCY_LIMIT_METER_NAME = "availability.supplier.concurrency.limit";
+    public static final String CONCURRENCY_LIMIT_METER_DESCRIPTION = "Current adaptive limit of concurrent supplier calls.";
+
+    public static final String SCHEDULE_BACKLOG_METER_NAME = "availability.schedule.backlog";
+    public static final String SCHEDULE_BACKLOG_METER_DESCRIPTION =
+        "Number of product codes due for an availability check but left for a later tick by the per-tick budget.";
+
+    public static final String HEDGES_METER_NAME = "availability.supplier.hedges";
+    public static final String HEDGES_METER_DESCRIPTION =
+        "Indicates the number of hedged supplier calls by outcome: issued, won by the hedge, or skipped for lack of budget.";
+    public static final String HEDGES_METER_OUTCOME_DIMENSION = "outcome";
+
+    public static final String SUPPLIER_LATENCY_METER_NAME = "availability.supplier.latency";
+    public static final String SUPPLIER_LATENCY_METER_DESCRIPTION =
+        "Latency of supplier calls by endpoint, of the first request alone (primary) and as seen by the caller with hedging (effective).";
+    public static final String SUPPLIER_LATENCY_METER_ENDPOINT_DIMENSION = "endpoint";
+    public static final String SUPPLIER_LATENCY_METER_REQUEST_DIMENSION = "request";
+
+    public static final String SUPPLIER_ENDPOINT_SINGLE = "single";
+    public static final String SUPPLIER_ENDPOINT_BULK = "bulk";
+
+    public static final String PUSH_EVENTS_METER_NAME = "availability.push.events";
+    public static final String PUSH_EVENTS_METER_DESCRIPTION =
+        "Indicates the number of availability events pushed by the supplier by outcome: accepted, rejected when the buffer is full, " +
+        "coalesced with a later event of the same product, or dropped after failing to be applied.";
+    public static final String PUSH_EVENTS_METER_BASE_UNIT = "events";
+    public static final String PUSH_EVENTS_METER_OUTCOME_DIMENSION = "outcome";
+
+    public static final String PUSH_BUFFER_METER_NAME = "availability.push.buffer";
+    public static final String PUSH_BUFFER_METER_DESCRIPTION = "Number of pushed availability events waiting in the buffer of this node.";
+
+    private final Timer sweepTimer;
+    private final Counter checkSuccessCounter;
+    private final Counter checkNotModifiedCounter;
+    private final Counter checkErrorCounter;
+    private final Counter checkTimeoutCounter;
+    private final Counter callsSavedCounter;
+    private final Counter cacheHitCounter;
+    private final Counter cacheNegativeHitCounter;
+    private final Counter cacheMissCounter;
+    private final Counter cacheEvictionCounter;
+    private final Counter circuitClosedCounter;
+    private final Counter circuitOpenedCounter;
+    private final Counter circuitHalfOpenedCounter;
+    private final Counter circuitOpenRejectionCounter;
+    private final Counter concurrencyLimitRejectionCounter;
+    private final Counter hedgeIssuedCounter;
+    private final Counter hedgeWonCounter;
+    private final Counter hedgeOverBudgetCounter;
+    private final Counter pushAcceptedCounter;
+    private final Counter pushRejectedCounter;
+    private final Counter pushCoalescedCounter;
+    private final Counter pushDroppedCounter;
+    private final AtomicInteger pushBuffer = new AtomicInteger();
+    private final Map<String, Timer> primaryLatencyTimers = new HashMap<>();
+    private final Map<String, Timer> effectiveLatencyTimers = new HashMap<>();
+    private final AtomicInteger circuitState = new AtomicInteger();
+    private final AtomicInteger concurrencyLimit = new AtomicInteger();
+    private final AtomicInteger scheduleBacklog = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong callsSavedRatioBits = new AtomicLong(Double.doubleToLongBits(0));
+
+    public AvailabilityMetersService(MeterRegistry registry) {
+        this.sweepTimer = Timer.builder(SWEEP_DURATION_METER_NAME).description(SWEEP_DURATION_METER_DESCRIPTION).register(registry);
+        this.checkSuccessCounter = supplierChecksCounterForOutcomeBuilder("success").register(registry);
+        this.checkNotModifiedCounter = supplierChecksCounterForOutcomeBuilder("not-modified").register(registry);
+        this.checkErrorCounter = supplierChecksCounterForOutcomeBuilder("error").register(registry);
+        this.checkTimeoutCounter = supplierChecksCounterForOutcomeBuilder("timeout").register(registry);
+        Gauge.builder(SUPPLIER_IN_FLIGHT_METER_NAME, inFlight, AtomicInteger::get)
+            .description(SUPPLIER_IN_FLIGHT_METER_DESCRIPTION)
+            .register(registry);
+        this.callsSavedCounter = Counter.builder(SWEEP_CALLS_SAVED_METER_NAME)
+            .baseUnit(SUPPLIER_CHECKS_METER_BASE_UNIT)
+            .description(SWEEP_CALLS_SAVED_METER_DESCRIPTION)
+            .register(registry);
+        Gauge.builder(SWEEP_CALLS_SAVED_RATIO_METER_NAME, callsSavedRatioBits, bits -> Double.longBitsToDouble(bits.get()))
+            .description(SWEEP_CALLS_SAVED_RATIO_METER_DESCRIPTION)
+            .register(registry);
+        this.cacheHitCounter = cacheRequestsCounterForResultBuilder("hit").register(registry);
+        this.cacheNegativeHitCounter = cacheRequestsCounterForResultBuilder("negative-hit").register(registry);
+        this.cacheMissCounter = cacheRequestsCounterForResultBuilder("miss").register(registry);
+        this.cacheEvictionCounter = Counter.builder(CACHE_EVICTIONS_METER_NAME)
+            .description(CACHE_EVICTIONS_METER_DESCRIPTION)
+            .register(registry);
+        this.circuitClosedCounter = circuitTransitionsCounterForStateBuilder("closed").register(registry);
+        this.circuitOpenedCounter = circuitTransitionsCounterForStateBuilder("open").register(registry);
+        this.circuitHalfOpenedCounter = circuitTransitionsCounterForStateBuilder("half-open").register(registry);
+        Gauge.builder(CIRCUIT_STATE_METER_NAME, circuitState, AtomicInteger::get)
+            .description(CIRCUIT_STATE_METER_DESCRIPTION)
+            .register(registry);
+        this.circuitOpenRejectionCounter = rejectionsCounterForReasonBuilder("circuit-open").register(registry);
+        this.concurrencyLimitRejectionCounter = rejectionsCounterForReasonBuilder("concurrency-limit").register(registry);
+        Gauge.builder(CONCURRENCY_LIMIT_METER_NAME, concurrencyLimit, AtomicInteger::get)
+            .description(CONCURRENCY_LIMIT_METER_DESCRIPTION)
+            .register(registry);
+        Gauge.builder(SCHEDULE_BACKLOG_METER_NAME, scheduleBacklog, AtomicInteger::get)
+            .description(SCHEDULE_BACKLOG_METER_DESCRIPTION)
+            .register(registry);
+        this.hedgeIssuedCounter = hedgesCounterForOutcomeBuilder("issued").register(registry);
+        this.hedgeWonCounter = hedgesCounterForOutcomeBuilder("won").register(registry);
+        this.hedgeOverBudgetCounter = hedgesCounterForOutcomeBuilder("over-budget").register(registry);
+        for (String endpoint : List.of(SUPPLIER_ENDPOINT_SINGLE, SUPPLIER_ENDPOINT_BULK)) {
+            this.primaryLatencyTimers.put(endpoint, supplierLatencyTimerBuilder(endpoint, "primary").register(registry));
+            this.effectiveLatencyTimers.put(endpoint, supplierLatencyTimerBuilder(endpoint, "effective").register(registry));
+        }
+        this.pushAcceptedCounter = pushEventsCounterForOutcomeBuilder("accepted").register(registry);
+        this.pushRejectedCounter = pushEventsCounterForOutcomeBuilder("rejected").register(registry);
+        this.pushCoalescedCounter = pushEventsCounterForOutcomeBuilder("coalesced").register(registry);
+        this.pushDroppedCounter = pushEventsCounterForOutcomeBuilder("dropped").register(registry);
+        Gauge.builder(PUSH_BUFFER_METER_NAME, pushBuffer, AtomicInteger::get).description(PUSH_BUFFER_METER_DESCRIPTION).register(registry);
+    }
+
+    private Counter.Builder hedgesCounterForOutcomeBuilder(String outcome) {
+        return Counter.builder(HEDGES_METER_NAME)
+            .baseUnit(SUPPLIER_CHECKS_METER_BASE_UNIT)
+            .description(HEDGES_METER_DESCRIPTION)
+            .tag(HEDGES_METER_OUTCOME_DIMENSION, outcome);
+    }
+
+    private Counter.Builder pushEventsCounterForOutcomeBuilder(String outcome) {
+        return Counter.builder(PUSH_EVENTS_METER_NAME)
+            .baseUnit(PUSH_EVENTS_METER_BASE_UNIT)
+            .description(PUSH_EVENTS_METER_DESCRIPTION)
+            .tag(PUSH_EVENTS_METER_OUTCOME_DIMENSION, outcome);
+    }
+
+    private Timer.Builder supplierLatencyTimerBuilder(String endpoint, String request) {
+        return Timer.builder(SUPPLIER_LATENCY_METER_NAME)
+            .description(SUPPLIER_LATENCY_METER_DESCRIPTION)
+            .tag(SUPPLIER_LATENCY_METER_ENDPOINT_DIMENSION, endpoint)
+            .tag(SUPPLIER_LATENCY_METER_REQUEST_DIMENSION, request)
+            .publishPercentiles(0.5, 0.99);
+    }
+
+    private Counter.Builder circuitTransitionsCounterForStateBuilder(String state) {
+        return Counter.builder(CIRCUIT_TRANSITIONS_METER_NAME)
+            .description(CIRCUIT_TRANSITIONS_METER_DESCRIPTION)
+            .tag(CIRCUIT_TRANSITIONS_METER_STATE_DIMENSION, state);
+    }
+
+    private Counter.Builder rejectionsCounterForReasonBuilder(String reason) {
+        return Counter.builder(REJECTIONS_METER_NAME)
+            .baseUnit(SUPPLIER_CHECKS_METER_BASE_UNIT)
+            .description(REJECTIONS_METER_DESCRIPTION)
+            .tag(REJECTIONS_METER_REASON_DIMENSION, reason);
+    }
+
+    private Counter.Builder cacheRequestsCounterForResultBuilder(String result) {
+        return Counter.builder(CACHE_REQUESTS_METER_NAME)
+            .description(CACHE_REQUESTS_METER_DESCRIPTION)
+            .tag(CACHE_REQUESTS_METER_RESULT_DIMENSION, result);
+    }
+
+    private Counter.Builder supplierChecksCounterForOutcomeBuilder(String outcome) {
+        return Counter.builder(SUPPLIER_CHECKS_METER_NAME)
+            .baseUnit(SUPPLIER_CHECKS_METER_BASE_UNIT)
+            .description(SUPPLIER_CHECKS_METER_DESCRIPTION)
+            .tag(SUPPLIER_CHECKS_METER_OUTCOME_DIMENSION, outcome);
+    }
+
+    public void recordSweep(Duration duration) {
+        this.sweepTimer.record(duration);
+    }
+
+    public void recordDeduplication(long itemCount, long distinctCodeCount) {
+        long saved = itemCount - distinctCodeCount;
+        this.callsSavedCounter.increment(saved);
+        this.callsSavedRatioBits.set(Double.doubleToLongBits(itemCount == 0 ? 0 : (double) saved / itemCount));
+    }
+
+    public void trackCheckSuccess() {
+        this.checkSuccessCounter.increment();
+    }
+
+    public void trackCheckNotModified() {
+        this.checkNotModifiedCounter.increment();
+    }
+
+    public void trackCheckError() {
+        this.checkErrorCounter.increment();
+    }
+
+    public void trackCheckTimeouts(int count) {
+        this.checkTimeoutCounter.increment(count);
+    }
+
+    public void trackCacheHit() {
+        this.cacheHitCounter.increment();
+    }
+
+    public void trackCacheNegativeHit() {
+        this.cacheNegativeHitCounter.increment();
+    }
+
+    public void trackCacheMiss() {
+        this.cacheMissCounter.increment();
+    }
+
+    public void trackCacheEviction() {
+        this.cacheEvictionCounter.increment();
+    }
+
+    public void checkStarted() {
+        this.inFlight.incrementAndGet();
+    }
+
+    public void checkFinished() {
+        this.inFlight.decrementAndGet();
+    }
+
+    public void trackCircuitClosed() {
+        this.circuitClosedCounter.increment();
+        this.circuitState.set(0);
+    }
+
+    public void trackCircuitHalfOpened() {
+        this.circuitHalfOpenedCounter.increment();
+        this.circuitState.set(1);
+    }
+
+    public void trackCircuitOpened() {
+        this.circuitOpenedCounter.increment();
+        this.circuitState.set(2);
+    }
+
+    public void trackCircuitOpenRejection() {
+        this.circuitOpenRejectionCounter.increment();
+    }
+
+    public void trackConcurrencyLimitRejection() {
+        this.concurrencyLimitRejectionCounter.increment();
+    }
+
+    public void recordConcurrencyLimit(int limit) {
+        this.concurrencyLimit.set(limit);
+    }
+
+    public void recordScheduleBacklog(int backlog) {
+        this.scheduleBacklog.set(backlog);
+    }
+
+    public void trackHedgeIssued() {
+        this.hedgeIssuedCounter.increment();
+    }
+
+    public void trackHedgeWon() {
+        this.hedgeWonCounter.increment();
+    }
+
+    public void trackHedgeOverBudget() {
+        this.hedgeOverBudgetCounter.increment();
+    }
+
+    public void recordPrimaryLatency(String endpoint, Duration latency) {
+        this.primaryLatencyTimers.get(endpoint).record(latency);
+    }
+
+    public void recordEffectiveLatency(String endpoint, Duration latency) {
+        this.effectiveLatencyTimers.get(endpoint).record(latency);
+    }
+
+    public void trackPushAccepted(int count) {
+        this.pushAcceptedCounter.increment(count);
+    }
+
+    public void trackPushRejected(int count) {
+        this.pushRejectedCounter.increment(count);
+    }
+
+    public void trackPushCoalesced(int count) {
+        this.pushCoalescedCounter.increment(count);
+    }
+
+    public void trackPushDropped(int count) {
+        this.pushDroppedCounter.increment(count);
+    }
+
+    public void recordPushBuffer(int size) {
+        this.pushBuffer.set(size);
+    }
+}
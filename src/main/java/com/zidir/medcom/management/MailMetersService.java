@@ -0,0 +1,62 @@
+package com.zidir.medcom.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Service;
+
+@Service
+public class MailMetersService {
+
+    public static final String QUEUE_DEPTH_METER_NAME = "mail.queue.depth";
+    public static final String QUEUE_DEPTH_METER_DESCRIPTION =
+        "Number of emails accepted for delivery and not yet handed to the SMTP server.";
+
+    public static final String EMAILS_METER_NAME = "mail.emails";
+    public static final String EMAILS_METER_DESCRIPTION = "Indicates the number of emails handed to the SMTP server by outcome.";
+    public static final String EMAILS_METER_BASE_UNIT = "emails";
+    public static final String EMAILS_METER_OUTCOME_DIMENSION = "outcome";
+
+    public static final String BATCH_DURATION_METER_NAME = "mail.batch.duration";
+    public static final String BATCH_DURATION_METER_DESCRIPTION = "Time to send a batch of emails over one SMTP connection.";
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    public MailMetersService(MeterRegistry registry) {
+        Gauge.builder(QUEUE_DEPTH_METER_NAME, queueDepth, AtomicInteger::get)
+            .description(QUEUE_DEPTH_METER_DESCRIPTION)
+            .register(registry);
+        this.sentCounter = emailsCounterForOutcomeBuilder("sent").register(registry);
+        this.failedCounter = emailsCounterForOutcomeBuilder("failed").register(registry);
+        this.batchTimer = Timer.builder(BATCH_DURATION_METER_NAME).description(BATCH_DURATION_METER_DESCRIPTION).register(registry);
+    }
+
+    private Counter.Builder emailsCounterForOutcomeBuilder(String outcome) {
+        return Counter.builder(EMAILS_METER_NAME)
+            .baseUnit(EMAILS_METER_BASE_UNIT)
+            .description(EMAILS_METER_DESCRIPTION)
+            .tag(EMAILS_METER_OUTCOME_DIMENSION, outcome);
+    }
+
+    public void emailsQueued(int count) {
+        this.queueDepth.addAndGet(count);
+    }
+
+    public void recordBatch(int sent, int failed, Duration duration) {
+        this.queueDepth.addAndGet(-(sent + failed));
+        this.sentCounter.increment(sent);
+        this.failedCounter.increment(failed);
+        this.batchTimer.record(duration);
+    }
+
+    public void emailsRejected(int count) {
+        this.queueDepth.addAndGet(-count);
+        this.failedCounter.increment(count);
+    }
+}
@@ -1,9 +1,12 @@
 package com.zidir.medcom.repository;
 
 import com.zidir.medcom.domain.Notification;
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -14,17 +17,108 @@ import org.springframework.stereotype.Repository;
  * Spring Data JPA repository for the Notification entity.
  */
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository
+    extends
+        NotificationRepositoryWithBulkInsert,
+        NotificationRepositoryWithOutbox,
+        NotificationRepositoryWithUnreadCounter,
+        NotificationRepositoryWithPartitions,
+        JpaRepository<Notification, Long> {
     @Query("select notification from Notification notification where notification.user.login = ?#{authentication.name}")
     List<Notification> findByUserIsCurrentUser();
 
-    Page<Notification> findByUserId(Long userId, Pageable pageable);
+    String VIEW_SELECT =
+        "select notification.id as id, notification.notificationType as notificationType, notification.message as message, " +
+        "notification.readAt as readAt, notification.sent as sent, notification.sentAt as sentAt, " +
+        "notification.delivered as delivered, notification.deliveredAt as deliveredAt, notification.failed as failed, " +
+        "notification.failedAt as failedAt, notification.failureReason as failureReason, " +
+        "notification.externalMessageId as externalMessageId, notification.createdDate as createdDate, " +
+        "notification.pharmacy.id as pharmacyId, notificationUser.id as userId, notificationUser.login as userLogin, " +
+        "notification.watchListItem.id as watchListItemId " +
+        "from Notification notification left join notification.user notificationUser ";
 
-    Page<Notification> findByPharmacyId(Long pharmacyId, Pageable pageable);
+    @Query(
+        value = VIEW_SELECT + "where notification.user.id = :userId",
+        countQuery = "select count(notification) from Notification notification where notification.user.id = :userId"
+    )
+    Page<NotificationView> findViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(
+        value = VIEW_SELECT + "where notification.pharmacy.id = :pharmacyId",
+        countQuery = "select count(notification) from Notification notification where notification.pharmacy.id = :pharmacyId"
+    )
+    Page<NotificationView> findViewsByPharmacyId(@Param("pharmacyId") Long pharmacyId, Pageable pageable);
+
+    @Query(
+        value = VIEW_SELECT + "where notification.user.id = :userId and notification.readAt is null",
+        countQuery = "select count(notification) from Notification notification " +
+        "where notification.user.id = :userId and notification.readAt is null"
+    )
+    Page<NotificationView> findUnreadViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * The feed queries select the notifications created in {@code [createdFrom, createdBefore)}, so that they only scan
+     * the partitions of these months.
+     */
+    String CREATED_BETWEEN = "and notification.createdDate >= :createdFrom and notification.createdDate < :createdBefore ";
 
-    Page<Notification> findByUserIdAndReadAtIsNull(Long userId, Pageable pageable);
+    /**
+     * The feeds are ordered by creation date then id, as ids are allocated in blocks per node and do not follow the
+     * creation order. A page starts after the notification of the cursor {@code (beforeCreatedDate, beforeId)}.
+     */
+    String BEFORE_CURSOR =
+        "and (notification.createdDate < :beforeCreatedDate " +
+        "or (notification.createdDate = :beforeCreatedDate and notification.id < :beforeId)) ";
 
-    long countByUserIdAndReadAtIsNull(Long userId);
+    String FEED_ORDER = "order by notification.createdDate desc, notification.id desc";
+
+    @Query(
+        VIEW_SELECT +
+        "where notification.user.id = :userId " +
+        BEFORE_CURSOR +
+        CREATED_BETWEEN +
+        FEED_ORDER
+    )
+    List<NotificationView> findViewsByUserIdBefore(
+        @Param("userId") Long userId,
+        @Param("beforeCreatedDate") Instant beforeCreatedDate,
+        @Param("beforeId") Long beforeId,
+        @Param("createdFrom") Instant createdFrom,
+        @Param("createdBefore") Instant createdBefore,
+        Limit limit
+    );
+
+    @Query(
+        VIEW_SELECT +
+        "where notification.pharmacy.id = :pharmacyId " +
+        BEFORE_CURSOR +
+        CREATED_BETWEEN +
+        FEED_ORDER
+    )
+    List<NotificationView> findViewsByPharmacyIdBefore(
+        @Param("pharmacyId") Long pharmacyId,
+        @Param("beforeCreatedDate") Instant beforeCreatedDate,
+        @Param("beforeId") Long beforeId,
+        @Param("createdFrom") Instant createdFrom,
+        @Param("createdBefore") Instant createdBefore,
+        Limit limit
+    );
+
+    @Query(
+        VIEW_SELECT +
+        "where notification.user.id = :userId and notification.readAt is null " +
+        BEFORE_CURSOR +
+        CREATED_BETWEEN +
+        FEED_ORDER
+    )
+    List<NotificationView> findUnreadViewsByUserIdBefore(
+        @Param("userId") Long userId,
+        @Param("beforeCreatedDate") Instant beforeCreatedDate,
+        @Param("beforeId") Long beforeId,
+        @Param("createdFrom") Instant createdFrom,
+        @Param("createdBefore") Instant createdBefore,
+        Limit limit
+    );
 
     @Modifying
     @Query("update Notification n set n.readAt = :readAt where n.user.id = :userId and n.readAt is null")
@@ -53,4 +147,44 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     @Query("select notification from Notification notification left join fetch notification.user where notification.id =:id")
     Optional<Notification> findOneWithToOneRelationships(@Param("id") Long id);
+
+    /**
+     * Read-only view of a notification, with the ids and login of its relationships only.
+     * Selected column by column, so listing notifications neither loads nor caches the entities.
+     */
+    interface NotificationView {
+        Long getId();
+
+        NotificationType getNotificationType();
+
+        String getMessage();
+
+        ZonedDateTime getReadAt();
+
+        Boolean getSent();
+
+        ZonedDateTime getSentAt();
+
+        Boolean getDelivered();
+
+        ZonedDateTime getDeliveredAt();
+
+        Boolean getFailed();
+
+        ZonedDateTime getFailedAt();
+
+        String getFailureReason();
+
+        String getExternalMessageId();
+
+        Instant getCreatedDate();
+
+        Long getPharmacyId();
+
+        Long getUserId();
+
+        String getUserLogin();
+
+        Long getWatchListItemId();
+    }
 }
@@ -0,0 +1,19 @@
+package com.zidir.medcom.repository;
+
+import com.zidir.medcom.domain.Notification;
+import java.util.List;
+
+/**
+ * Bulk write operations for the {@link Notification} entity.
+ */
+public interface NotificationRepositoryWithBulkInsert {
+    /**
+     * Insert new notifications with JDBC batch statements, bypassing the persistence context.
+     * Identifiers are assigned from the entity sequence generator, so they never collide with ids
+     * handed out by Hibernate.
+     *
+     * @param notifications the new notifications, their id is set on return.
+     * @return the number of inserted rows.
+     */
+    int bulkInsert(List<Notification> notifications);
+}
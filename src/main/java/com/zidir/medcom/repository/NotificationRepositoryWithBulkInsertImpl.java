@@ -0,0 +1,75 @@
+package com.zidir.medcom.repository;
+
+import com.zidir.medcom.domain.Notification;
+import com.zidir.medcom.domain.WatchListItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class NotificationRepositoryWithBulkInsertImpl implements NotificationRepositoryWithBulkInsert {
+
+    private static final String INSERT_NOTIFICATION =
+        "insert into notification (id, notification_type, message, sent, delivered, failed, pharmacy_id, user_id, watch_list_item_id) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    NotificationRepositoryWithBulkInsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int bulkInsert(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Notification.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) persister.getGenerator();
+        for (Notification notification : notifications) {
+            notification.setId((Long) generator.generate(session, notification, null, EventType.INSERT));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, notifications, BATCH_SIZE, NotificationRepositoryWithBulkInsertImpl::setValues);
+
+        // Rows written behind Hibernate's back must not leave stale watch list collections in the second-level cache
+        SessionFactory sessionFactory = session.getFactory();
+        notifications
+            .stream()
+            .map(Notification::getWatchListItem)
+            .filter(Objects::nonNull)
+            .map(WatchListItem::getId)
+            .distinct()
+            .forEach(id -> sessionFactory.getCache().evictCollectionData("com.zidir.medcom.domain.WatchListItem.notifications", id));
+
+        return notifications.size();
+    }
+
+    private static void setValues(PreparedStatement ps, Notification notification) throws SQLException {
+        ps.setLong(1, notification.getId());
+        ps.setObject(2, notification.getNotificationType() != null ? notification.getNotificationType().name() : null, Types.VARCHAR);
+        ps.setString(3, notification.getMessage());
+        ps.setObject(4, notification.getSent(), Types.BOOLEAN);
+        ps.setObject(5, notification.getDelivered(), Types.BOOLEAN);
+        ps.setObject(6, notification.getFailed(), Types.BOOLEAN);
+        ps.setObject(7, notification.getPharmacy() != null ? notification.getPharmacy().getId() : null, Types.BIGINT);
+        ps.setObject(8, notification.getUser() != null ? notification.getUser().getId() : null, Types.BIGINT);
+        ps.setObject(9, notification.getWatchListItem() != null ? notification.getWatchListItem().getId() : null, Types.BIGINT);
+    }
+}
@@ -0,0 +1,57 @@
+package com.zidir.medcom.repository;
+
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outbox operations of the {@link com.zidir.medcom.domain.Notification} table, used to deliver notifications.
+ */
+public interface NotificationRepositoryWithOutbox {
+    /**
+     * Claim the oldest notifications that are neither sent nor failed nor claimed by an unexpired lease, skipping rows
+     * locked by another claim. The claimed notifications are leased until {@code claimedAt + lease}: they can be sent
+     * after the claiming transaction commits, and are claimed again only if their outcome is not written in time.
+     * Must be called within a transaction, kept short as it locks the claimed rows.
+     *
+     * @param createdFrom only the notifications created since then are claimed, so that only the partitions of the
+     *        recent months are scanned.
+     * @param claimedAt when the notifications are claimed.
+     * @param lease how long the claimed notifications are skipped by the other claims.
+     * @param limit the maximum number of notifications to claim.
+     * @return the claimed notifications with their creation date and the addresses of their recipient.
+     */
+    List<PendingNotification> claimPending(Instant createdFrom, Instant claimedAt, Duration lease, int limit);
+
+    /**
+     * Write the delivery status of dispatched notifications.
+     * Each notification is matched on its id and creation date, so that only its monthly partition is searched.
+     *
+     * @param outcomes the outcome of each dispatched notification.
+     * @param dispatchedAt when the notifications were dispatched.
+     * @return the number of updated notifications.
+     */
+    int markDispatched(List<DispatchOutcome> outcomes, Instant dispatchedAt);
+
+    record PendingNotification(
+        Long id,
+        Instant createdDate,
+        NotificationType notificationType,
+        String message,
+        String userEmail,
+        String userLangKey,
+        String pharmacyEmail,
+        String pharmacyPhone
+    ) {}
+
+    record DispatchOutcome(Long id, Instant createdDate, boolean sent, String externalMessageId, String failureReason) {
+        public static DispatchOutcome sent(PendingNotification notification, String externalMessageId) {
+            return new DispatchOutcome(notification.id(), notification.createdDate(), true, externalMessageId, null);
+        }
+
+        public static DispatchOutcome failed(PendingNotification notification, String failureReason) {
+            return new DispatchOutcome(notification.id(), notification.createdDate(), false, null, failureReason);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.zidir.medcom.repository;
+
+import com.zidir.medcom.domain.Notification;
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class NotificationRepositoryWithOutboxImpl implements NotificationRepositoryWithOutbox {
+
+    private static final String CLAIM_PENDING =
+        "update notification n set dispatch_claimed_until = ? " +
+        "from (select id, created_date, user_id, pharmacy_id from notification " +
+        "where sent = false and failed = false and created_date >= ? and (dispatch_claimed_until is null or dispatch_claimed_until < ?) " +
+        "order by id limit ? for update skip locked) c " +
+        "left join jhi_user u on u.id = c.user_id left join pharmacy p on p.id = c.pharmacy_id " +
+        "where n.id = c.id and n.created_date = c.created_date " +
+        "returning n.id, n.created_date, n.notification_type, n.message, " +
+        "u.email as user_email, u.lang_key, p.email as pharmacy_email, p.phone";
+
+    private static final String MARK_DISPATCHED =
+        "update notification set sent = ?, sent_at = ?, failed = ?, failed_at = ?, failure_reason = ?, external_message_id = ? " +
+        "where id = ? and created_date = ?";
+
+    private static final int FAILURE_REASON_LENGTH = 255;
+
+    private static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    NotificationRepositoryWithOutboxImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<PendingNotification> claimPending(Instant createdFrom, Instant claimedAt, Duration lease, int limit) {
+        // Written in UTC, as Hibernate does with hibernate.jdbc.time_zone
+        return jdbcTemplate.query(
+            CLAIM_PENDING,
+            NotificationRepositoryWithOutboxImpl::mapPendingNotification,
+            LocalDateTime.ofInstant(claimedAt.plus(lease), ZoneOffset.UTC),
+            LocalDateTime.ofInstant(createdFrom, ZoneOffset.UTC),
+            LocalDateTime.ofInstant(claimedAt, ZoneOffset.UTC),
+            limit
+        );
+    }
+
+    @Override
+    public int markDispatched(List<DispatchOutcome> outcomes, Instant dispatchedAt) {
+        if (outcomes.isEmpty()) {
+            return 0;
+        }
+
+        // Written in UTC, as Hibernate does with hibernate.jdbc.time_zone
+        LocalDateTime timestamp = LocalDateTime.ofInstant(dispatchedAt, ZoneOffset.UTC);
+        jdbcTemplate.batchUpdate(MARK_DISPATCHED, outcomes, BATCH_SIZE, (ps, outcome) -> {
+            ps.setBoolean(1, outcome.sent());
+            ps.setObject(2, outcome.sent() ? timestamp : null, Types.TIMESTAMP);
+            ps.setBoolean(3, !outcome.sent());
+            ps.setObject(4, outcome.sent() ? null : timestamp, Types.TIMESTAMP);
+            ps.setString(5, StringUtils.abbreviate(outcome.failureReason(), FAILURE_REASON_LENGTH));
+            ps.setString(6, outcome.externalMessageId());
+            ps.setLong(7, outcome.id());
+            // Prunes the update to the partition of the notification
+            ps.setObject(8, LocalDateTime.ofInstant(outcome.createdDate(), ZoneOffset.UTC), Types.TIMESTAMP);
+        });
+
+        // Rows updated behind Hibernate's back must not stay stale in the second-level cache
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        outcomes.forEach(outcome -> cache.evictEntityData(Notification.class, outcome.id()));
+
+        return outcomes.size();
+    }
+
+    private static PendingNotification mapPendingNotification(ResultSet rs, int rowNum) throws SQLException {
+        String notificationType = rs.getString("notification_type");
+        return new PendingNotification(
+            rs.getLong("id"),
+            rs.getObject("created_date", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+            notificationType != null ? NotificationType.valueOf(notificationType) : null,
+            rs.getString("message"),
+            rs.getString("user_email"),
+            rs.getString("lang_key"),
+            rs.getString("pharmacy_email"),
+            rs.getString("phone")
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package com.zidir.medcom.repository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Partition maintenance of the {@link com.zidir.medcom.domain.Notification} table, partitioned by month of creation.
+ * <p>
+ * A partition is retired in two steps, {@link #detachPartition(YearMonth)} then {@link #archivePartition(YearMonth, String)},
+ * both of which do nothing if a previous run already did them, so an interrupted retirement is finished by the next one.
+ */
+public interface NotificationRepositoryWithPartitions {
+    /**
+     * Must be called within a transaction.
+     *
+     * @return the months having a partition in the current schema, in chronological order, the default partition excluded.
+     *         Partitions detached by an unfinished retirement are included.
+     */
+    List<YearMonth> findPartitionMonths();
+
+    /**
+     * Create the partition of a month if it does not exist. Must be called within a transaction.
+     *
+     * @param month the month.
+     */
+    void createPartition(YearMonth month);
+
+    /**
+     * Detach the partition of a month, so its notifications are no longer visible. Must be called outside a transaction:
+     * the detach locks the whole notification table, so it runs in its own short transaction that gives up if the table
+     * cannot be locked quickly.
+     *
+     * @param month the month.
+     * @return {@code true} if the partition was detached, {@code false} if it was not attached.
+     */
+    boolean detachPartition(YearMonth month);
+
+    /**
+     * Move a detached partition to {@code archiveSchema} without its foreign keys, or drop it if {@code archiveSchema} is
+     * blank. Does nothing if the partition is no longer in the current schema. Must be called within a transaction.
+     *
+     * @param month the month.
+     * @param archiveSchema the schema receiving detached partitions, {@code null} to drop them.
+     * @throws IllegalStateException if the partition is still attached.
+     */
+    void archivePartition(YearMonth month, String archiveSchema);
+}
@@ -0,0 +1,152 @@
+package com.zidir.medcom.repository;
+
+import com.zidir.medcom.domain.Notification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class NotificationRepositoryWithPartitionsImpl implements NotificationRepositoryWithPartitions {
+
+    private static final String FIND_PARTITIONS =
+        "select relname from pg_class where relnamespace = current_schema()::regnamespace and relkind = 'r' " +
+        "and relname ~ '^notification_y[0-9]{4}m[0-9]{2}$'";
+
+    private static final String PARTITION_EXISTS =
+        "select count(*) from pg_class where relname = ? and relnamespace = current_schema()::regnamespace";
+
+    private static final String FIND_ATTACHMENT =
+        "select count(*) from pg_inherits i join pg_class child on child.oid = i.inhrelid " +
+        "where child.relname = ? and child.relnamespace = current_schema()::regnamespace and i.inhparent = 'notification'::regclass";
+
+    /**
+     * How long a detach waits for the ACCESS EXCLUSIVE lock of the notification table, which blocks every query of the
+     * table while it is waited for. The table has a default partition, so the partition cannot be detached
+     * {@code CONCURRENTLY}.
+     */
+    private static final String DETACH_LOCK_TIMEOUT = "5s";
+
+    private static final String FIND_FOREIGN_KEYS =
+        "select conname from pg_constraint where conrelid = ?::regclass and contype = 'f'";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("notification_y(\\d{4})m(\\d{2})");
+
+    private static final DateTimeFormatter PARTITION_BOUND = DateTimeFormatter.ofPattern("yyyy-MM-01");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    NotificationRepositoryWithPartitionsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate
+            .queryForList(FIND_PARTITIONS, String.class)
+            .stream()
+            .map(PARTITION_NAME::matcher)
+            .filter(Matcher::matches)
+            .map(matcher -> YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))))
+            .sorted()
+            .toList();
+    }
+
+    @Override
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute(
+            "create table if not exists " +
+            partitionName(month) +
+            " partition of notification for values from ('" +
+            PARTITION_BOUND.format(month) +
+            "') to ('" +
+            PARTITION_BOUND.format(month.plusMonths(1)) +
+            "')"
+        );
+    }
+
+    @Override
+    public boolean detachPartition(YearMonth month) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Partitions must be detached outside a transaction");
+        }
+
+        String partition = partitionName(month);
+        if (count(FIND_ATTACHMENT, partition) == 0) {
+            return false;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            // The lock of the whole table is released as soon as the detach commits
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set lock_timeout = '" + DETACH_LOCK_TIMEOUT + "'");
+                try {
+                    statement.execute("alter table notification detach partition " + partition);
+                } finally {
+                    statement.execute("reset lock_timeout");
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+
+        // Rows removed behind Hibernate's back must not stay in the second-level cache
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictEntityData(Notification.class);
+        sessionFactory.getCache().evictCollectionData("com.zidir.medcom.domain.WatchListItem.notifications");
+        return true;
+    }
+
+    @Override
+    public void archivePartition(YearMonth month, String archiveSchema) {
+        String partition = partitionName(month);
+        if (count(PARTITION_EXISTS, partition) == 0) {
+            return;
+        }
+        if (count(FIND_ATTACHMENT, partition) > 0) {
+            throw new IllegalStateException("Partition " + partition + " is still attached");
+        }
+
+        if (StringUtils.isBlank(archiveSchema)) {
+            jdbcTemplate.execute("drop table " + partition);
+        } else {
+            // Archived notifications must not prevent deleting the users, pharmacies and items they refer to
+            for (String foreignKey : jdbcTemplate.queryForList(FIND_FOREIGN_KEYS, String.class, partition)) {
+                jdbcTemplate.execute("alter table " + partition + " drop constraint " + foreignKey);
+            }
+            jdbcTemplate.execute("create schema if not exists " + identifier(archiveSchema));
+            jdbcTemplate.execute("alter table " + partition + " set schema " + identifier(archiveSchema));
+        }
+    }
+
+    private int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count != null ? count : 0;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("notification_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static String identifier(String name) {
+        if (!Objects.requireNonNull(name).matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid schema name: " + name);
+        }
+        return name;
+    }
+}
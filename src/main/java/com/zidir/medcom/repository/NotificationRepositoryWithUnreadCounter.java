@@ -0,0 +1,52 @@
+package com.zidir.medcom.repository;
+
+import java.util.Map;
+
+/**
+ * Per-user counters of unread {@link com.zidir.medcom.domain.Notification}s, kept in the unread_notification_counter table.
+ * <p>
+ * Counters are updated in the transaction changing the notifications, and recomputed from the notification table
+ * by {@link #reconcileUnreadCounts(long, int)} to correct the drift of paths that do not maintain them.
+ */
+public interface NotificationRepositoryWithUnreadCounter {
+    /**
+     * @param userId the id of the user.
+     * @return the number of unread notifications of the user.
+     */
+    long findUnreadCount(Long userId);
+
+    /**
+     * Increase the unread counters of users.
+     *
+     * @param countsByUserId the number of new unread notifications of each user.
+     */
+    void incrementUnreadCounts(Map<Long, Long> countsByUserId);
+
+    /**
+     * Decrease the unread counter of a user, without going below zero.
+     *
+     * @param userId the id of the user.
+     * @param count the number of notifications read.
+     */
+    void decrementUnreadCount(Long userId, long count);
+
+    /**
+     * Recompute the counters of a batch of users from the notification table. The counters of the batch are locked
+     * before they are recounted, so that the increments and decrements committed meanwhile are not overwritten.
+     * Must be called within a transaction.
+     *
+     * @param afterUserId the batch starts after this user id, {@code 0} for the first batch.
+     * @param batchSize the maximum number of users in the batch.
+     * @return the batch reconciled.
+     */
+    ReconciledBatch reconcileUnreadCounts(long afterUserId, int batchSize);
+
+    /**
+     * A batch of users whose unread counters were recomputed.
+     *
+     * @param userCount the number of users in the batch, fewer than the batch size for the last batch.
+     * @param lastUserId the id of the last user of the batch.
+     * @param correctedCount the number of counters that were wrong.
+     */
+    record ReconciledBatch(int userCount, long lastUserId, int correctedCount) {}
+}
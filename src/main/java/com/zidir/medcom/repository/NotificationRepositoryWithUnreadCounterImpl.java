@@ -0,0 +1,85 @@
+package com.zidir.medcom.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class NotificationRepositoryWithUnreadCounterImpl implements NotificationRepositoryWithUnreadCounter {
+
+    private static final String FIND_UNREAD_COUNT = "select unread_count from unread_notification_counter where user_id = ?";
+
+    private static final String INCREMENT_UNREAD_COUNT =
+        "insert into unread_notification_counter (user_id, unread_count) values (?, ?) " +
+        "on conflict (user_id) do update set unread_count = unread_notification_counter.unread_count + excluded.unread_count";
+
+    private static final String DECREMENT_UNREAD_COUNT =
+        "update unread_notification_counter set unread_count = greatest(unread_count - ?, 0) where user_id = ?";
+
+    private static final String FIND_USER_IDS_AFTER = "select id from jhi_user where id > ? order by id limit ?";
+
+    private static final String CREATE_MISSING_COUNTERS =
+        "insert into unread_notification_counter (user_id, unread_count) select id, 0 from jhi_user where id between ? and ? " +
+        "on conflict (user_id) do nothing";
+
+    private static final String LOCK_COUNTERS =
+        "select user_id from unread_notification_counter where user_id between ? and ? order by user_id for update";
+
+    private static final String RECOUNT_UNREAD_COUNTS =
+        "update unread_notification_counter c set unread_count = v.unread_count from (" +
+        "select u.id as user_id, count(n.id) as unread_count from jhi_user u " +
+        "left join notification n on n.user_id = u.id and n.read_at is null where u.id between ? and ? group by u.id" +
+        ") v where c.user_id = v.user_id and c.unread_count <> v.unread_count";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    NotificationRepositoryWithUnreadCounterImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long findUnreadCount(Long userId) {
+        List<Long> counts = jdbcTemplate.queryForList(FIND_UNREAD_COUNT, Long.class, userId);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    @Override
+    public void incrementUnreadCounts(Map<Long, Long> countsByUserId) {
+        if (countsByUserId.isEmpty()) {
+            return;
+        }
+
+        // Rows are locked in user id order, so that concurrent fan-outs cannot deadlock
+        List<Map.Entry<Long, Long>> counts = new ArrayList<>(new TreeMap<>(countsByUserId).entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_UNREAD_COUNT, counts, BATCH_SIZE, (ps, count) -> {
+            ps.setLong(1, count.getKey());
+            ps.setLong(2, count.getValue());
+        });
+    }
+
+    @Override
+    public void decrementUnreadCount(Long userId, long count) {
+        if (count > 0) {
+            jdbcTemplate.update(DECREMENT_UNREAD_COUNT, count, userId);
+        }
+    }
+
+    @Override
+    public ReconciledBatch reconcileUnreadCounts(long afterUserId, int batchSize) {
+        List<Long> userIds = jdbcTemplate.queryForList(FIND_USER_IDS_AFTER, Long.class, afterUserId, batchSize);
+        if (userIds.isEmpty()) {
+            return new ReconciledBatch(0, afterUserId, 0);
+        }
+
+        long firstUserId = userIds.get(0);
+        long lastUserId = userIds.get(userIds.size() - 1);
+        jdbcTemplate.update(CREATE_MISSING_COUNTERS, firstUserId, lastUserId);
+        // Increments and decrements of the batch wait for the recount, in user id order like the fan-out locks them
+        jdbcTemplate.queryForList(LOCK_COUNTERS, Long.class, firstUserId, lastUserId);
+        int corrected = jdbcTemplate.update(RECOUNT_UNREAD_COUNTS, firstUserId, lastUserId);
+        return new ReconciledBatch(userIds.size(), lastUserId, corrected);
+    }
+}
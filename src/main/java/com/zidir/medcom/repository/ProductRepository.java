@@ -1,6 +1,8 @@
 package com.zidir.medcom.repository;
 
 import com.zidir.medcom.domain.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,24 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {}
+public interface ProductRepository extends JpaRepository<Product, Long> {
+    @Query(
+        value = "select product.id as id, product.name as name, product.code as code, product.officialUrl as officialUrl " +
+        "from Product product",
+        countQuery = "select count(product) from Product product"
+    )
+    Page<ProductView> findAllViews(Pageable pageable);
+
+    /**
+     * Read-only view of a product.
+     */
+    interface ProductView {
+        Long getId();
+
+        String getName();
+
+        String getCode();
+
+        String getOfficialUrl();
+    }
+}
@@ -2,6 +2,7 @@ package com.zidir.medcom.repository;
 
 import com.zidir.medcom.domain.User;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
@@ -35,4 +36,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
 
     List<User> findByPharmacyId(Long pharmacyId);
+
+    List<User> findByPharmacyIdIn(Collection<Long> pharmacyIds);
 }
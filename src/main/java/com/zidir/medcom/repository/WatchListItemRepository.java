@@ -1,9 +1,13 @@
 package com.zidir.medcom.repository;
 
 import com.zidir.medcom.domain.WatchListItem;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,6 +15,80 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface WatchListItemRepository extends JpaRepository<WatchListItem, Long> {
-    Page<WatchListItem> findByPharmacyId(Long pharmacyId, Pageable pageable);
+public interface WatchListItemRepository extends WatchListItemRepositoryWithBulkUpdate, JpaRepository<WatchListItem, Long> {
+    @Query(
+        value = "select watchListItem.id as id, watchListItem.lastAvailability as lastAvailability, " +
+        "watchListItem.lastAvailabilityTime as lastAvailabilityTime, watchListItem.notifyAllUsers as notifyAllUsers, " +
+        "createdBy.id as createdById, createdBy.login as createdByLogin, watchListItem.product.id as productId, " +
+        "watchListItem.pharmacy.id as pharmacyId from WatchListItem watchListItem left join watchListItem.createdBy createdBy " +
+        "where watchListItem.pharmacy.id = :pharmacyId",
+        countQuery = "select count(watchListItem) from WatchListItem watchListItem where watchListItem.pharmacy.id = :pharmacyId"
+    )
+    Page<WatchListItemView> findViewsByPharmacyId(@Param("pharmacyId") Long pharmacyId, Pageable pageable);
+
+    /**
+     * Watch statistics of every watched product code, used to schedule availability checks.
+     *
+     * @return one entry per distinct product code.
+     */
+    @Query(
+        "select watchListItem.product.code as productCode, count(watchListItem) as watcherCount, " +
+        "max(watchListItem.lastAvailabilityTime) as lastAvailabilityTime from WatchListItem watchListItem " +
+        "where watchListItem.product.code is not null group by watchListItem.product.code"
+    )
+    List<ProductWatchStats> findProductWatchStats();
+
+    /**
+     * Watch statistics of the given product codes, used to size the chunks of availability updates.
+     *
+     * @param productCodes the product codes.
+     * @return one entry per watched product code among them.
+     */
+    @Query(
+        "select watchListItem.product.code as productCode, count(watchListItem) as watcherCount, " +
+        "max(watchListItem.lastAvailabilityTime) as lastAvailabilityTime from WatchListItem watchListItem " +
+        "where watchListItem.product.code in :productCodes group by watchListItem.product.code"
+    )
+    List<ProductWatchStats> findProductWatchStatsByProductCodeIn(@Param("productCodes") Collection<String> productCodes);
+
+    /**
+     * The given watch list items, with the relationships needed by the notifications of an availability change.
+     *
+     * @param ids the ids of the items.
+     * @return the items, in no particular order.
+     */
+    @Query(
+        "select watchListItem from WatchListItem watchListItem left join fetch watchListItem.product " +
+        "left join fetch watchListItem.pharmacy left join fetch watchListItem.createdBy where watchListItem.id in :ids"
+    )
+    List<WatchListItem> findAllWithToOneRelationshipsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read-only view of a watch list item, with the ids and login of its relationships only.
+     */
+    interface WatchListItemView {
+        Long getId();
+
+        Boolean getLastAvailability();
+
+        ZonedDateTime getLastAvailabilityTime();
+
+        Boolean getNotifyAllUsers();
+
+        Long getCreatedById();
+
+        String getCreatedByLogin();
+
+        Long getProductId();
+
+        Long getPharmacyId();
+    }
+
+    interface ProductWatchStats {
+        String getProductCode();
+
+        long getWatcherCount();
+
+        ZonedDateTime getLastAvailabilityTime();
+    }
 }
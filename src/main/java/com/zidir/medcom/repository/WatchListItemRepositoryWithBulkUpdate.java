@@ -0,0 +1,21 @@
+package com.zidir.medcom.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Bulk write operations for the {@link com.zidir.medcom.domain.WatchListItem} entity.
+ */
+public interface WatchListItemRepositoryWithBulkUpdate {
+    /**
+     * Apply checked availabilities to the watch list items of their product codes with a single statement, bypassing the
+     * persistence context. Only the items whose availability actually changed are written, with the time of the check.
+     * Availabilities checked before the last change of an item are ignored, so late or replayed updates cannot revert it.
+     *
+     * @param updates the availability of each product code, at most one per product code.
+     * @return the ids of the items whose availability changed.
+     */
+    List<Long> applyAvailability(List<AvailabilityUpdate> updates);
+
+    record AvailabilityUpdate(String productCode, boolean available, Instant checkedAt) {}
+}
@@ -0,0 +1,69 @@
+package com.zidir.medcom.repository;
+
+import com.zidir.medcom.domain.WatchListItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class WatchListItemRepositoryWithBulkUpdateImpl implements WatchListItemRepositoryWithBulkUpdate {
+
+    private static final String APPLY_AVAILABILITY =
+        "update watch_list_item w set last_availability = v.available, last_availability_time = v.checked_at " +
+        "from product p, (values %s) as v (code, available, checked_at) " +
+        "where p.id = w.product_id and p.code = v.code and w.last_availability is distinct from v.available " +
+        "and (w.last_availability_time is null or w.last_availability_time <= v.checked_at) returning w.id";
+
+    private static final String AVAILABILITY_VALUES = "(cast(? as varchar), cast(? as boolean), cast(? as timestamp))";
+
+    // Keeps the bind parameters of a statement well below the 32767 allowed by PostgreSQL
+    private static final int MAX_UPDATES_PER_STATEMENT = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    WatchListItemRepositoryWithBulkUpdateImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> applyAvailability(List<AvailabilityUpdate> updates) {
+        List<Long> changedIds = new ArrayList<>();
+        for (int from = 0; from < updates.size(); from += MAX_UPDATES_PER_STATEMENT) {
+            List<AvailabilityUpdate> statementUpdates = updates.subList(from, Math.min(updates.size(), from + MAX_UPDATES_PER_STATEMENT));
+            changedIds.addAll(
+                jdbcTemplate.queryForList(
+                    APPLY_AVAILABILITY.formatted(String.join(", ", Collections.nCopies(statementUpdates.size(), AVAILABILITY_VALUES))),
+                    Long.class,
+                    bindValues(statementUpdates)
+                )
+            );
+        }
+
+        // Rows updated behind Hibernate's back must not stay stale in the second-level cache
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        changedIds.forEach(id -> cache.evictEntityData(WatchListItem.class, id));
+
+        return changedIds;
+    }
+
+    private static Object[] bindValues(List<AvailabilityUpdate> updates) {
+        Object[] values = new Object[updates.size() * 3];
+        int i = 0;
+        for (AvailabilityUpdate update : updates) {
+            values[i++] = update.productCode();
+            values[i++] = update.available();
+            // Written in UTC, as Hibernate does with hibernate.jdbc.time_zone
+            values[i++] = LocalDateTime.ofInstant(update.checkedAt(), ZoneOffset.UTC);
+        }
+        return values;
+    }
+}
@@ -59,15 +59,22 @@ public class DomainUserDetailsService implements UserDetailsService {
 
         private final Long id;
 
-        public UserWithId(String login, String password, Collection<? extends GrantedAuthority> authorities, Long id) {
+        private final Long pharmacyId;
+
+        public UserWithId(String login, String password, Collection<? extends GrantedAuthority> authorities, Long id, Long pharmacyId) {
             super(login, password, authorities);
             this.id = id;
+            this.pharmacyId = pharmacyId;
         }
 
         public Long getId() {
             return id;
         }
 
+        public Long getPharmacyId() {
+            return pharmacyId;
+        }
+
         @Override
         public boolean equals(Object obj) {
             return super.equals(obj);
@@ -83,7 +90,8 @@ public class DomainUserDetailsService implements UserDetailsService {
                 user.getLogin(),
                 user.getPassword(),
                 user.getAuthorities().stream().map(Authority::getName).map(SimpleGrantedAuthority::new).toList(),
-                user.getId()
+                user.getId(),
+                user.getPharmacy() != null ? user.getPharmacy().getId() : null
             );
         }
     }
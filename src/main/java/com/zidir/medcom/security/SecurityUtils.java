@@ -23,6 +23,8 @@ public final class SecurityUtils {
 
     public static final String USER_ID_CLAIM = "userId";
 
+    public static final String PHARMACY_ID_CLAIM = "pharmacyId";
+
     private SecurityUtils() {}
 
     /**
@@ -73,6 +75,20 @@ public final class SecurityUtils {
             .map(principal -> principal.getClaim(USER_ID_CLAIM));
     }
 
+    /**
+     * Get the Id of the pharmacy of the current user, as of the authentication.
+     *
+     * @return the Id of the pharmacy of the current user, empty if the user has no pharmacy or if the authentication
+     * does not carry it.
+     */
+    public static Optional<Long> getCurrentUserPharmacyId() {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        return Optional.ofNullable(securityContext.getAuthentication())
+            .filter(authentication -> authentication.getPrincipal() instanceof ClaimAccessor)
+            .map(authentication -> (ClaimAccessor) authentication.getPrincipal())
+            .map(principal -> principal.getClaim(PHARMACY_ID_CLAIM));
+    }
+
     /**
      * Check if a user is authenticated.
      *
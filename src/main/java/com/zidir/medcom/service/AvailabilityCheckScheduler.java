@@ -0,0 +1,203 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.repository.WatchListItemRepository.ProductWatchStats;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service deciding which product codes are due for an availability check.
+ * <p>
+ * Product codes are kept in a priority queue ordered by next-due time. After each check, the recheck interval of a
+ * product is derived from {@code application.availability-check.interval-minutes}: it is shortened for products
+ * that change often or have many watchers, lengthened for products whose availability has not changed for a long
+ * time, and bounded by {@code min-interval-minutes} and {@code max-interval-minutes}.
+ */
+@Service
+public class AvailabilityCheckScheduler {
+
+    /**
+     * Weight of the latest check in the change rate of a product.
+     */
+    private static final double CHANGE_RATE_SMOOTHING = 0.3;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Map<String, ProductSchedule> schedules = new HashMap<>();
+
+    private final PriorityQueue<ProductSchedule> queue = new PriorityQueue<>(Comparator.comparing(ProductSchedule::getNextDueAt));
+
+    public AvailabilityCheckScheduler(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Synchronize the schedule with the watch list: new product codes are due immediately, unwatched ones are dropped.
+     *
+     * @param watchStats the watch statistics of every watched product code.
+     * @param now the current time.
+     */
+    public synchronized void refresh(Collection<ProductWatchStats> watchStats, Instant now) {
+        Set<String> watchedCodes = new HashSet<>();
+        for (ProductWatchStats stats : watchStats) {
+            watchedCodes.add(stats.getProductCode());
+            ProductSchedule schedule = schedules.get(stats.getProductCode());
+            if (schedule == null) {
+                schedule = new ProductSchedule(stats.getProductCode(), now);
+                schedules.put(schedule.productCode, schedule);
+                queue.add(schedule);
+            }
+            schedule.watcherCount = stats.getWatcherCount();
+            if (stats.getLastAvailabilityTime() != null) {
+                Instant lastChangeAt = stats.getLastAvailabilityTime().toInstant();
+                if (schedule.lastChangeAt == null || lastChangeAt.isAfter(schedule.lastChangeAt)) {
+                    schedule.lastChangeAt = lastChangeAt;
+                }
+            }
+        }
+        if (schedules.size() > watchedCodes.size()) {
+            schedules.keySet().retainAll(watchedCodes);
+            queue.removeIf(schedule -> !watchedCodes.contains(schedule.productCode));
+        }
+    }
+
+    /**
+     * Take the product codes due for a check, most overdue first.
+     * The returned codes leave the queue until their results are passed to {@link #reschedule}.
+     *
+     * @param now the current time.
+     * @param maxCodes the maximum number of codes to return.
+     * @return the due product codes.
+     */
+    public synchronized List<String> pollDue(Instant now, int maxCodes) {
+        List<String> dueCodes = new ArrayList<>();
+        while (dueCodes.size() < maxCodes && !queue.isEmpty() && !queue.peek().getNextDueAt().isAfter(now)) {
+            dueCodes.add(queue.poll().productCode);
+        }
+        return dueCodes;
+    }
+
+    /**
+     * @param now the current time.
+     * @return the number of product codes due for a check and still waiting in the queue.
+     */
+    public synchronized int countDue(Instant now) {
+        return (int) queue.stream().filter(schedule -> !schedule.getNextDueAt().isAfter(now)).count();
+    }
+
+    /**
+     * @param productCodes product codes.
+     * @return the number of watch list items watching one of the given product codes.
+     */
+    public synchronized long countWatchers(Collection<String> productCodes) {
+        return productCodes
+            .stream()
+            .map(schedules::get)
+            .filter(Objects::nonNull)
+            .mapToLong(schedule -> schedule.watcherCount)
+            .sum();
+    }
+
+    /**
+     * Put checked product codes back in the queue, due again after their recheck interval.
+     * Codes whose check failed, timed out or was rejected are due again after {@code min-interval-minutes}.
+     *
+     * @param productCodes the checked product codes, as returned by {@link #pollDue}.
+     * @param results the check results, in the same order as {@code productCodes}; {@code null} entries are allowed.
+     * @param now the current time.
+     */
+    public synchronized void reschedule(List<String> productCodes, List<AvailabilityResult> results, Instant now) {
+        for (int i = 0; i < productCodes.size(); i++) {
+            ProductSchedule schedule = schedules.get(productCodes.get(i));
+            if (schedule == null) {
+                // No longer watched
+                continue;
+            }
+            AvailabilityResult result = i < results.size() ? results.get(i) : null;
+            if (result == null || result.isError()) {
+                // Retried soon rather than after an interval that may have grown to hours
+                schedule.nextDueAt = now.plus(Duration.ofMinutes(applicationProperties.getAvailabilityCheck().getMinIntervalMinutes()));
+                queue.add(schedule);
+                continue;
+            }
+            if (result.available() != null) {
+                schedule.recordAvailability(result.available(), now);
+            }
+            schedule.nextDueAt = now.plus(intervalOf(schedule, now));
+            queue.add(schedule);
+        }
+    }
+
+    Duration intervalOf(ProductSchedule schedule, Instant now) {
+        ApplicationProperties.AvailabilityCheck properties = applicationProperties.getAvailabilityCheck();
+        double volatility = 1 + 4 * schedule.changeRate;
+        double popularity = 1 + Math.log(Math.max(1, schedule.watcherCount)) / Math.log(2);
+        double stability = 1;
+        if (schedule.lastChangeAt != null) {
+            // Grows by about 0.7 after one day without a change, 1.4 after three days
+            stability += Math.log1p(Math.max(0, Duration.between(schedule.lastChangeAt, now).toHours()) / 24.0);
+        }
+
+        double minutes = (properties.getIntervalMinutes() * stability) / (volatility * popularity);
+        minutes = Math.max(properties.getMinIntervalMinutes(), Math.min(properties.getMaxIntervalMinutes(), minutes));
+        return Duration.ofSeconds(Math.round(minutes * 60));
+    }
+
+    synchronized ProductSchedule scheduleOf(String productCode) {
+        return schedules.get(productCode);
+    }
+
+    static final class ProductSchedule {
+
+        private final String productCode;
+
+        private Instant nextDueAt;
+
+        private long watcherCount;
+
+        private Boolean lastAvailability;
+
+        private Instant lastChangeAt;
+
+        /**
+         * Exponentially smoothed share of checks that observed a change, between 0 and 1.
+         */
+        private double changeRate;
+
+        private ProductSchedule(String productCode, Instant nextDueAt) {
+            this.productCode = productCode;
+            this.nextDueAt = nextDueAt;
+        }
+
+        private void recordAvailability(Boolean availability, Instant now) {
+            if (lastAvailability != null) {
+                boolean changed = !lastAvailability.equals(availability);
+                changeRate = CHANGE_RATE_SMOOTHING * (changed ? 1 : 0) + (1 - CHANGE_RATE_SMOOTHING) * changeRate;
+                if (changed) {
+                    lastChangeAt = now;
+                }
+            }
+            lastAvailability = availability;
+        }
+
+        Instant getNextDueAt() {
+            return nextDueAt;
+        }
+
+        double getChangeRate() {
+            return changeRate;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.repository.WatchListItemRepositoryWithBulkUpdate.AvailabilityUpdate;
+import com.zidir.medcom.service.AvailabilityMonitoringService.AppliedChanges;
+import com.zidir.medcom.service.dto.AvailabilityEventsDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service ingesting the availability changes pushed by the supplier.
+ * <p>
+ * Pushed events are buffered in a ring of {@code application.supplier-push.buffer-capacity} events on the node that
+ * received them. A batch either fits in the ring as a whole or is refused, so the supplier can retry it after the
+ * Retry-After delay. Every {@code flush-interval-millis} the ring is drained in micro-batches of {@code batch-size} events,
+ * coalesced to the latest event of each product code, and applied with
+ * {@link AvailabilityMonitoringService#applyAvailabilityUpdates(List)}, the same change detection and notifications as
+ * the polling sweep. Events whose chunk could not be applied go back to the ring for the next flush, at most
+ * {@value #MAX_ATTEMPTS} times. Buffered events are lost if the node stops before they are applied.
+ */
+@Service
+public class AvailabilityEventIngestionService {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvailabilityEventIngestionService.class);
+
+    private final AvailabilityMonitoringService availabilityMonitoringService;
+
+    private final AvailabilityMetersService availabilityMetersService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final PendingEvent[] ring;
+
+    private int head;
+
+    private int size;
+
+    public AvailabilityEventIngestionService(
+        AvailabilityMonitoringService availabilityMonitoringService,
+        AvailabilityMetersService availabilityMetersService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.availabilityMonitoringService = availabilityMonitoringService;
+        this.availabilityMetersService = availabilityMetersService;
+        this.applicationProperties = applicationProperties;
+        this.ring = new PendingEvent[Math.max(1, applicationProperties.getSupplierPush().getBufferCapacity())];
+    }
+
+    /**
+     * @return the maximum number of events that can be buffered, and therefore accepted in one batch.
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Buffer a batch of pushed events, to be applied by the next flush.
+     *
+     * @param events the pushed events.
+     * @return {@code true} if the batch was buffered, {@code false} if the buffer has no room for the whole batch.
+     */
+    public boolean offer(List<AvailabilityEventsDTO.Event> events) {
+        Instant now = Instant.now();
+        synchronized (this) {
+            if (size + events.size() > ring.length) {
+                availabilityMetersService.trackPushRejected(events.size());
+                return false;
+            }
+            for (AvailabilityEventsDTO.Event event : events) {
+                // Clocks ahead of ours must not make an event win over later ones
+                Instant checkedAt = event.checkedAt() != null && event.checkedAt().isBefore(now) ? event.checkedAt() : now;
+                ring[(head + size) % ring.length] = new PendingEvent(
+                    new AvailabilityUpdate(event.productCode(), event.available(), checkedAt),
+                    0
+                );
+                size++;
+            }
+            availabilityMetersService.recordPushBuffer(size);
+        }
+        availabilityMetersService.trackPushAccepted(events.size());
+        return true;
+    }
+
+    /**
+     * Apply the events buffered when the flush starts, in micro-batches. Events buffered or put back during the flush
+     * wait for the next one.
+     */
+    @Scheduled(fixedDelayString = "${application.supplier-push.flush-interval-millis:1000}")
+    public void flush() {
+        int batchSize = Math.max(1, applicationProperties.getSupplierPush().getBatchSize());
+        int remaining;
+        synchronized (this) {
+            remaining = size;
+        }
+        while (remaining > 0) {
+            List<PendingEvent> batch = drain(Math.min(batchSize, remaining));
+            if (batch.isEmpty()) {
+                return;
+            }
+            remaining -= batch.size();
+
+            Map<String, PendingEvent> latestByProductCode = coalesce(batch);
+            availabilityMetersService.trackPushCoalesced(batch.size() - latestByProductCode.size());
+            List<AvailabilityUpdate> updates = latestByProductCode.values().stream().map(PendingEvent::update).toList();
+            List<AvailabilityUpdate> failedUpdates;
+            try {
+                AppliedChanges appliedChanges = availabilityMonitoringService.applyAvailabilityUpdates(updates);
+                LOG.debug(
+                    "Applied {} pushed availability events of {} products, updated {} items, created {} notifications",
+                    batch.size(),
+                    updates.size(),
+                    appliedChanges.updatedCount(),
+                    appliedChanges.notificationCount()
+                );
+                failedUpdates = appliedChanges.failedUpdates();
+            } catch (RuntimeException e) {
+                LOG.error("Error applying {} pushed availability events: {}", updates.size(), e.getMessage(), e);
+                failedUpdates = updates;
+            }
+            requeue(failedUpdates.stream().map(update -> latestByProductCode.get(update.productCode())).toList());
+        }
+    }
+
+    private synchronized List<PendingEvent> drain(int maxEvents) {
+        int count = Math.min(size, maxEvents);
+        List<PendingEvent> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(ring[head]);
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+        }
+        size -= count;
+        availabilityMetersService.recordPushBuffer(size);
+        return batch;
+    }
+
+    /**
+     * Put the events that could not be applied back in the ring, unless they failed too often or the ring filled up.
+     */
+    private void requeue(List<PendingEvent> failedEvents) {
+        int dropped = 0;
+        synchronized (this) {
+            for (PendingEvent event : failedEvents) {
+                if (event.attempts() + 1 >= MAX_ATTEMPTS || size == ring.length) {
+                    dropped++;
+                    continue;
+                }
+                ring[(head + size) % ring.length] = new PendingEvent(event.update(), event.attempts() + 1);
+                size++;
+            }
+            availabilityMetersService.recordPushBuffer(size);
+        }
+        if (dropped > 0) {
+            LOG.warn("Dropped {} pushed availability events that could not be applied", dropped);
+            availabilityMetersService.trackPushDropped(dropped);
+        }
+    }
+
+    /**
+     * Keep the latest event of each product code, the earlier ones are superseded by it.
+     */
+    private static Map<String, PendingEvent> coalesce(List<PendingEvent> batch) {
+        Map<String, PendingEvent> latestByProductCode = new LinkedHashMap<>();
+        for (PendingEvent event : batch) {
+            latestByProductCode.merge(event.update().productCode(), event, (current, next) ->
+                next.update().checkedAt().isBefore(current.update().checkedAt()) ? current : next
+            );
+        }
+        return latestByProductCode;
+    }
+
+    /**
+     * A buffered event.
+     *
+     * @param update the availability change it carries.
+     * @param attempts how many times it failed to be applied.
+     */
+    private record PendingEvent(AvailabilityUpdate update, int attempts) {}
+}
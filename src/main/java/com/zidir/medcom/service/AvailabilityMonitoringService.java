@@ -1,21 +1,26 @@
 package com.zidir.medcom.service;
 
 import com.zidir.medcom.config.ApplicationProperties;
-import com.zidir.medcom.domain.Notification;
-import com.zidir.medcom.domain.User;
 import com.zidir.medcom.domain.WatchListItem;
-import com.zidir.medcom.domain.enumeration.NotificationType;
-import com.zidir.medcom.repository.NotificationRepository;
-import com.zidir.medcom.repository.UserRepository;
+import com.zidir.medcom.management.AvailabilityMetersService;
 import com.zidir.medcom.repository.WatchListItemRepository;
-import java.time.ZonedDateTime;
+import com.zidir.medcom.repository.WatchListItemRepository.ProductWatchStats;
+import com.zidir.medcom.repository.WatchListItemRepositoryWithBulkUpdate.AvailabilityUpdate;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service for monitoring product availability and generating notifications.
@@ -27,164 +32,251 @@ public class AvailabilityMonitoringService {
 
     private final WatchListItemRepository watchListItemRepository;
 
-    private final UserRepository userRepository;
+    private final NotificationFanOutService notificationFanOutService;
 
-    private final NotificationRepository notificationRepository;
+    private final SupplierPollingEngine supplierPollingEngine;
 
-    private final ProductAvailabilityService productAvailabilityService;
+    private final AvailabilityCheckScheduler availabilityCheckScheduler;
+
+    private final AvailabilityShardingService availabilityShardingService;
+
+    private final AvailabilityMetersService availabilityMetersService;
 
     private final ApplicationProperties applicationProperties;
 
+    private final TransactionTemplate transactionTemplate;
+
+    // Only read and written by the scheduled check
+    private Instant watchStatsRefreshedAt;
+
+    // Ownership version of the sharding service when the watch statistics were last reloaded
+    private long watchStatsOwnershipVersion;
+
     public AvailabilityMonitoringService(
         WatchListItemRepository watchListItemRepository,
-        UserRepository userRepository,
-        NotificationRepository notificationRepository,
-        ProductAvailabilityService productAvailabilityService,
-        ApplicationProperties applicationProperties
+        NotificationFanOutService notificationFanOutService,
+        SupplierPollingEngine supplierPollingEngine,
+        AvailabilityCheckScheduler availabilityCheckScheduler,
+        AvailabilityShardingService availabilityShardingService,
+        AvailabilityMetersService availabilityMetersService,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
     ) {
         this.watchListItemRepository = watchListItemRepository;
-        this.userRepository = userRepository;
-        this.notificationRepository = notificationRepository;
-        this.productAvailabilityService = productAvailabilityService;
+        this.notificationFanOutService = notificationFanOutService;
+        this.supplierPollingEngine = supplierPollingEngine;
+        this.availabilityCheckScheduler = availabilityCheckScheduler;
+        this.availabilityShardingService = availabilityShardingService;
+        this.availabilityMetersService = availabilityMetersService;
         this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Scheduled task to check product availability.
-     * Uses dynamic scheduling based on application properties.
-     * The cron expression is built to run every N minutes where N is configured in application.yml
+     * Runs every {@code application.availability-check.tick-seconds} on every cluster member and checks the product codes
+     * the {@link AvailabilityCheckScheduler} reports as due, at most {@code max-checks-per-tick} of them. Each member
+     * only schedules and claims its own share of the product codes through the {@link AvailabilityShardingService}.
+     * The watched product codes are reloaded every {@code watch-refresh-seconds} only, the schedule keeps them between
+     * two reloads, unless the cluster membership changed. Due codes this member no longer owns are not checked.
+     * Each due product code is checked once, concurrently through the {@link SupplierPollingEngine}, outside of any
+     * transaction. The results are then applied to the watch list items of those codes with
+     * {@link #applyAvailabilityUpdates(List)}.
      */
-    @Scheduled(fixedDelayString = "#{${application.availability-check.interval-minutes:30} * 60000}")
-    @Transactional
+    @Scheduled(fixedDelayString = "#{${application.availability-check.tick-seconds:60} * 1000}")
     public void checkAvailability() {
-        LOG.info("Starting scheduled availability check");
-
-        List<WatchListItem> watchListItems = watchListItemRepository.findAll();
-        LOG.debug("Found {} watchlist items to check", watchListItems.size());
-
-        int updatedCount = 0;
-        int notificationCount = 0;
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+
+        refreshWatchStats(now);
+        int maxChecks = applicationProperties.getAvailabilityCheck().getMaxChecksPerTick();
+        List<String> dueCodes = availabilityCheckScheduler.pollDue(now, maxChecks);
+        // Ownership may have moved since the last reload, the codes of other members are left to them
+        List<String> ownedCodes = dueCodes.stream().filter(availabilityShardingService::isLocallyOwned).toList();
+        List<String> productCodes = availabilityShardingService.claim(ownedCodes);
+        if (productCodes.size() < dueCodes.size()) {
+            Set<String> claimed = new HashSet<>(productCodes);
+            // Owned or claimed elsewhere: retried after the minimum interval, or dropped by the next reload
+            List<String> checkedElsewhere = dueCodes.stream().filter(code -> !claimed.contains(code)).toList();
+            availabilityCheckScheduler.reschedule(checkedElsewhere, List.of(), now);
+        }
+        availabilityMetersService.recordScheduleBacklog(availabilityCheckScheduler.countDue(now));
+        if (productCodes.isEmpty()) {
+            LOG.debug("No product due for an availability check");
+            return;
+        }
 
-        for (WatchListItem item : watchListItems) {
-            try {
-                // Skip items without products
-                if (item.getProduct() == null || item.getProduct().getCode() == null) {
-                    LOG.warn("WatchListItem {} has no product or product code, skipping", item.getId());
-                    continue;
-                }
-
-                String productCode = item.getProduct().getCode();
-                LOG.debug("Checking availability for product code: {}", productCode);
-
-                Map<String, Object> availabilityResult = productAvailabilityService.checkProductAvailability(productCode);
-                Boolean currentAvailability = (Boolean) availabilityResult.get("available");
-
-                if (currentAvailability == null) {
-                    LOG.warn("Availability check returned null for product {}, skipping", productCode);
-                    continue;
-                }
-
-                // Check if availability has changed
-                if (hasAvailabilityChanged(item.getLastAvailability(), currentAvailability)) {
-                    LOG.info(
-                        "Availability changed for product {} (watchlist item {}): {} -> {}",
-                        productCode,
-                        item.getId(),
-                        item.getLastAvailability(),
-                        currentAvailability
-                    );
-
-                    // Update watchlist item
-                    item.setLastAvailability(currentAvailability);
-                    item.setLastAvailabilityTime(ZonedDateTime.now());
-                    watchListItemRepository.save(item);
-                    updatedCount++;
-
-                    // Generate notifications
-                    int notificationsCreated = generateNotifications(item, currentAvailability);
-                    notificationCount += notificationsCreated;
-                }
-            } catch (Exception e) {
-                LOG.error("Error checking availability for watchlist item {}: {}", item.getId(), e.getMessage(), e);
+        LOG.info("Starting scheduled availability check");
+        long itemCount = availabilityCheckScheduler.countWatchers(productCodes);
+        availabilityMetersService.recordDeduplication(itemCount, productCodes.size());
+        LOG.debug("Checking {} distinct product codes for {} watchlist items", productCodes.size(), itemCount);
+
+        List<AvailabilityResult> availabilityResults = supplierPollingEngine.poll(productCodes);
+        availabilityCheckScheduler.reschedule(productCodes, availabilityResults, Instant.now());
+
+        List<AvailabilityUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < productCodes.size(); i++) {
+            String productCode = productCodes.get(i);
+            AvailabilityResult availabilityResult = availabilityResults.get(i);
+
+            // Failed, rejected or missing checks keep the last known state of their items
+            if (availabilityResult == null || availabilityResult.isError()) {
+                LOG.debug(
+                    "Availability check failed for product {}, keeping last known state: {}",
+                    productCode,
+                    availabilityResult != null ? availabilityResult.error() : "no result"
+                );
+                continue;
+            }
+            // Unchanged since the previous answer, still applied as items may have been added or missed since then
+            if (availabilityResult.notModified()) {
+                LOG.debug("Availability of product {} not modified, reapplying {}", productCode, availabilityResult.available());
             }
+            if (availabilityResult.available() == null) {
+                LOG.warn("Availability check returned null for product {}, skipping", productCode);
+                continue;
+            }
+            Instant checkedAt = availabilityResult.checkedAt() != null ? availabilityResult.checkedAt() : now;
+            updates.add(new AvailabilityUpdate(productCode, availabilityResult.available(), checkedAt));
         }
 
-        LOG.info("Availability check completed. Updated {} items, created {} notifications", updatedCount, notificationCount);
+        AppliedChanges appliedChanges = applyAvailabilityUpdates(updates);
+
+        availabilityMetersService.recordSweep(Duration.ofNanos(System.nanoTime() - start));
+        LOG.info(
+            "Availability check completed. Updated {} items, created {} notifications",
+            appliedChanges.updatedCount(),
+            appliedChanges.notificationCount()
+        );
     }
 
     /**
-     * Check if availability has changed, considering null values.
-     *
-     * @param previousAvailability the previous availability status
-     * @param currentAvailability the current availability status
-     * @return true if availability has changed
+     * Reload the watched product codes into the schedule, unless they were reloaded less than
+     * {@code application.availability-check.watch-refresh-seconds} ago and the product codes did not change owner since:
+     * the watch statistics are grouped over the whole watch list, which is too costly for every tick of every member.
      */
-    private boolean hasAvailabilityChanged(Boolean previousAvailability, Boolean currentAvailability) {
-        if (previousAvailability == null) {
-            return true; // First time checking, always consider it a change
+    private void refreshWatchStats(Instant now) {
+        Duration refreshInterval = Duration.ofSeconds(applicationProperties.getAvailabilityCheck().getWatchRefreshSeconds());
+        long ownershipVersion = availabilityShardingService.getOwnershipVersion();
+        if (
+            watchStatsRefreshedAt != null &&
+            now.isBefore(watchStatsRefreshedAt.plus(refreshInterval)) &&
+            ownershipVersion == watchStatsOwnershipVersion
+        ) {
+            return;
         }
-        return !previousAvailability.equals(currentAvailability);
+        // Only the product codes owned by this cluster member are scheduled here
+        List<ProductWatchStats> watchStats = watchListItemRepository
+            .findProductWatchStats()
+            .stream()
+            .filter(stats -> availabilityShardingService.isLocallyOwned(stats.getProductCode()))
+            .toList();
+        availabilityCheckScheduler.refresh(watchStats, now);
+        watchStatsRefreshedAt = now;
+        watchStatsOwnershipVersion = ownershipVersion;
     }
 
     /**
-     * Generate notifications for users based on watchlist item settings.
+     * Apply availabilities to the watch list items of their product codes and notify the items whose availability
+     * changed. Updates are applied in chunks of product codes watched by about
+     * {@code application.availability-check.chunk-size} items, each chunk in its own short transaction. A failed chunk is
+     * rolled back and skipped, the others are still applied.
      *
-     * @param watchListItem the watchlist item with changed availability
-     * @param newAvailability the new availability status
-     * @return the number of notifications created
+     * @param updates the availability of each product code, at most one per product code.
+     * @return the number of items updated and of notifications created, and the updates of the failed chunks.
      */
-    private int generateNotifications(WatchListItem watchListItem, Boolean newAvailability) {
-        List<User> usersToNotify;
-
-        if (Boolean.TRUE.equals(watchListItem.getNotifyAllUsers())) {
-            // Notify all users in the pharmacy
-            if (watchListItem.getPharmacy() == null) {
-                LOG.warn("WatchListItem {} has no pharmacy, cannot notify users", watchListItem.getId());
-                return 0;
-            }
-
-            usersToNotify = userRepository.findByPharmacyId(watchListItem.getPharmacy().getId());
-            LOG.debug("Notifying all {} users in pharmacy {}", usersToNotify.size(), watchListItem.getPharmacy().getId());
-        } else {
-            // Notify only the creator
-            if (watchListItem.getCreatedBy() == null) {
-                LOG.warn("WatchListItem {} has no creator and notifyAllUsers is false, cannot notify", watchListItem.getId());
-                return 0;
-            }
-
-            usersToNotify = List.of(watchListItem.getCreatedBy());
-            LOG.debug("Notifying creator user {} for watchlist item {}", watchListItem.getCreatedBy().getId(), watchListItem.getId());
+    public AppliedChanges applyAvailabilityUpdates(List<AvailabilityUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new AppliedChanges(0, 0, List.of());
         }
 
-        int count = 0;
-        for (User user : usersToNotify) {
+        int updatedCount = 0;
+        int notificationCount = 0;
+        List<AvailabilityUpdate> failedUpdates = new ArrayList<>();
+        for (List<AvailabilityUpdate> chunk : chunkByWatchers(updates)) {
+            AppliedChanges chunkChanges;
             try {
-                Notification notification = new Notification();
-                notification.setUser(user);
-                notification.setPharmacy(watchListItem.getPharmacy());
-                notification.setWatchListItem(watchListItem);
-                //notification.setNotificationType(NotificationType.AVAILABILITY_CHANGE);
-
-                String productName = watchListItem.getProduct().getName() != null
-                    ? watchListItem.getProduct().getName()
-                    : watchListItem.getProduct().getCode();
-
-                String availabilityStatus = Boolean.TRUE.equals(newAvailability) ? "available" : "unavailable";
-                notification.setMessage(String.format("Product '%s' is now %s", productName, availabilityStatus));
-
-                notification.setSent(false);
-                notification.setDelivered(false);
-                notification.setFailed(false);
-
-                notificationRepository.save(notification);
-                count++;
+                chunkChanges = transactionTemplate.execute(status -> applyChunk(chunk));
+            } catch (RuntimeException e) {
+                LOG.error("Error applying availability changes of {} product codes, skipping them: {}", chunk.size(), e.getMessage(), e);
+                failedUpdates.addAll(chunk);
+                continue;
+            }
+            updatedCount += chunkChanges.updatedCount();
+            notificationCount += chunkChanges.notificationCount();
+        }
+        return new AppliedChanges(updatedCount, notificationCount, failedUpdates);
+    }
 
-                LOG.debug("Created notification {} for user {} about product {}", notification.getId(), user.getLogin(), productName);
-            } catch (Exception e) {
-                LOG.error("Error creating notification for user {}: {}", user.getId(), e.getMessage(), e);
+    /**
+     * Split the availability updates into chunks watched by at most {@code application.availability-check.chunk-size}
+     * items, a product code watched by more items making a chunk of its own.
+     *
+     * @param updates the availability updates of the checked product codes
+     * @return the chunks, each applied in its own transaction
+     */
+    private List<List<AvailabilityUpdate>> chunkByWatchers(List<AvailabilityUpdate> updates) {
+        int chunkSize = applicationProperties.getAvailabilityCheck().getChunkSize();
+        // Counted in the database, pushed codes may be owned by another member and unknown to the local scheduler
+        Map<String, Long> watchersByProductCode = watchListItemRepository
+            .findProductWatchStatsByProductCodeIn(updates.stream().map(AvailabilityUpdate::productCode).toList())
+            .stream()
+            .collect(Collectors.toMap(ProductWatchStats::getProductCode, ProductWatchStats::getWatcherCount));
+        List<List<AvailabilityUpdate>> chunks = new ArrayList<>();
+        List<AvailabilityUpdate> chunk = new ArrayList<>();
+        long chunkWatchers = 0;
+        for (AvailabilityUpdate update : updates) {
+            long watchers = watchersByProductCode.getOrDefault(update.productCode(), 0L);
+            if (!chunk.isEmpty() && chunkWatchers + watchers > chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkWatchers = 0;
             }
+            chunk.add(update);
+            chunkWatchers += watchers;
         }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
 
-        return count;
+    /**
+     * Apply the checked availabilities of a chunk of product codes to their watch list items with one set-based update,
+     * then notify the changes of the items whose availability actually flipped.
+     *
+     * @param chunk the availability updates of the chunk
+     * @return the number of items updated and of notifications created
+     */
+    private AppliedChanges applyChunk(List<AvailabilityUpdate> chunk) {
+        List<Long> changedIds = watchListItemRepository.applyAvailability(chunk);
+        if (changedIds.isEmpty()) {
+            return new AppliedChanges(0, 0, List.of());
+        }
+
+        List<WatchListItem> changedItems = watchListItemRepository.findAllWithToOneRelationshipsByIdIn(changedIds);
+        changedItems.forEach(item ->
+            LOG.info(
+                "Availability changed for product {} (watchlist item {}): now {}",
+                item.getProduct().getCode(),
+                item.getId(),
+                item.getLastAvailability()
+            )
+        );
+
+        // Generate notifications for the whole chunk at once. A failure rolls the chunk back, its product codes are applied
+        // again by their next check, which a not-modified answer also applies
+        int notificationCount = notificationFanOutService.fanOut(changedItems);
+
+        return new AppliedChanges(changedItems.size(), notificationCount, List.of());
     }
+
+    /**
+     * The outcome of {@link #applyAvailabilityUpdates(List)}.
+     *
+     * @param updatedCount the number of watch list items whose availability changed.
+     * @param notificationCount the number of notifications created.
+     * @param failedUpdates the updates of the chunks that could not be applied.
+     */
+    public record AppliedChanges(int updatedCount, int notificationCount, List<AvailabilityUpdate> failedUpdates) {}
 }
@@ -0,0 +1,158 @@
+package com.zidir.medcom.service;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.cluster.MembershipEvent;
+import com.hazelcast.cluster.MembershipListener;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.MigrationListener;
+import com.hazelcast.partition.MigrationState;
+import com.hazelcast.partition.Partition;
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.partition.ReplicaMigrationEvent;
+import com.zidir.medcom.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service splitting availability checks across the members of the Hazelcast cluster.
+ * <p>
+ * A product code belongs to the member owning its Hazelcast partition, so the codes are spread evenly and move
+ * to the remaining members when the cluster changes. Because ownership can be briefly ambiguous while partitions
+ * migrate, a member also claims each code in a cluster-wide map before checking it. A claim lasts
+ * {@code application.availability-check.min-interval-minutes}, minus one tick, so that no other member checks the
+ * code in the same cycle.
+ * <p>
+ * Each membership change and each completed partition migration increments the {@link #getOwnershipVersion()
+ * ownership version}, telling the {@link AvailabilityMonitoringService} to rebuild its local schedule.
+ * <p>
+ * Disabled with {@code application.availability-check.sharded=false}, in which case every member checks every code.
+ */
+@Service
+public class AvailabilityShardingService {
+
+    public static final String CHECK_CLAIMS_MAP = "availabilityCheckClaims";
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvailabilityShardingService.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    private final PartitionService partitionService;
+
+    private final IMap<String, UUID> claims;
+
+    private final UUID localMemberUuid;
+
+    private final AtomicLong ownershipVersion = new AtomicLong();
+
+    public AvailabilityShardingService(HazelcastInstance hazelcastInstance, ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+        this.partitionService = hazelcastInstance.getPartitionService();
+        this.claims = hazelcastInstance.getMap(CHECK_CLAIMS_MAP);
+        this.localMemberUuid = hazelcastInstance.getCluster().getLocalMember().getUuid();
+        hazelcastInstance
+            .getCluster()
+            .addMembershipListener(
+                new MembershipListener() {
+                    @Override
+                    public void memberAdded(MembershipEvent membershipEvent) {
+                        LOG.info("Member {} joined, product codes will be rebalanced", membershipEvent.getMember());
+                        ownershipVersion.incrementAndGet();
+                    }
+
+                    @Override
+                    public void memberRemoved(MembershipEvent membershipEvent) {
+                        LOG.info("Member {} left, product codes will be rebalanced", membershipEvent.getMember());
+                        ownershipVersion.incrementAndGet();
+                    }
+                }
+            );
+        // Partitions move after the membership event, the schedule is rebuilt again once they have
+        partitionService.addMigrationListener(
+            new MigrationListener() {
+                @Override
+                public void migrationStarted(MigrationState state) {}
+
+                @Override
+                public void migrationFinished(MigrationState state) {
+                    LOG.debug("Partition migration finished, product codes will be rebalanced");
+                    ownershipVersion.incrementAndGet();
+                }
+
+                @Override
+                public void replicaMigrationCompleted(ReplicaMigrationEvent event) {}
+
+                @Override
+                public void replicaMigrationFailed(ReplicaMigrationEvent event) {}
+            }
+        );
+    }
+
+    /**
+     * @return a counter incremented whenever product codes may have changed owner, the schedule of this member must
+     *         be rebuilt when it differs from the version it was built with.
+     */
+    public long getOwnershipVersion() {
+        return ownershipVersion.get();
+    }
+
+    /**
+     * Whether the availability of the given product code is checked by this member.
+     *
+     * @param productCode the product code.
+     * @return {@code true} if this member owns the partition of the code, {@code false} if another member does or
+     *         the partition is being migrated.
+     */
+    public boolean isLocallyOwned(String productCode) {
+        if (!applicationProperties.getAvailabilityCheck().getSharded()) {
+            return true;
+        }
+        Partition partition = partitionService.getPartition(productCode);
+        Member owner = partition.getOwner();
+        return owner != null && owner.localMember();
+    }
+
+    /**
+     * Claim the given product codes for the current check cycle.
+     *
+     * @param productCodes the product codes this member is about to check.
+     * @return the codes claimed by this member, the others are being or have just been checked by another member.
+     */
+    public List<String> claim(List<String> productCodes) {
+        if (!applicationProperties.getAvailabilityCheck().getSharded()) {
+            return productCodes;
+        }
+
+        long claimSeconds = claimSeconds();
+        List<String> claimed = new ArrayList<>(productCodes.size());
+        for (String productCode : productCodes) {
+            // Codes are locally owned, so the claim is a local operation in the common case
+            UUID holder = claims.putIfAbsent(productCode, localMemberUuid, claimSeconds, TimeUnit.SECONDS);
+            if (holder == null || holder.equals(localMemberUuid)) {
+                claimed.add(productCode);
+            }
+        }
+        if (claimed.size() < productCodes.size()) {
+            LOG.debug(
+                "{} of {} due product codes are claimed by another member",
+                productCodes.size() - claimed.size(),
+                productCodes.size()
+            );
+        }
+        return claimed;
+    }
+
+    /**
+     * @return how long a claim lasts: {@code min-interval-minutes} minus one tick, at least one tick.
+     */
+    long claimSeconds() {
+        ApplicationProperties.AvailabilityCheck properties = applicationProperties.getAvailabilityCheck();
+        return Math.max(properties.getTickSeconds(), properties.getMinIntervalMinutes() * 60L - properties.getTickSeconds());
+    }
+}
@@ -0,0 +1,59 @@
+package com.zidir.medcom.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock running a scheduled task on one cluster member at a time.
+ * <p>
+ * The lock is held in the Hazelcast map {@value #TASK_LOCKS_MAP} with a lease, so that a member dying while it holds
+ * the lock does not stop the task for good.
+ */
+class ClusterTaskLock {
+
+    static final String TASK_LOCKS_MAP = "scheduledTaskLocks";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterTaskLock.class);
+
+    private final IMap<String, Boolean> locks;
+
+    private final String name;
+
+    private final long leaseMinutes;
+
+    ClusterTaskLock(HazelcastInstance hazelcastInstance, String name, long leaseMinutes) {
+        this.locks = hazelcastInstance.getMap(TASK_LOCKS_MAP);
+        this.name = name;
+        this.leaseMinutes = leaseMinutes;
+    }
+
+    /**
+     * @return {@code true} if the lock was acquired by the current thread, {@code false} if another member holds it.
+     */
+    boolean tryLock() {
+        try {
+            return locks.tryLock(name, 0, TimeUnit.SECONDS, leaseMinutes, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Release the lock, unless its lease expired while the task ran.
+     */
+    void unlock() {
+        if (!locks.isLocked(name)) {
+            LOG.warn("Lock {} expired before its task completed", name);
+            return;
+        }
+        try {
+            locks.unlock(name);
+        } catch (IllegalMonitorStateException e) {
+            LOG.warn("Lock {} expired before its task completed and is now held by another member", name);
+        }
+    }
+}
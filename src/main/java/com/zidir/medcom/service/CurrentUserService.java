@@ -0,0 +1,128 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.domain.User;
+import com.zidir.medcom.repository.UserRepository;
+import com.zidir.medcom.security.SecurityUtils;
+import com.zidir.medcom.web.rest.errors.BadRequestAlertException;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Service resolving the current authenticated user, once per request.
+ * <p>
+ * The id and pharmacy id of the user are read from the JWT, so the common paths need no user lookup. Tokens without
+ * them (users without pharmacy, tokens issued before the pharmacy claim, other authentications) fall back to a lookup
+ * by login. As with the authorities, a change of pharmacy is only seen by the tokens issued afterwards, so the paths
+ * changing data use {@link #getCurrentUserFromDatabase(String)}, which always reads the pharmacy of the user.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CurrentUserService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CurrentUserService.class);
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserService.class.getName() + ".CURRENT_USER";
+
+    private static final String DATABASE_USER_ATTRIBUTE = CurrentUserService.class.getName() + ".DATABASE_USER";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Get the current authenticated user.
+     *
+     * @param entityName the name of the entity requested, for the error messages.
+     * @return the current user.
+     * @throws BadRequestAlertException if user is not authenticated or not found.
+     */
+    public CurrentUser getCurrentUser(String entityName) {
+        String login = SecurityUtils.getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("User not authenticated", entityName, "notauthenticated"));
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (
+            requestAttributes != null &&
+            requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CurrentUser currentUser &&
+            currentUser.login().equals(login)
+        ) {
+            return currentUser;
+        }
+
+        CurrentUser currentUser = fromToken(login)
+            .or(() -> userRepository.findOneByLogin(login).map(CurrentUser::of))
+            .orElseThrow(() -> new BadRequestAlertException("User not found", entityName, "usernotfound"));
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return currentUser;
+    }
+
+    /**
+     * Get the current authenticated user as stored in the database, ignoring the ids carried by the token.
+     * To be used before changing data, so that a user moved to another pharmacy cannot keep writing to the former one
+     * until their token expires.
+     *
+     * @param entityName the name of the entity requested, for the error messages.
+     * @return the current user.
+     * @throws BadRequestAlertException if user is not authenticated or not found.
+     */
+    public CurrentUser getCurrentUserFromDatabase(String entityName) {
+        String login = SecurityUtils.getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("User not authenticated", entityName, "notauthenticated"));
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (
+            requestAttributes != null &&
+            requestAttributes.getAttribute(DATABASE_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CurrentUser currentUser &&
+            currentUser.login().equals(login)
+        ) {
+            return currentUser;
+        }
+
+        CurrentUser currentUser = userRepository
+            .findOneByLogin(login)
+            .map(CurrentUser::of)
+            .orElseThrow(() -> new BadRequestAlertException("User not found", entityName, "usernotfound"));
+        if (requestAttributes != null) {
+            // Later reads of the same request must not see the stale pharmacy of the token either
+            requestAttributes.setAttribute(DATABASE_USER_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return currentUser;
+    }
+
+    private static Optional<CurrentUser> fromToken(String login) {
+        Optional<Long> id = SecurityUtils.getCurrentUserId();
+        Optional<Long> pharmacyId = SecurityUtils.getCurrentUserPharmacyId();
+        if (id.isEmpty() || pharmacyId.isEmpty()) {
+            LOG.debug("Token of user '{}' does not carry its ids, looking the user up", login);
+            return Optional.empty();
+        }
+        return Optional.of(new CurrentUser(id.orElseThrow(), login, pharmacyId.orElseThrow()));
+    }
+
+    /**
+     * The current user, as needed by the access checks.
+     *
+     * @param id the id of the user.
+     * @param login the login of the user.
+     * @param pharmacyId the id of the pharmacy of the user, {@code null} if the user has no pharmacy.
+     */
+    public record CurrentUser(Long id, String login, Long pharmacyId) {
+        static CurrentUser of(User user) {
+            return new CurrentUser(user.getId(), user.getLogin(), user.getPharmacy() != null ? user.getPharmacy().getId() : null);
+        }
+
+        public boolean hasPharmacy() {
+            return pharmacyId != null;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.zidir.medcom.service;
 
+import com.zidir.medcom.config.ApplicationProperties;
 import com.zidir.medcom.domain.User;
+import com.zidir.medcom.management.MailMetersService;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -31,6 +39,13 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
+    private static final String MESSAGE = "message";
+
+    /**
+     * Number of rendered notification emails kept, a fan-out usually sends the same message to many users.
+     */
+    private static final int RENDERED_NOTIFICATIONS_CACHE_SIZE = 1000;
+
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
@@ -39,16 +54,31 @@ public class MailService {
 
     private final SpringTemplateEngine templateEngine;
 
+    private final ApplicationProperties applicationProperties;
+
+    private final MailMetersService mailMetersService;
+
+    private final Map<String, RenderedEmail> renderedNotifications = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RenderedEmail> eldest) {
+            return size() > RENDERED_NOTIFICATIONS_CACHE_SIZE;
+        }
+    };
+
     public MailService(
         JHipsterProperties jHipsterProperties,
         JavaMailSender javaMailSender,
         MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        SpringTemplateEngine templateEngine,
+        ApplicationProperties applicationProperties,
+        MailMetersService mailMetersService
     ) {
         this.jHipsterProperties = jHipsterProperties;
         this.javaMailSender = javaMailSender;
         this.messageSource = messageSource;
         this.templateEngine = templateEngine;
+        this.applicationProperties = applicationProperties;
+        this.mailMetersService = mailMetersService;
     }
 
     @Async
@@ -81,6 +111,105 @@ public class MailService {
         }
     }
 
+    /**
+     * Send notification emails synchronously, so that the caller knows which ones were handed over to the mail server.
+     * <p>
+     * Emails are sent in batches of {@code application.notification-dispatch.mail-batch-size}, each batch over a single
+     * SMTP connection. The body of a notification is rendered once per language and message.
+     *
+     * @param emails the emails to send.
+     * @return the failure reason of each email, in the same order as {@code emails}; {@code null} if it was sent.
+     */
+    public List<String> sendNotificationEmails(List<NotificationEmail> emails) {
+        mailMetersService.emailsQueued(emails.size());
+        String[] failures = new String[emails.size()];
+        int batchSize = Math.max(1, applicationProperties.getNotificationDispatch().getMailBatchSize());
+
+        Map<MimeMessage, Integer> batch = new LinkedHashMap<>();
+        for (int i = 0; i < emails.size(); i++) {
+            try {
+                batch.put(createNotificationMessage(emails.get(i)), i);
+            } catch (MessagingException | RuntimeException e) {
+                LOG.warn("Notification email could not be prepared for '{}': {}", emails.get(i).to(), e.getMessage());
+                failures[i] = e.getMessage();
+                mailMetersService.emailsRejected(1);
+            }
+            if (batch.size() == batchSize) {
+                sendBatch(batch, failures);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            sendBatch(batch, failures);
+        }
+        return Arrays.asList(failures);
+    }
+
+    private void sendBatch(Map<MimeMessage, Integer> batch, String[] failures) {
+        long start = System.nanoTime();
+        int failed = 0;
+        try {
+            javaMailSender.send(batch.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Spring reports every message that was not sent, including all of them when the connection failed
+            for (Map.Entry<Object, Exception> failedMessage : e.getFailedMessages().entrySet()) {
+                Integer index = batch.get(failedMessage.getKey());
+                if (index != null) {
+                    failures[index] = failedMessage.getValue().getMessage();
+                    failed++;
+                }
+            }
+            if (e.getFailedMessages().isEmpty()) {
+                failed = failAll(batch, failures, e);
+            }
+        } catch (MailException e) {
+            failed = failAll(batch, failures, e);
+        }
+        if (failed > 0) {
+            LOG.warn("{} of {} notification emails could not be sent", failed, batch.size());
+        }
+        mailMetersService.recordBatch(batch.size() - failed, failed, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static int failAll(Map<MimeMessage, Integer> batch, String[] failures, MailException e) {
+        batch.values().forEach(index -> failures[index] = e.getMessage());
+        return batch.size();
+    }
+
+    private MimeMessage createNotificationMessage(NotificationEmail email) throws MessagingException {
+        RenderedEmail rendered = renderNotification(email.langKey(), email.content());
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, false, StandardCharsets.UTF_8.name());
+        message.setTo(email.to());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(rendered.subject());
+        message.setText(rendered.body(), true);
+        return mimeMessage;
+    }
+
+    private RenderedEmail renderNotification(String langKey, String content) {
+        String key = langKey + '\u0000' + content;
+        synchronized (renderedNotifications) {
+            RenderedEmail rendered = renderedNotifications.get(key);
+            if (rendered != null) {
+                return rendered;
+            }
+        }
+
+        Locale locale = langKey != null ? Locale.forLanguageTag(langKey) : Locale.getDefault();
+        Context context = new Context(locale);
+        context.setVariable(MESSAGE, content);
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        RenderedEmail rendered = new RenderedEmail(
+            messageSource.getMessage("email.notification.title", null, locale),
+            templateEngine.process("mail/notificationEmail", context)
+        );
+        synchronized (renderedNotifications) {
+            renderedNotifications.put(key, rendered);
+        }
+        return rendered;
+    }
+
     @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
         sendEmailFromTemplateSync(user, templateName, titleKey);
@@ -117,4 +246,15 @@ public class MailService {
         LOG.debug("Sending password reset email to '{}'", user.getEmail());
         sendEmailFromTemplateSync(user, "mail/passwordResetEmail", "email.reset.title");
     }
+
+    /**
+     * A notification email.
+     *
+     * @param to the recipient address.
+     * @param langKey the language of the recipient, {@code null} for the default one.
+     * @param content the text of the notification.
+     */
+    public record NotificationEmail(String to, String langKey, String content) {}
+
+    private record RenderedEmail(String subject, String body) {}
 }
@@ -0,0 +1,21 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.domain.enumeration.NotificationType;
+
+/**
+ * Gateway to a provider sending SMS and WhatsApp messages.
+ * <p>
+ * The implementation is selected with {@code application.notification-dispatch.gateway}.
+ */
+public interface MessagingGateway {
+    /**
+     * Send a message.
+     *
+     * @param channel the channel, {@link NotificationType#SMS} or {@link NotificationType#WHATSAPP}.
+     * @param phoneNumber the phone number of the recipient.
+     * @param message the text of the message.
+     * @return the identifier of the message at the provider.
+     * @throws NotificationDeliveryException if the provider rejected the message.
+     */
+    String send(NotificationType channel, String phoneNumber, String message);
+}
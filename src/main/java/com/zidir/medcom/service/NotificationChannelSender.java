@@ -0,0 +1,45 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.DispatchOutcome;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.PendingNotification;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delivers notifications through one {@link NotificationType} channel.
+ */
+public interface NotificationChannelSender {
+    /**
+     * @return the channel handled by this sender.
+     */
+    NotificationType getType();
+
+    /**
+     * Deliver a notification.
+     *
+     * @param notification the notification to deliver.
+     * @return the identifier of the message in the channel, or {@code null} if the channel has none.
+     * @throws NotificationDeliveryException if the notification could not be delivered.
+     */
+    String send(PendingNotification notification);
+
+    /**
+     * Deliver a batch of notifications of this channel.
+     * Senders able to deliver several notifications at once override this method, the default delivers them one by one.
+     *
+     * @param notifications the notifications to deliver.
+     * @return the outcome of each notification, in the same order as {@code notifications}.
+     */
+    default List<DispatchOutcome> sendAll(List<PendingNotification> notifications) {
+        List<DispatchOutcome> outcomes = new ArrayList<>(notifications.size());
+        for (PendingNotification notification : notifications) {
+            try {
+                outcomes.add(DispatchOutcome.sent(notification, send(notification)));
+            } catch (RuntimeException e) {
+                outcomes.add(DispatchOutcome.failed(notification, e.getMessage()));
+            }
+        }
+        return outcomes;
+    }
+}
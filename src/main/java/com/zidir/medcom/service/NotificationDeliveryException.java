@@ -0,0 +1,14 @@
+package com.zidir.medcom.service;
+
+public class NotificationDeliveryException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NotificationDeliveryException(String message) {
+        super(message);
+    }
+
+    public NotificationDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,140 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import com.zidir.medcom.repository.NotificationRepository;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.DispatchOutcome;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.PendingNotification;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service delivering the notifications written to the notification table, which acts as a transactional outbox.
+ * <p>
+ * Pending notifications are claimed in batches of {@code application.notification-dispatch.batch-size} with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}, in a short transaction leasing them for {@code claim-lease-seconds}, so
+ * several nodes can dispatch concurrently without sending a notification twice. The notifications of each
+ * {@link NotificationType} are then handed at once to the {@link NotificationChannelSender} of that channel, outside of
+ * any transaction, and the delivery status of the whole batch is written in a second transaction. Notifications whose
+ * status could not be written are claimed and sent again once their lease expires.
+ */
+@Service
+public class NotificationDispatcher {
+
+    static final String NO_CHANNEL_ERROR = "Notification has no channel";
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationRepository notificationRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<NotificationType, NotificationChannelSender> senders = new EnumMap<>(NotificationType.class);
+
+    public NotificationDispatcher(
+        NotificationRepository notificationRepository,
+        List<NotificationChannelSender> senders,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        senders.forEach(sender -> this.senders.put(sender.getType(), sender));
+    }
+
+    /**
+     * Scheduled task dispatching pending notifications until none is left.
+     */
+    @Scheduled(fixedDelayString = "#{${application.notification-dispatch.interval-seconds:10} * 1000}")
+    public void dispatchPending() {
+        if (!applicationProperties.getNotificationDispatch().getEnabled()) {
+            return;
+        }
+
+        ApplicationProperties.NotificationDispatch properties = applicationProperties.getNotificationDispatch();
+        int batchSize = properties.getBatchSize();
+        Duration lease = Duration.ofSeconds(properties.getClaimLeaseSeconds());
+        // Older notifications are stale, skipping them keeps the claims in the recent partitions
+        Instant createdFrom = Instant.now().minus(Duration.ofHours(properties.getPendingWindowHours()));
+        int total = 0;
+        int claimed;
+        do {
+            List<PendingNotification> pending;
+            try {
+                pending = transactionTemplate.execute(status ->
+                    notificationRepository.claimPending(createdFrom, Instant.now(), lease, batchSize)
+                );
+            } catch (RuntimeException e) {
+                LOG.error("Error claiming notifications: {}", e.getMessage(), e);
+                break;
+            }
+
+            List<DispatchOutcome> outcomes = dispatchBatch(pending);
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> notificationRepository.markDispatched(outcomes, Instant.now()));
+            } catch (RuntimeException e) {
+                LOG.error(
+                    "Error recording {} dispatched notifications, they are sent again after their lease: {}",
+                    outcomes.size(),
+                    e.getMessage(),
+                    e
+                );
+                break;
+            }
+            claimed = pending.size();
+            total += claimed;
+        } while (claimed == batchSize);
+
+        if (total > 0) {
+            LOG.info("Dispatched {} notifications", total);
+        }
+    }
+
+    private List<DispatchOutcome> dispatchBatch(List<PendingNotification> pending) {
+        Map<NotificationType, List<PendingNotification>> pendingByType = new EnumMap<>(NotificationType.class);
+        List<DispatchOutcome> outcomes = new ArrayList<>(pending.size());
+        for (PendingNotification notification : pending) {
+            if (notification.notificationType() == null) {
+                // The channel was never chosen, guessing one could reach a recipient who never asked for it
+                outcomes.add(DispatchOutcome.failed(notification, NO_CHANNEL_ERROR));
+                continue;
+            }
+            pendingByType.computeIfAbsent(notification.notificationType(), key -> new ArrayList<>()).add(notification);
+        }
+
+        pendingByType.forEach((type, notifications) -> outcomes.addAll(dispatch(type, notifications)));
+        return outcomes;
+    }
+
+    private List<DispatchOutcome> dispatch(NotificationType type, List<PendingNotification> notifications) {
+        NotificationChannelSender sender = senders.get(type);
+        if (sender == null) {
+            LOG.warn("No sender for {} notifications, {} notifications are marked as failed", type, notifications.size());
+            return notifications
+                .stream()
+                .map(notification -> DispatchOutcome.failed(notification, "No sender for channel " + type))
+                .toList();
+        }
+
+        List<DispatchOutcome> outcomes = sender.sendAll(notifications);
+        long failed = outcomes.stream().filter(outcome -> !outcome.sent()).count();
+        if (failed > 0) {
+            LOG.warn("Could not send {} of {} {} notifications", failed, notifications.size(), type);
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,140 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.domain.Notification;
+import com.zidir.medcom.domain.User;
+import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.repository.NotificationRepository;
+import com.zidir.medcom.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service creating the notifications of watchlist items whose availability changed.
+ * <p>
+ * Recipients of a whole batch of items are resolved with a single query and the notifications are
+ * written with JDBC batch inserts. They are pushed to connected clients once committed, and delivered later
+ * by the {@link NotificationDispatcher}.
+ */
+@Service
+@Transactional
+public class NotificationFanOutService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationFanOutService.class);
+
+    private final UserRepository userRepository;
+
+    private final NotificationRepository notificationRepository;
+
+    private final NotificationPushService notificationPushService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public NotificationFanOutService(
+        UserRepository userRepository,
+        NotificationRepository notificationRepository,
+        NotificationPushService notificationPushService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.notificationRepository = notificationRepository;
+        this.notificationPushService = notificationPushService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Generate notifications for users based on watchlist item settings.
+     * Items with {@code notifyAllUsers} notify every user of their pharmacy, the others only their creator.
+     *
+     * @param changedItems the watchlist items whose availability changed, holding their new availability
+     * @return the number of notifications created
+     */
+    public int fanOut(List<WatchListItem> changedItems) {
+        if (changedItems.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<User>> usersByPharmacyId = findUsersByPharmacyId(changedItems);
+
+        List<Notification> notifications = new ArrayList<>();
+        for (WatchListItem watchListItem : changedItems) {
+            for (User user : recipientsOf(watchListItem, usersByPharmacyId)) {
+                notifications.add(createNotification(watchListItem, user));
+            }
+        }
+
+        int count = notificationRepository.bulkInsert(notifications);
+        notificationRepository.incrementUnreadCounts(
+            notifications.stream().collect(Collectors.groupingBy(notification -> notification.getUser().getId(), Collectors.counting()))
+        );
+        notificationPushService.pushCreated(notifications);
+        LOG.debug("Created {} notifications for {} watchlist items", count, changedItems.size());
+        return count;
+    }
+
+    private Map<Long, List<User>> findUsersByPharmacyId(List<WatchListItem> changedItems) {
+        Set<Long> pharmacyIds = changedItems
+            .stream()
+            .filter(item -> Boolean.TRUE.equals(item.getNotifyAllUsers()) && item.getPharmacy() != null)
+            .map(item -> item.getPharmacy().getId())
+            .collect(Collectors.toSet());
+
+        if (pharmacyIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return userRepository
+            .findByPharmacyIdIn(pharmacyIds)
+            .stream()
+            .collect(Collectors.groupingBy(user -> user.getPharmacy().getId()));
+    }
+
+    private List<User> recipientsOf(WatchListItem watchListItem, Map<Long, List<User>> usersByPharmacyId) {
+        if (Boolean.TRUE.equals(watchListItem.getNotifyAllUsers())) {
+            // Notify all users in the pharmacy
+            if (watchListItem.getPharmacy() == null) {
+                LOG.warn("WatchListItem {} has no pharmacy, cannot notify users", watchListItem.getId());
+                return Collections.emptyList();
+            }
+
+            List<User> users = usersByPharmacyId.getOrDefault(watchListItem.getPharmacy().getId(), Collections.emptyList());
+            LOG.debug("Notifying all {} users in pharmacy {}", users.size(), watchListItem.getPharmacy().getId());
+            return users;
+        }
+
+        // Notify only the creator
+        if (watchListItem.getCreatedBy() == null) {
+            LOG.warn("WatchListItem {} has no creator and notifyAllUsers is false, cannot notify", watchListItem.getId());
+            return Collections.emptyList();
+        }
+
+        LOG.debug("Notifying creator user {} for watchlist item {}", watchListItem.getCreatedBy().getId(), watchListItem.getId());
+        return List.of(watchListItem.getCreatedBy());
+    }
+
+    private Notification createNotification(WatchListItem watchListItem, User user) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setPharmacy(watchListItem.getPharmacy());
+        notification.setWatchListItem(watchListItem);
+        notification.setNotificationType(applicationProperties.getNotificationDispatch().getDefaultType());
+
+        String productName = Objects.requireNonNullElse(watchListItem.getProduct().getName(), watchListItem.getProduct().getCode());
+        String availabilityStatus = Boolean.TRUE.equals(watchListItem.getLastAvailability()) ? "available" : "unavailable";
+        notification.setMessage(String.format("Product '%s' is now %s", productName, availabilityStatus));
+
+        notification.setSent(false);
+        notification.setDelivered(false);
+        notification.setFailed(false);
+        return notification;
+    }
+}
@@ -0,0 +1,122 @@
+package com.zidir.medcom.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.zidir.medcom.domain.Notification;
+import com.zidir.medcom.service.dto.NotificationPushDTO;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service pushing notification changes to the websocket sessions of their users, on {@code /user/queue/notifications}.
+ * <p>
+ * Pushes are sent once the current transaction commits, so clients never see notifications that were rolled back.
+ * They go through a Hazelcast topic because the STOMP broker is in-memory: the member creating a notification is
+ * not necessarily the one holding the websocket session of its user.
+ */
+@Service
+public class NotificationPushService {
+
+    public static final String USER_DESTINATION = "/queue/notifications";
+
+    public static final String PUSH_TOPIC = "notificationPushes";
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationPushService.class);
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final ITopic<UserPush> topic;
+
+    public NotificationPushService(HazelcastInstance hazelcastInstance, SimpMessageSendingOperations messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+        this.topic = hazelcastInstance.getTopic(PUSH_TOPIC);
+        this.topic.addMessageListener(message -> deliver(message.getMessageObject()));
+    }
+
+    /**
+     * Push newly created notifications to their users, with the matching unread-count increase.
+     *
+     * @param notifications the created notifications, with their id and user set.
+     */
+    public void pushCreated(List<Notification> notifications) {
+        Map<String, List<NotificationPushDTO.Item>> itemsByLogin = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            if (notification.getUser() == null || notification.getUser().getLogin() == null) {
+                continue;
+            }
+            itemsByLogin
+                .computeIfAbsent(notification.getUser().getLogin(), login -> new ArrayList<>())
+                .add(
+                    new NotificationPushDTO.Item(
+                        notification.getId(),
+                        notification.getMessage(),
+                        notification.getWatchListItem() != null ? notification.getWatchListItem().getId() : null
+                    )
+                );
+        }
+
+        List<UserPush> pushes = new ArrayList<>(itemsByLogin.size());
+        itemsByLogin.forEach((login, items) -> pushes.add(new UserPush(login, new NotificationPushDTO(items.size(), List.copyOf(items)))));
+        afterCommit(pushes);
+    }
+
+    /**
+     * Push the unread-count decrease of a user who read notifications.
+     *
+     * @param login the login of the user.
+     * @param count the number of notifications read.
+     */
+    public void pushRead(String login, long count) {
+        if (count > 0) {
+            afterCommit(List.of(new UserPush(login, NotificationPushDTO.read(count))));
+        }
+    }
+
+    private void afterCommit(List<UserPush> pushes) {
+        if (pushes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(pushes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(pushes);
+                }
+            }
+        );
+    }
+
+    private void publish(List<UserPush> pushes) {
+        topic
+            .publishAllAsync(pushes)
+            .exceptionally(e -> {
+                // Clients still get the notifications through the REST API
+                LOG.warn("Could not publish {} notification pushes: {}", pushes.size(), e.getMessage());
+                return null;
+            });
+    }
+
+    private void deliver(UserPush push) {
+        try {
+            messagingTemplate.convertAndSendToUser(push.login(), USER_DESTINATION, push.push());
+        } catch (MessagingException e) {
+            LOG.warn("Could not push notifications to user '{}': {}", push.login(), e.getMessage());
+        }
+    }
+
+    record UserPush(String login, NotificationPushDTO push) implements Serializable {}
+}
@@ -0,0 +1,125 @@
+package com.zidir.medcom.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.repository.NotificationRepository;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service maintaining the monthly partitions of the notification table.
+ * <p>
+ * Partitions are created {@code application.notification-retention.premake-months} ahead, so that new notifications
+ * never land in the default partition. Partitions older than {@code retention-months} are detached, which removes
+ * their notifications without deleting rows, and archived in {@code archive-schema} or dropped.
+ * <p>
+ * The partitions are maintained by one cluster member at a time, holding the {@link ClusterTaskLock}
+ * {@value #MAINTENANCE_LOCK}. The partition operations skip what an earlier or interrupted run already did.
+ */
+@Service
+public class NotificationRetentionService {
+
+    static final String MAINTENANCE_LOCK = "notificationPartitionMaintenance";
+
+    private static final long MAINTENANCE_LOCK_LEASE_MINUTES = 60;
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private final NotificationRepository notificationRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ClusterTaskLock maintenanceLock;
+
+    private final UnreadCounterReconciliationService unreadCounterReconciliationService;
+
+    public NotificationRetentionService(
+        NotificationRepository notificationRepository,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        HazelcastInstance hazelcastInstance,
+        UnreadCounterReconciliationService unreadCounterReconciliationService
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounterReconciliationService = unreadCounterReconciliationService;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceLock = new ClusterTaskLock(hazelcastInstance, MAINTENANCE_LOCK, MAINTENANCE_LOCK_LEASE_MINUTES);
+    }
+
+    /**
+     * Scheduled task creating upcoming partitions and retiring expired ones.
+     * Skipped on the members that fire while another member is maintaining the partitions.
+     */
+    @Scheduled(cron = "${application.notification-retention.cron:0 30 2 * * ?}")
+    public void maintainPartitions() {
+        if (!applicationProperties.getNotificationRetention().getEnabled()) {
+            return;
+        }
+        if (!maintenanceLock.tryLock()) {
+            LOG.debug("Notification partitions are being maintained by another member");
+            return;
+        }
+        try {
+            maintainPartitions(YearMonth.now(ZoneOffset.UTC));
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    void maintainPartitions(YearMonth currentMonth) {
+        ApplicationProperties.NotificationRetention properties = applicationProperties.getNotificationRetention();
+
+        for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            run("create the notification partition of " + month, () -> notificationRepository.createPartition(month));
+        }
+
+        YearMonth oldestKept = currentMonth.minusMonths(Math.max(0, properties.getRetentionMonths() - 1L));
+        List<YearMonth> expiredMonths = transactionTemplate
+            .execute(status -> notificationRepository.findPartitionMonths())
+            .stream()
+            .filter(month -> month.isBefore(oldestKept))
+            .toList();
+        for (YearMonth month : expiredMonths) {
+            if (retire(month, properties.getArchiveSchema())) {
+                LOG.info("Retired the notification partition of {}", month);
+            }
+        }
+
+        if (!expiredMonths.isEmpty()) {
+            // Unread notifications of the retired partitions no longer count
+            unreadCounterReconciliationService.reconcileUnreadCounters();
+        }
+    }
+
+    private boolean retire(YearMonth month, String archiveSchema) {
+        try {
+            // Outside of a transaction, so that the table lock taken by the detach is held only briefly
+            notificationRepository.detachPartition(month);
+        } catch (RuntimeException e) {
+            LOG.error("Could not detach the notification partition of {}: {}", month, e.getMessage(), e);
+            return false;
+        }
+        return run("archive the notification partition of " + month, () -> notificationRepository.archivePartition(month, archiveSchema));
+    }
+
+    private boolean run(String description, Runnable operation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> operation.run());
+            return true;
+        } catch (RuntimeException e) {
+            LOG.error("Could not {}: {}", description, e.getMessage(), e);
+            return false;
+        }
+    }
+}
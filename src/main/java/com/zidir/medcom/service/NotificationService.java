@@ -1,19 +1,28 @@
 package com.zidir.medcom.service;
 
+import com.zidir.medcom.config.ApplicationProperties;
 import com.zidir.medcom.domain.Notification;
-import com.zidir.medcom.domain.User;
 import com.zidir.medcom.repository.NotificationRepository;
-import com.zidir.medcom.repository.UserRepository;
-import com.zidir.medcom.security.SecurityUtils;
+import com.zidir.medcom.repository.NotificationRepository.NotificationView;
+import com.zidir.medcom.service.CurrentUserService.CurrentUser;
+import com.zidir.medcom.service.dto.NotificationCursor;
 import com.zidir.medcom.service.dto.NotificationDTO;
 import com.zidir.medcom.service.mapper.NotificationMapper;
 import com.zidir.medcom.web.rest.errors.BadRequestAlertException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,22 +33,40 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class NotificationService {
 
+    /**
+     * Maximum number of notifications returned by a page of a notification feed.
+     */
+    public static final int MAX_FEED_LIMIT = 100;
+
+    // Upper bound of the recent window of the feeds, beyond any creation date
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
+    private static final Instant START_OF_TIME = Instant.EPOCH;
+
     private static final Logger LOG = LoggerFactory.getLogger(NotificationService.class);
 
     private final NotificationRepository notificationRepository;
 
     private final NotificationMapper notificationMapper;
 
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+
+    private final NotificationPushService notificationPushService;
+
+    private final ApplicationProperties applicationProperties;
 
     public NotificationService(
         NotificationRepository notificationRepository,
         NotificationMapper notificationMapper,
-        UserRepository userRepository
+        CurrentUserService currentUserService,
+        NotificationPushService notificationPushService,
+        ApplicationProperties applicationProperties
     ) {
         this.notificationRepository = notificationRepository;
         this.notificationMapper = notificationMapper;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
+        this.notificationPushService = notificationPushService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -48,13 +75,8 @@ public class NotificationService {
      * @return the current user
      * @throws BadRequestAlertException if user is not authenticated or not found
      */
-    private User getCurrentUser() {
-        String login = SecurityUtils.getCurrentUserLogin()
-            .orElseThrow(() -> new BadRequestAlertException("User not authenticated", "notification", "notauthenticated"));
-
-        return userRepository
-            .findOneByLogin(login)
-            .orElseThrow(() -> new BadRequestAlertException("User not found", "notification", "usernotfound"));
+    private CurrentUser getCurrentUser() {
+        return currentUserService.getCurrentUser("notification");
     }
 
     /**
@@ -67,6 +89,9 @@ public class NotificationService {
         LOG.debug("Request to save Notification : {}", notificationDTO);
         Notification notification = notificationMapper.toEntity(notificationDTO);
         notification = notificationRepository.save(notification);
+        if (notification.getUser() != null && notification.getReadAt() == null) {
+            notificationRepository.incrementUnreadCounts(Map.of(notification.getUser().getId(), 1L));
+        }
         return notificationMapper.toDto(notification);
     }
 
@@ -155,8 +180,8 @@ public class NotificationService {
     @Transactional(readOnly = true)
     public Page<NotificationDTO> findByCurrentUser(Pageable pageable) {
         LOG.debug("Request to get notifications for current user");
-        User currentUser = getCurrentUser();
-        return notificationRepository.findByUserId(currentUser.getId(), pageable).map(notificationMapper::toDto);
+        CurrentUser currentUser = getCurrentUser();
+        return notificationRepository.findViewsByUserId(currentUser.id(), pageable).map(notificationMapper::toDto);
     }
 
     /**
@@ -168,13 +193,13 @@ public class NotificationService {
     @Transactional(readOnly = true)
     public Page<NotificationDTO> findByCurrentUserPharmacy(Pageable pageable) {
         LOG.debug("Request to get notifications for current user's pharmacy");
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUser();
 
-        if (currentUser.getPharmacy() == null) {
+        if (!currentUser.hasPharmacy()) {
             throw new BadRequestAlertException("User has no pharmacy", "notification", "nopharmacy");
         }
 
-        return notificationRepository.findByPharmacyId(currentUser.getPharmacy().getId(), pageable).map(notificationMapper::toDto);
+        return notificationRepository.findViewsByPharmacyId(currentUser.pharmacyId(), pageable).map(notificationMapper::toDto);
     }
 
     /**
@@ -186,8 +211,114 @@ public class NotificationService {
     @Transactional(readOnly = true)
     public Page<NotificationDTO> findUnreadByCurrentUser(Pageable pageable) {
         LOG.debug("Request to get unread notifications for current user");
-        User currentUser = getCurrentUser();
-        return notificationRepository.findByUserIdAndReadAtIsNull(currentUser.getId(), pageable).map(notificationMapper::toDto);
+        CurrentUser currentUser = getCurrentUser();
+        return notificationRepository.findUnreadViewsByUserId(currentUser.id(), pageable).map(notificationMapper::toDto);
+    }
+
+    /**
+     * Get a page of the notifications of the current user, newest first, without counting them.
+     *
+     * @param after the cursor of the last notification of the previous page, {@code null} for the first page.
+     * @param limit the maximum number of notifications to return, at most {@link #MAX_FEED_LIMIT}.
+     * @return the page of notifications.
+     */
+    @Transactional(readOnly = true)
+    public Slice<NotificationDTO> findByCurrentUser(NotificationCursor after, int limit) {
+        LOG.debug("Request to get notifications for current user after {}", after);
+        CurrentUser currentUser = getCurrentUser();
+        return feedPage(limit, (createdFrom, createdBefore, feedLimit) ->
+            notificationRepository.findViewsByUserIdBefore(
+                currentUser.id(),
+                beforeCreatedDate(after),
+                beforeId(after),
+                createdFrom,
+                createdBefore,
+                feedLimit
+            )
+        );
+    }
+
+    /**
+     * Get a page of the notifications of the current user's pharmacy, newest first, without counting them.
+     *
+     * @param after the cursor of the last notification of the previous page, {@code null} for the first page.
+     * @param limit the maximum number of notifications to return, at most {@link #MAX_FEED_LIMIT}.
+     * @return the page of notifications.
+     */
+    @Transactional(readOnly = true)
+    public Slice<NotificationDTO> findByCurrentUserPharmacy(NotificationCursor after, int limit) {
+        LOG.debug("Request to get notifications for current user's pharmacy after {}", after);
+        CurrentUser currentUser = getCurrentUser();
+
+        if (!currentUser.hasPharmacy()) {
+            throw new BadRequestAlertException("User has no pharmacy", "notification", "nopharmacy");
+        }
+
+        Long pharmacyId = currentUser.pharmacyId();
+        return feedPage(limit, (createdFrom, createdBefore, feedLimit) ->
+            notificationRepository.findViewsByPharmacyIdBefore(
+                pharmacyId,
+                beforeCreatedDate(after),
+                beforeId(after),
+                createdFrom,
+                createdBefore,
+                feedLimit
+            )
+        );
+    }
+
+    /**
+     * Get a page of the unread notifications of the current user, newest first, without counting them.
+     *
+     * @param after the cursor of the last notification of the previous page, {@code null} for the first page.
+     * @param limit the maximum number of notifications to return, at most {@link #MAX_FEED_LIMIT}.
+     * @return the page of notifications.
+     */
+    @Transactional(readOnly = true)
+    public Slice<NotificationDTO> findUnreadByCurrentUser(NotificationCursor after, int limit) {
+        LOG.debug("Request to get unread notifications for current user after {}", after);
+        CurrentUser currentUser = getCurrentUser();
+        return feedPage(limit, (createdFrom, createdBefore, feedLimit) ->
+            notificationRepository.findUnreadViewsByUserIdBefore(
+                currentUser.id(),
+                beforeCreatedDate(after),
+                beforeId(after),
+                createdFrom,
+                createdBefore,
+                feedLimit
+            )
+        );
+    }
+
+    /**
+     * The notifications of the recent window are read first, from the partitions of its months only. The older
+     * partitions are only read when the window does not fill the page. The feeds are ordered by creation date first, so
+     * the notifications of the window always come before the older ones.
+     */
+    private Slice<NotificationDTO> feedPage(int limit, FeedQuery query) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        Instant windowStart = Instant.now().minus(Duration.ofDays(applicationProperties.getNotificationFeed().getRecentWindowDays()));
+        // One more notification tells whether there is a next page
+        List<NotificationView> notifications = new ArrayList<>(query.find(windowStart, END_OF_TIME, Limit.of(pageSize + 1)));
+        if (notifications.size() <= pageSize) {
+            notifications.addAll(query.find(START_OF_TIME, windowStart, Limit.of(pageSize + 1 - notifications.size())));
+        }
+        boolean hasNext = notifications.size() > pageSize;
+        List<NotificationDTO> content = notifications.stream().limit(pageSize).map(notificationMapper::toDto).toList();
+        return new SliceImpl<>(content, Pageable.ofSize(pageSize), hasNext);
+    }
+
+    @FunctionalInterface
+    private interface FeedQuery {
+        List<NotificationView> find(Instant createdFrom, Instant createdBefore, Limit limit);
+    }
+
+    private static Instant beforeCreatedDate(NotificationCursor after) {
+        return after != null ? after.createdDate() : END_OF_TIME;
+    }
+
+    private static Long beforeId(NotificationCursor after) {
+        return after != null ? after.id() : Long.MAX_VALUE;
     }
 
     /**
@@ -202,15 +333,17 @@ public class NotificationService {
         return notificationRepository
             .findById(id)
             .map(notification -> {
-                User currentUser = getCurrentUser();
+                CurrentUser currentUser = getCurrentUser();
 
                 // Verify that the notification belongs to the current user
-                if (notification.getUser() == null || !notification.getUser().getId().equals(currentUser.getId())) {
+                if (notification.getUser() == null || !notification.getUser().getId().equals(currentUser.id())) {
                     throw new BadRequestAlertException("Cannot mark another user's notification as read", "notification", "accessdenied");
                 }
 
                 if (notification.getReadAt() == null) {
                     notification.setReadAt(ZonedDateTime.now());
+                    notificationRepository.decrementUnreadCount(currentUser.id(), 1);
+                    notificationPushService.pushRead(currentUser.login(), 1);
                 }
 
                 return notification;
@@ -227,21 +360,25 @@ public class NotificationService {
     public long markAllAsReadForCurrentUser() {
         LOG.debug("Request to mark all notifications as read for current user");
 
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUser();
         ZonedDateTime now = ZonedDateTime.now();
 
-        return notificationRepository.markAllAsReadForUser(currentUser.getId(), now);
+        int count = notificationRepository.markAllAsReadForUser(currentUser.id(), now);
+        notificationRepository.decrementUnreadCount(currentUser.id(), count);
+        notificationPushService.pushRead(currentUser.login(), count);
+        return count;
     }
 
     /**
      * Count unread notifications for the current user.
+     * Reads the materialized counter of the user instead of counting the notifications.
      *
      * @return the count of unread notifications.
      */
     @Transactional(readOnly = true)
     public long countUnreadByCurrentUser() {
         LOG.debug("Request to count unread notifications for current user");
-        User currentUser = getCurrentUser();
-        return notificationRepository.countByUserIdAndReadAtIsNull(currentUser.getId());
+        CurrentUser currentUser = getCurrentUser();
+        return notificationRepository.findUnreadCount(currentUser.id());
     }
 }
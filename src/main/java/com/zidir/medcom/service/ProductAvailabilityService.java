@@ -1,6 +1,9 @@
 package com.zidir.medcom.service;
 
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for checking product availability via external supplier API.
@@ -10,10 +13,42 @@ public interface ProductAvailabilityService {
      * Check product availability by product code.
      *
      * @param productCode the product code to check
-     * @return Map containing availability information with keys:
-     *         - "available" (Boolean): true if product is available
-     *         - "error" (String, optional): error message if check failed
-     *         - "placeholder" (Boolean, optional): true if using placeholder data
+     * @return the availability result; {@link AvailabilityResult#available()} is {@code false} and
+     *         {@link AvailabilityResult#error()} is set if the check failed
      */
-    Map<String, Object> checkProductAvailability(String productCode);
+    AvailabilityResult checkProductAvailability(String productCode);
+
+    /**
+     * Check product availability by product code without blocking the caller.
+     * Implementations backed by a blocking client complete the future before returning it.
+     *
+     * @param productCode the product code to check
+     * @return a future completed with the availability result, never completed exceptionally
+     */
+    default CompletableFuture<AvailabilityResult> checkProductAvailabilityAsync(String productCode) {
+        return CompletableFuture.completedFuture(checkProductAvailability(productCode));
+    }
+
+    /**
+     * Check the availability of several products at once.
+     * Uses the supplier bulk endpoint, chunked to {@code application.supplier-api.batch-size} codes per request,
+     * and falls back to per-code checks only if the supplier has no bulk endpoint. Codes of a failed bulk request or
+     * missing from its answer get failed results.
+     *
+     * @param productCodes the product codes to check
+     * @return Map of product code to availability result, see {@link #checkProductAvailability(String)}
+     */
+    Map<String, AvailabilityResult> checkProductAvailability(Collection<String> productCodes);
+
+    /**
+     * Check the availability of several products at once without waiting for the supplier.
+     * Implementations backed by a blocking client complete the future before returning it.
+     *
+     * @param productCodes the product codes to check
+     * @return a future completed with the map of product code to availability result, see
+     *         {@link #checkProductAvailability(Collection)}
+     */
+    default CompletableFuture<Map<String, AvailabilityResult>> checkProductAvailabilityAsync(Collection<String> productCodes) {
+        return CompletableFuture.completedFuture(checkProductAvailability(productCodes));
+    }
 }
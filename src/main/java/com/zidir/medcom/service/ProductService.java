@@ -85,7 +85,7 @@ public class ProductService {
     @Transactional(readOnly = true)
     public Page<ProductDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Products");
-        return productRepository.findAll(pageable).map(productMapper::toDto);
+        return productRepository.findAllViews(pageable).map(productMapper::toDto);
     }
 
     /**
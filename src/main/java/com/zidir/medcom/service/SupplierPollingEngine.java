@@ -0,0 +1,183 @@
+package com.zidir.medcom.service;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service fanning supplier availability checks out over the availability check executor.
+ * <p>
+ * Product codes are split into chunks of {@code application.supplier-api.batch-size} codes, each chunk being one
+ * bulk request to the supplier. The executor threads only wait for a permit and send the request through
+ * {@link ProductAvailabilityService#checkProductAvailabilityAsync(java.util.Collection)}, the answers are recorded as
+ * they complete, so a non-blocking supplier client does not hold a thread per in-flight request.
+ * <p>
+ * The number of in-flight supplier requests is capped independently of the pool size, and a sweep
+ * never waits longer than {@code application.availability-check.sweep-timeout-minutes}: checks that
+ * are still pending at that point are abandoned, and their product codes are rescheduled for a check after
+ * {@code min-interval-minutes}.
+ */
+@Service
+public class SupplierPollingEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SupplierPollingEngine.class);
+
+    private final ProductAvailabilityService productAvailabilityService;
+
+    private final Executor executor;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final AvailabilityMetersService availabilityMetersService;
+
+    private final Semaphore supplierPermits;
+
+    public SupplierPollingEngine(
+        ProductAvailabilityService productAvailabilityService,
+        @Qualifier("availabilityCheckExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        AvailabilityMetersService availabilityMetersService
+    ) {
+        this.productAvailabilityService = productAvailabilityService;
+        this.executor = executor;
+        this.applicationProperties = applicationProperties;
+        this.availabilityMetersService = availabilityMetersService;
+        this.supplierPermits = new Semaphore(applicationProperties.getAvailabilityCheck().getMaxConcurrentRequests(), true);
+    }
+
+    /**
+     * Check the availability of the given product codes concurrently.
+     *
+     * @param productCodes the product codes to check.
+     * @return the availability results, in the same order as {@code productCodes}; an entry is {@code null}
+     *         if its check failed or did not complete before the sweep deadline.
+     */
+    public List<AvailabilityResult> poll(List<String> productCodes) {
+        int size = productCodes.size();
+        Instant deadline = Instant.now().plus(Duration.ofMinutes(applicationProperties.getAvailabilityCheck().getSweepTimeoutMinutes()));
+        AtomicReferenceArray<AvailabilityResult> results = new AtomicReferenceArray<>(size);
+        AtomicInteger completed = new AtomicInteger();
+
+        // Codes are dispatched in chunks matching the supplier bulk endpoint
+        int batchSize = Math.max(1, applicationProperties.getSupplierApi().getBatchSize());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < size; from += batchSize) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(from + batchSize, size);
+            futures.add(
+                CompletableFuture.supplyAsync(
+                    () -> check(productCodes.subList(chunkStart, chunkEnd), deadline, results, chunkStart),
+                    executor
+                )
+                    .thenCompose(Function.identity())
+                    .thenAccept(completed::addAndGet)
+            );
+        }
+
+        awaitUntil(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])), deadline);
+
+        List<AvailabilityResult> snapshot = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            snapshot.add(results.get(i));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            // Checks that have not started yet are dropped, running ones complete in the background
+            future.cancel(false);
+        }
+
+        int timedOut = size - completed.get();
+        if (timedOut > 0) {
+            LOG.warn("{} of {} availability checks did not complete before the sweep deadline", timedOut, size);
+            availabilityMetersService.trackCheckTimeouts(timedOut);
+        }
+        return snapshot;
+    }
+
+    private CompletableFuture<Integer> check(
+        List<String> productCodes,
+        Instant deadline,
+        AtomicReferenceArray<AvailabilityResult> results,
+        int offset
+    ) {
+        long remaining = Duration.between(Instant.now(), deadline).toMillis();
+        try {
+            if (remaining <= 0 || !supplierPermits.tryAcquire(remaining, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.completedFuture(0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(0);
+        }
+
+        availabilityMetersService.checkStarted();
+        CompletableFuture<Map<String, AvailabilityResult>> check;
+        try {
+            check = productAvailabilityService.checkProductAvailabilityAsync(productCodes);
+        } catch (RuntimeException e) {
+            check = CompletableFuture.failedFuture(e);
+        }
+        return check.handle((availabilities, e) -> {
+            try {
+                if (e != null) {
+                    LOG.error("Error checking availability for products {}: {}", productCodes, e.getMessage(), e);
+                    productCodes.forEach(productCode -> availabilityMetersService.trackCheckError());
+                } else {
+                    record(productCodes, availabilities, results, offset);
+                }
+            } finally {
+                availabilityMetersService.checkFinished();
+                supplierPermits.release();
+            }
+            return productCodes.size();
+        });
+    }
+
+    private void record(
+        List<String> productCodes,
+        Map<String, AvailabilityResult> availabilities,
+        AtomicReferenceArray<AvailabilityResult> results,
+        int offset
+    ) {
+        for (int i = 0; i < productCodes.size(); i++) {
+            AvailabilityResult result = availabilities.get(productCodes.get(i));
+            if (result == null || result.isError()) {
+                availabilityMetersService.trackCheckError();
+            } else if (result.notModified()) {
+                availabilityMetersService.trackCheckNotModified();
+            } else {
+                availabilityMetersService.trackCheckSuccess();
+            }
+            results.set(offset + i, result);
+        }
+    }
+
+    private void awaitUntil(CompletableFuture<Void> sweep, Instant deadline) {
+        try {
+            sweep.get(Math.max(0, Duration.between(Instant.now(), deadline).toMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.debug("Sweep deadline reached with availability checks still pending");
+        } catch (ExecutionException e) {
+            LOG.error("Unexpected error during availability sweep: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
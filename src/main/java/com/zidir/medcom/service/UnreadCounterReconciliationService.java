@@ -0,0 +1,96 @@
+package com.zidir.medcom.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.repository.NotificationRepository;
+import com.zidir.medcom.repository.NotificationRepositoryWithUnreadCounter.ReconciledBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service recomputing the per-user unread counters from the notifications, correcting the notifications updated or
+ * deleted through the CRUD endpoints and the partitions retired, which do not maintain the counters.
+ * <p>
+ * The counters are reconciled by one cluster member at a time, holding the {@link ClusterTaskLock}
+ * {@value #RECONCILIATION_LOCK}, in batches of {@code application.unread-counter.reconcile-batch-size} users, each in
+ * its own transaction locking the counters of the batch.
+ */
+@Service
+public class UnreadCounterReconciliationService {
+
+    static final String RECONCILIATION_LOCK = "unreadCounterReconciliation";
+
+    private static final long RECONCILIATION_LOCK_LEASE_MINUTES = 30;
+
+    private static final Logger LOG = LoggerFactory.getLogger(UnreadCounterReconciliationService.class);
+
+    private final NotificationRepository notificationRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ClusterTaskLock reconciliationLock;
+
+    public UnreadCounterReconciliationService(
+        NotificationRepository notificationRepository,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconciliationLock = new ClusterTaskLock(hazelcastInstance, RECONCILIATION_LOCK, RECONCILIATION_LOCK_LEASE_MINUTES);
+    }
+
+    /**
+     * Reconcile the unread counters of every user.
+     * Skipped on the members that fire while another member is reconciling the counters.
+     * <p>
+     * This is scheduled to get fired every {@code application.unread-counter.reconcile-interval-seconds}.
+     */
+    @Scheduled(
+        fixedDelayString = "#{${application.unread-counter.reconcile-interval-seconds:3600} * 1000}",
+        initialDelayString = "#{${application.unread-counter.reconcile-interval-seconds:3600} * 1000}"
+    )
+    public void reconcileUnreadCounters() {
+        if (!reconciliationLock.tryLock()) {
+            LOG.debug("Unread counters are being reconciled by another member");
+            return;
+        }
+        try {
+            int corrected = reconcileBatches();
+            if (corrected > 0) {
+                LOG.info("Corrected {} unread notification counters", corrected);
+            }
+        } finally {
+            reconciliationLock.unlock();
+        }
+    }
+
+    private int reconcileBatches() {
+        int batchSize = applicationProperties.getUnreadCounter().getReconcileBatchSize();
+        int corrected = 0;
+        long afterUserId = 0;
+        while (true) {
+            long from = afterUserId;
+            ReconciledBatch batch;
+            try {
+                batch = transactionTemplate.execute(status -> notificationRepository.reconcileUnreadCounts(from, batchSize));
+            } catch (RuntimeException e) {
+                LOG.error("Could not reconcile the unread counters of the users after {}: {}", from, e.getMessage(), e);
+                return corrected;
+            }
+            corrected += batch.correctedCount();
+            if (batch.userCount() < batchSize) {
+                return corrected;
+            }
+            afterUserId = batch.lastUserId();
+        }
+    }
+}
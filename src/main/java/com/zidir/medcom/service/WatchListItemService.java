@@ -1,10 +1,10 @@
 package com.zidir.medcom.service;
 
-import com.zidir.medcom.domain.User;
 import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.repository.PharmacyRepository;
 import com.zidir.medcom.repository.UserRepository;
 import com.zidir.medcom.repository.WatchListItemRepository;
-import com.zidir.medcom.security.SecurityUtils;
+import com.zidir.medcom.service.CurrentUserService.CurrentUser;
 import com.zidir.medcom.service.dto.WatchListItemDTO;
 import com.zidir.medcom.service.mapper.WatchListItemMapper;
 import com.zidir.medcom.web.rest.errors.BadRequestAlertException;
@@ -32,14 +32,22 @@ public class WatchListItemService {
 
     private final UserRepository userRepository;
 
+    private final PharmacyRepository pharmacyRepository;
+
+    private final CurrentUserService currentUserService;
+
     public WatchListItemService(
         WatchListItemRepository watchListItemRepository,
         WatchListItemMapper watchListItemMapper,
-        UserRepository userRepository
+        UserRepository userRepository,
+        PharmacyRepository pharmacyRepository,
+        CurrentUserService currentUserService
     ) {
         this.watchListItemRepository = watchListItemRepository;
         this.watchListItemMapper = watchListItemMapper;
         this.userRepository = userRepository;
+        this.pharmacyRepository = pharmacyRepository;
+        this.currentUserService = currentUserService;
     }
 
     /**
@@ -48,13 +56,18 @@ public class WatchListItemService {
      * @return the current user
      * @throws BadRequestAlertException if user is not authenticated or not found
      */
-    private User getCurrentUser() {
-        String login = SecurityUtils.getCurrentUserLogin()
-            .orElseThrow(() -> new BadRequestAlertException("User not authenticated", "watchListItem", "notauthenticated"));
+    private CurrentUser getCurrentUser() {
+        return currentUserService.getCurrentUser("watchListItem");
+    }
 
-        return userRepository
-            .findOneByLogin(login)
-            .orElseThrow(() -> new BadRequestAlertException("User not found", "watchListItem", "usernotfound"));
+    /**
+     * Get the current authenticated user as stored in the database, before changing a watchlist item.
+     *
+     * @return the current user
+     * @throws BadRequestAlertException if user is not authenticated or not found
+     */
+    private CurrentUser getCurrentUserFromDatabase() {
+        return currentUserService.getCurrentUserFromDatabase("watchListItem");
     }
 
     /**
@@ -64,13 +77,25 @@ public class WatchListItemService {
      * @throws AccessDeniedException if user cannot access the item
      */
     private void checkAccess(WatchListItem watchListItem) {
-        User currentUser = getCurrentUser();
+        checkAccess(watchListItem, getCurrentUser());
+    }
+
+    /**
+     * Check if the current user can change a watchlist item, using the pharmacy stored in the database.
+     *
+     * @param watchListItem the watchlist item to check
+     * @throws AccessDeniedException if user cannot change the item
+     */
+    private void checkWriteAccess(WatchListItem watchListItem) {
+        checkAccess(watchListItem, getCurrentUserFromDatabase());
+    }
 
-        if (currentUser.getPharmacy() == null) {
+    private static void checkAccess(WatchListItem watchListItem, CurrentUser currentUser) {
+        if (!currentUser.hasPharmacy()) {
             throw new BadRequestAlertException("User has no pharmacy", "watchListItem", "nopharmacy");
         }
 
-        if (watchListItem.getPharmacy() == null || !currentUser.getPharmacy().getId().equals(watchListItem.getPharmacy().getId())) {
+        if (watchListItem.getPharmacy() == null || !currentUser.pharmacyId().equals(watchListItem.getPharmacy().getId())) {
             throw new AccessDeniedException("User can only access watchlist items from their own pharmacy");
         }
     }
@@ -85,19 +110,19 @@ public class WatchListItemService {
     public WatchListItemDTO save(WatchListItemDTO watchListItemDTO) {
         LOG.debug("Request to save WatchListItem : {}", watchListItemDTO);
 
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUserFromDatabase();
 
-        if (currentUser.getPharmacy() == null) {
+        if (!currentUser.hasPharmacy()) {
             throw new BadRequestAlertException("User has no pharmacy", "watchListItem", "nopharmacy");
         }
 
         WatchListItem watchListItem = watchListItemMapper.toEntity(watchListItemDTO);
 
         // Set the createdBy to current user
-        watchListItem.setCreatedBy(currentUser);
+        watchListItem.setCreatedBy(userRepository.getReferenceById(currentUser.id()));
 
         // Set the pharmacy to current user's pharmacy
-        watchListItem.setPharmacy(currentUser.getPharmacy());
+        watchListItem.setPharmacy(pharmacyRepository.getReferenceById(currentUser.pharmacyId()));
 
         // Set default value for notifyAllUsers if not specified
         if (watchListItem.getNotifyAllUsers() == null) {
@@ -123,7 +148,7 @@ public class WatchListItemService {
             .findById(watchListItemDTO.getId())
             .orElseThrow(() -> new BadRequestAlertException("Entity not found", "watchListItem", "idnotfound"));
 
-        checkAccess(existingItem);
+        checkWriteAccess(existingItem);
 
         WatchListItem watchListItem = watchListItemMapper.toEntity(watchListItemDTO);
         watchListItem = watchListItemRepository.save(watchListItem);
@@ -144,7 +169,7 @@ public class WatchListItemService {
             .findById(watchListItemDTO.getId())
             .map(existingWatchListItem -> {
                 // Check access before updating
-                checkAccess(existingWatchListItem);
+                checkWriteAccess(existingWatchListItem);
 
                 watchListItemMapper.partialUpdate(existingWatchListItem, watchListItemDTO);
 
@@ -164,13 +189,13 @@ public class WatchListItemService {
     public Page<WatchListItemDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all WatchListItems");
 
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUser();
 
-        if (currentUser.getPharmacy() == null) {
+        if (!currentUser.hasPharmacy()) {
             throw new BadRequestAlertException("User has no pharmacy", "watchListItem", "nopharmacy");
         }
 
-        return watchListItemRepository.findByPharmacyId(currentUser.getPharmacy().getId(), pageable).map(watchListItemMapper::toDto);
+        return watchListItemRepository.findViewsByPharmacyId(currentUser.pharmacyId(), pageable).map(watchListItemMapper::toDto);
     }
 
     /**
@@ -206,7 +231,7 @@ public class WatchListItemService {
             .findById(id)
             .orElseThrow(() -> new BadRequestAlertException("Entity not found", "watchListItem", "idnotfound"));
 
-        checkAccess(watchListItem);
+        checkWriteAccess(watchListItem);
 
         watchListItemRepository.deleteById(id);
     }
@@ -0,0 +1,25 @@
+package com.zidir.medcom.service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A batch of availability changes pushed by the supplier to {@code /api/supplier/availability-events}.
+ *
+ * @param events the availability changes, in any order.
+ */
+public record AvailabilityEventsDTO(@NotEmpty List<@Valid @NotNull Event> events) implements Serializable {
+    /**
+     * The availability of a product at a point in time.
+     *
+     * @param productCode the code of the product.
+     * @param available whether the product is available.
+     * @param checkedAt when the supplier observed the availability, the time of reception if not set.
+     */
+    public record Event(@NotBlank String productCode, @NotNull Boolean available, Instant checkedAt) implements Serializable {}
+}
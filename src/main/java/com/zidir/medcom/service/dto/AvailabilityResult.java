@@ -0,0 +1,52 @@
+package com.zidir.medcom.service.dto;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The result of a product availability check against the supplier API.
+ *
+ * @param available whether the product is available, {@code null} if the supplier did not say.
+ * @param error the error message if the check failed, {@code null} otherwise.
+ * @param placeholder whether the result is placeholder data because the supplier API is disabled.
+ * @param notModified whether the supplier answered that the availability did not change since the previous check,
+ *        {@code available} is then the availability of that check.
+ * @param rejected whether the check was refused by this node without reaching the supplier, {@code error} tells why.
+ * @param checkedAt when the check completed.
+ * @param latency how long the supplier took to answer.
+ */
+public record AvailabilityResult(
+    Boolean available,
+    String error,
+    boolean placeholder,
+    boolean notModified,
+    boolean rejected,
+    Instant checkedAt,
+    Duration latency
+)
+    implements Serializable {
+    public static AvailabilityResult of(Boolean available, Instant checkedAt, Duration latency) {
+        return new AvailabilityResult(available, null, false, false, false, checkedAt, latency);
+    }
+
+    public static AvailabilityResult notModified(Boolean available, Instant checkedAt, Duration latency) {
+        return new AvailabilityResult(available, null, false, true, false, checkedAt, latency);
+    }
+
+    public static AvailabilityResult failed(String error, Instant checkedAt, Duration latency) {
+        return new AvailabilityResult(false, error, false, false, false, checkedAt, latency);
+    }
+
+    public static AvailabilityResult rejected(String reason) {
+        return new AvailabilityResult(null, reason, false, false, true, Instant.now(), Duration.ZERO);
+    }
+
+    public static AvailabilityResult placeholder(boolean available) {
+        return new AvailabilityResult(available, null, true, false, false, Instant.now(), Duration.ZERO);
+    }
+
+    public boolean isError() {
+        return error != null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.zidir.medcom.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * The position of a notification in the notification feeds, which are ordered by creation date then id, newest first.
+ * Notification ids are allocated in blocks per node, so they alone do not follow the creation order.
+ * <p>
+ * Sent to clients as {@code <microseconds since the epoch>_<id>}.
+ *
+ * @param createdDate the creation date of the notification.
+ * @param id the id of the notification.
+ */
+public record NotificationCursor(Instant createdDate, Long id) implements Serializable {
+    public NotificationCursor {
+        Objects.requireNonNull(createdDate);
+        Objects.requireNonNull(id);
+    }
+
+    public static NotificationCursor of(NotificationDTO notification) {
+        return new NotificationCursor(notification.getCreatedDate(), notification.getId());
+    }
+
+    /**
+     * @param value a cursor as returned by {@link #toString()}.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the value is not a cursor.
+     */
+    public static NotificationCursor parse(String value) {
+        int separator = value.indexOf('_');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid notification cursor: " + value);
+        }
+        try {
+            long micros = Long.parseLong(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            return new NotificationCursor(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid notification cursor: " + value, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        // Creation dates are stored with microsecond precision
+        return ChronoUnit.MICROS.between(Instant.EPOCH, createdDate) + "_" + id;
+    }
+}
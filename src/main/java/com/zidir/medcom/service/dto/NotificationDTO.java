@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.zidir.medcom.domain.enumeration.NotificationType;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 
@@ -38,6 +39,9 @@ public class NotificationDTO implements Serializable {
 
     private String externalMessageId;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant createdDate;
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private PharmacyDTO pharmacy;
 
@@ -158,6 +162,14 @@ public class NotificationDTO implements Serializable {
         this.user = user;
     }
 
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
     public WatchListItemDTO getWatchListItem() {
         return watchListItem;
     }
@@ -203,6 +215,7 @@ public class NotificationDTO implements Serializable {
             ", failedAt='" + getFailedAt() + "'" +
             ", failureReason='" + getFailureReason() + "'" +
             ", externalMessageId='" + getExternalMessageId() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
             ", pharmacy=" + getPharmacy() +
             ", user=" + getUser() +
             ", watchListItem=" + getWatchListItem() +
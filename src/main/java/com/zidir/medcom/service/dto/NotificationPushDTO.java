@@ -0,0 +1,25 @@
+package com.zidir.medcom.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A change of the notifications of a user, pushed to {@code /user/queue/notifications}.
+ *
+ * @param unreadDelta the change of the number of unread notifications of the user, negative when notifications were read.
+ * @param notifications the notifications just created for the user, empty when notifications were read.
+ */
+public record NotificationPushDTO(long unreadDelta, List<Item> notifications) implements Serializable {
+    public static NotificationPushDTO read(long count) {
+        return new NotificationPushDTO(-count, List.of());
+    }
+
+    /**
+     * A notification just created.
+     *
+     * @param id the id of the notification.
+     * @param message the message of the notification.
+     * @param watchListItemId the id of the watch list item the notification is about.
+     */
+    public record Item(Long id, String message, Long watchListItemId) implements Serializable {}
+}
@@ -0,0 +1,90 @@
+package com.zidir.medcom.service.impl;
+
+import java.time.Duration;
+import java.util.function.IntConsumer;
+
+/**
+ * Concurrency limiter adapting its limit with additive increase / multiplicative decrease (AIMD).
+ * <p>
+ * Every successful call raises the limit by {@code 1 / limit}, i.e. by one after a full limit's worth of successes,
+ * and every failed or slow call multiplies it by {@code backoffRatio}. The limit stays within {@code [minLimit, maxLimit]}.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final IntConsumer limitListener;
+
+    private double limit;
+
+    private int inFlight;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, IntConsumer limitListener) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.limitListener = limitListener;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        limitListener.accept(getLimit());
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= getLimit()) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Acquire a permit, waiting at most {@code maxWait} for one to become available.
+     *
+     * @param maxWait the maximum time to wait.
+     * @return {@code true} if a permit was acquired, in which case it must be given back through
+     *         {@link #onSuccess()}, {@link #onDropped()} or {@link #release()}.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    synchronized boolean acquire(Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (inFlight >= getLimit()) {
+            long remainingMillis = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            wait(remainingMillis);
+        }
+        inFlight++;
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+        release();
+    }
+
+    synchronized void onDropped() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+        release();
+    }
+
+    /**
+     * Give a permit back without adjusting the limit, for calls that never reached the supplier.
+     */
+    synchronized void release() {
+        inFlight--;
+        limitListener.accept(getLimit());
+        notifyAll();
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
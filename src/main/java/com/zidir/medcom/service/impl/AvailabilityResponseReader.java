@@ -0,0 +1,81 @@
+package com.zidir.medcom.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming reader of supplier availability responses.
+ * <p>
+ * Only the {@code available} flag is extracted, every other field is skipped without being materialized.
+ */
+final class AvailabilityResponseReader {
+
+    private static final String AVAILABLE_FIELD = "available";
+
+    private final JsonFactory jsonFactory;
+
+    AvailabilityResponseReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Read a single product availability, e.g. {@code {"available": true, ...}}.
+     *
+     * @param body the response body.
+     * @return the availability, {@code null} if the response has no boolean {@code available} field.
+     * @throws IOException if the body is not valid JSON.
+     */
+    Boolean readAvailability(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return readAvailableField(parser);
+        }
+    }
+
+    /**
+     * Read a bulk availability response keyed by product code, e.g. {@code {"CODE-1": {"available": true}, ...}}.
+     *
+     * @param body the response body.
+     * @return the availability of each product code present in the response; a value is {@code null} if the
+     *         entry of that code has no boolean {@code available} field.
+     * @throws IOException if the body is not valid JSON.
+     */
+    Map<String, Boolean> readBulkAvailability(InputStream body) throws IOException {
+        Map<String, Boolean> availabilities = new HashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return availabilities;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String productCode = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    availabilities.put(productCode, readAvailableField(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return availabilities;
+    }
+
+    private Boolean readAvailableField(JsonParser parser) throws IOException {
+        Boolean available = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (AVAILABLE_FIELD.equals(fieldName) && value.isBoolean()) {
+                available = value == JsonToken.VALUE_TRUE;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return available;
+    }
+}
@@ -0,0 +1,94 @@
+package com.zidir.medcom.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.zidir.medcom.config.ApplicationProperties;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+/**
+ * Store of the validators ({@code ETag}, {@code Last-Modified}) of the supplier availability of each product code,
+ * sent back in conditional requests so that the supplier can answer {@code 304 Not Modified}.
+ * <p>
+ * Validators live in a Hazelcast map shared by the cluster, for {@code application.supplier-api.validator-ttl-seconds}.
+ * A not-modified answer only saves reading the body: it carries the availability of the last full answer, which is
+ * applied to the watch list items of the code like any other answer.
+ */
+@Service
+public class AvailabilityValidatorStore {
+
+    public static final String VALIDATORS_CACHE = "availabilityValidatorsByProductCode";
+
+    private final ApplicationProperties applicationProperties;
+
+    private final IMap<String, Validators> validators;
+
+    public AvailabilityValidatorStore(ApplicationProperties applicationProperties, HazelcastInstance hazelcastInstance) {
+        this.applicationProperties = applicationProperties;
+        this.validators = hazelcastInstance.getMap(VALIDATORS_CACHE);
+    }
+
+    /**
+     * Get the validators of the last full answer for a product code.
+     *
+     * @param productCode the product code.
+     * @return the validators, {@code null} if unknown or if conditional requests are disabled.
+     */
+    public Validators find(String productCode) {
+        return isEnabled() ? validators.get(productCode) : null;
+    }
+
+    /**
+     * Remember the validators of a full answer for a product code, or forget them if the answer has none.
+     *
+     * @param productCode the product code.
+     * @param etag the {@code ETag} of the answer, may be {@code null}.
+     * @param lastModified the {@code Last-Modified} of the answer, may be {@code null}.
+     * @param available the availability of the answer.
+     */
+    public void store(String productCode, String etag, String lastModified, Boolean available) {
+        if (!isEnabled()) {
+            return;
+        }
+        if ((etag == null && lastModified == null) || available == null) {
+            validators.removeAsync(productCode);
+            return;
+        }
+        validators.setAsync(
+            productCode,
+            new Validators(etag, lastModified, available),
+            applicationProperties.getSupplierApi().getValidatorTtlSeconds(),
+            TimeUnit.SECONDS
+        );
+    }
+
+    private boolean isEnabled() {
+        return applicationProperties.getSupplierApi().getValidatorTtlSeconds() > 0;
+    }
+
+    /**
+     * The validators of a full answer, with the availability it carried.
+     *
+     * @param etag the {@code ETag} of the answer, may be {@code null}.
+     * @param lastModified the {@code Last-Modified} of the answer, may be {@code null}.
+     * @param available the availability of the answer.
+     */
+    public record Validators(String etag, String lastModified, Boolean available) implements Serializable {
+        /**
+         * Add the conditional headers matching these validators to a request.
+         *
+         * @param header the setter of a header of the request.
+         */
+        public void applyTo(BiConsumer<String, String> header) {
+            if (etag != null) {
+                header.accept(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                header.accept(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+}
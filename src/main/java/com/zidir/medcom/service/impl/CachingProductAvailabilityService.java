@@ -0,0 +1,195 @@
+package com.zidir.medcom.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.ProductAvailabilityService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link ProductAvailabilityService} caching the answers of the supplier client per product code.
+ * <p>
+ * Entries live in a Hazelcast map shared by the cluster. Successful answers are kept for
+ * {@code application.supplier-api.cache-ttl-seconds}, failed checks for the shorter
+ * {@code application.supplier-api.negative-cache-ttl-seconds} so that a failing code is not retried on every call.
+ * Placeholder answers and checks rejected by this node's circuit breaker or concurrency limit are never cached: they
+ * say nothing about the supplier's answer and must not stop the other members from asking it. Not-modified answers
+ * are cached as plain answers, since they tell the next callers nothing about their own previous check.
+ */
+@Service
+@Primary
+public class CachingProductAvailabilityService implements ProductAvailabilityService {
+
+    public static final String AVAILABILITY_CACHE = "availabilityByProductCode";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingProductAvailabilityService.class);
+
+    private final ProductAvailabilityService delegate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final AvailabilityMetersService availabilityMetersService;
+
+    private final IMap<String, AvailabilityResult> cache;
+
+    public CachingProductAvailabilityService(
+        @Qualifier("hedgedSupplierClient") ProductAvailabilityService delegate,
+        ApplicationProperties applicationProperties,
+        AvailabilityMetersService availabilityMetersService,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.delegate = delegate;
+        this.applicationProperties = applicationProperties;
+        this.availabilityMetersService = availabilityMetersService;
+        this.cache = hazelcastInstance.getMap(AVAILABILITY_CACHE);
+        // Local listeners, so that each expiration is counted once by the member owning the entry
+        this.cache.addLocalEntryListener(
+            (EntryExpiredListener<String, AvailabilityResult>) event -> availabilityMetersService.trackCacheEviction()
+        );
+        this.cache.addLocalEntryListener(
+            (EntryEvictedListener<String, AvailabilityResult>) event -> availabilityMetersService.trackCacheEviction()
+        );
+    }
+
+    @Override
+    public AvailabilityResult checkProductAvailability(String productCode) {
+        if (!isCacheEnabled()) {
+            return delegate.checkProductAvailability(productCode);
+        }
+
+        AvailabilityResult cached = cache.get(productCode);
+        if (cached != null) {
+            trackHit(cached);
+            return cached;
+        }
+
+        availabilityMetersService.trackCacheMiss();
+        AvailabilityResult result = delegate.checkProductAvailability(productCode);
+        store(productCode, result);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<AvailabilityResult> checkProductAvailabilityAsync(String productCode) {
+        if (!isCacheEnabled()) {
+            return delegate.checkProductAvailabilityAsync(productCode);
+        }
+
+        AvailabilityResult cached = cache.get(productCode);
+        if (cached != null) {
+            trackHit(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        availabilityMetersService.trackCacheMiss();
+        return delegate
+            .checkProductAvailabilityAsync(productCode)
+            .thenApply(result -> {
+                store(productCode, result);
+                return result;
+            });
+    }
+
+    @Override
+    public Map<String, AvailabilityResult> checkProductAvailability(Collection<String> productCodes) {
+        if (!isCacheEnabled()) {
+            return delegate.checkProductAvailability(productCodes);
+        }
+
+        List<String> missingCodes = new ArrayList<>();
+        Map<String, AvailabilityResult> results = findCached(productCodes, missingCodes);
+        if (!missingCodes.isEmpty()) {
+            Map<String, AvailabilityResult> fetched = delegate.checkProductAvailability(missingCodes);
+            fetched.forEach(this::store);
+            results.putAll(fetched);
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, AvailabilityResult>> checkProductAvailabilityAsync(Collection<String> productCodes) {
+        if (!isCacheEnabled()) {
+            return delegate.checkProductAvailabilityAsync(productCodes);
+        }
+
+        List<String> missingCodes = new ArrayList<>();
+        Map<String, AvailabilityResult> results = findCached(productCodes, missingCodes);
+        if (missingCodes.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+        return delegate
+            .checkProductAvailabilityAsync(missingCodes)
+            .thenApply(fetched -> {
+                fetched.forEach(this::store);
+                results.putAll(fetched);
+                return results;
+            });
+    }
+
+    /**
+     * @param missingCodes filled with the product codes not found in the cache.
+     * @return the cached results, in the order of {@code productCodes}.
+     */
+    private Map<String, AvailabilityResult> findCached(Collection<String> productCodes, List<String> missingCodes) {
+        Set<String> codes = new LinkedHashSet<>(productCodes);
+        Map<String, AvailabilityResult> cached = cache.getAll(codes);
+
+        Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+        for (String productCode : codes) {
+            AvailabilityResult result = cached.get(productCode);
+            if (result != null) {
+                trackHit(result);
+                results.put(productCode, result);
+            } else {
+                availabilityMetersService.trackCacheMiss();
+                missingCodes.add(productCode);
+            }
+        }
+        LOG.debug("Availability cache answered {} of {} products", results.size(), codes.size());
+        return results;
+    }
+
+    private boolean isCacheEnabled() {
+        return applicationProperties.getSupplierApi().getCacheTtlSeconds() > 0;
+    }
+
+    private void trackHit(AvailabilityResult result) {
+        if (result.isError()) {
+            availabilityMetersService.trackCacheNegativeHit();
+        } else {
+            availabilityMetersService.trackCacheHit();
+        }
+    }
+
+    private void store(String productCode, AvailabilityResult result) {
+        if (result == null || result.placeholder() || result.rejected()) {
+            return;
+        }
+        int ttlSeconds = result.isError()
+            ? applicationProperties.getSupplierApi().getNegativeCacheTtlSeconds()
+            : applicationProperties.getSupplierApi().getCacheTtlSeconds();
+        if (ttlSeconds > 0) {
+            AvailabilityResult cached = result.notModified()
+                ? AvailabilityResult.of(result.available(), result.checkedAt(), result.latency())
+                : result;
+            cache.setAsync(productCode, cached, ttlSeconds, TimeUnit.SECONDS);
+        }
+    }
+}
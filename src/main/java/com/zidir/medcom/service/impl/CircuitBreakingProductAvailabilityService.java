@@ -0,0 +1,242 @@
+package com.zidir.medcom.service.impl;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.ProductAvailabilityService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link ProductAvailabilityService} protecting the supplier client with a circuit breaker and an adaptive concurrency limit.
+ * <p>
+ * A call is failed when the supplier answers none of its products or when it is slower than
+ * {@code application.supplier-api.circuit-breaker.slow-call-threshold-millis} per product asked. Failed calls open the
+ * {@link SupplierCircuitBreaker} and shrink the {@link AdaptiveConcurrencyLimiter}. Calls refused by either of them
+ * are answered with {@link AvailabilityResult#rejected(String) rejected} results without reaching the supplier,
+ * so the sweep keeps the last known state of those products.
+ */
+@Service
+@Qualifier("guardedSupplierClient")
+public class CircuitBreakingProductAvailabilityService implements ProductAvailabilityService {
+
+    static final String CIRCUIT_OPEN_ERROR = "Supplier API circuit breaker is open";
+
+    static final String CONCURRENCY_LIMIT_ERROR = "Supplier API concurrency limit reached";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakingProductAvailabilityService.class);
+
+    private final ProductAvailabilityService delegate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final AvailabilityMetersService availabilityMetersService;
+
+    private final SupplierCircuitBreaker circuitBreaker;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public CircuitBreakingProductAvailabilityService(
+        @Qualifier("supplierClient") ProductAvailabilityService delegate,
+        ApplicationProperties applicationProperties,
+        AvailabilityMetersService availabilityMetersService
+    ) {
+        this.delegate = delegate;
+        this.applicationProperties = applicationProperties;
+        this.availabilityMetersService = availabilityMetersService;
+
+        ApplicationProperties.SupplierApi.CircuitBreaker circuitBreakerProperties = applicationProperties
+            .getSupplierApi()
+            .getCircuitBreaker();
+        this.circuitBreaker = new SupplierCircuitBreaker(
+            circuitBreakerProperties.getFailureRateThreshold(),
+            circuitBreakerProperties.getSlidingWindowSize(),
+            circuitBreakerProperties.getMinimumCalls(),
+            Duration.ofSeconds(circuitBreakerProperties.getOpenDurationSeconds()),
+            circuitBreakerProperties.getHalfOpenCalls(),
+            Clock.systemUTC(),
+            this::onTransition
+        );
+
+        ApplicationProperties.SupplierApi.ConcurrencyLimit concurrencyLimitProperties = applicationProperties
+            .getSupplierApi()
+            .getConcurrencyLimit();
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+            concurrencyLimitProperties.getInitialLimit(),
+            concurrencyLimitProperties.getMinLimit(),
+            concurrencyLimitProperties.getMaxLimit(),
+            concurrencyLimitProperties.getBackoffRatio(),
+            availabilityMetersService::recordConcurrencyLimit
+        );
+    }
+
+    @Override
+    public AvailabilityResult checkProductAvailability(String productCode) {
+        return guarded(List.of(productCode), () ->
+            Collections.singletonMap(productCode, delegate.checkProductAvailability(productCode))
+        ).get(productCode);
+    }
+
+    @Override
+    public Map<String, AvailabilityResult> checkProductAvailability(Collection<String> productCodes) {
+        return guarded(productCodes, () -> delegate.checkProductAvailability(productCodes));
+    }
+
+    @Override
+    public CompletableFuture<AvailabilityResult> checkProductAvailabilityAsync(String productCode) {
+        // Never wait for a permit here, the caller expects not to be blocked
+        if (!concurrencyLimiter.tryAcquire()) {
+            availabilityMetersService.trackConcurrencyLimitRejection();
+            return CompletableFuture.completedFuture(AvailabilityResult.rejected(CONCURRENCY_LIMIT_ERROR));
+        }
+        long permission = circuitBreaker.tryAcquirePermission();
+        if (permission == SupplierCircuitBreaker.NOT_PERMITTED) {
+            concurrencyLimiter.release();
+            availabilityMetersService.trackCircuitOpenRejection();
+            return CompletableFuture.completedFuture(AvailabilityResult.rejected(CIRCUIT_OPEN_ERROR));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<AvailabilityResult> call;
+        try {
+            call = delegate.checkProductAvailabilityAsync(productCode);
+        } catch (RuntimeException e) {
+            // Give back the permits taken above, or the limiter and the half-open breaker would leak them
+            onCallCompleted(permission, true, start, 1);
+            return CompletableFuture.failedFuture(e);
+        }
+        return call.whenComplete((result, e) ->
+            onCallCompleted(permission, e != null || result == null || result.isError(), start, 1)
+        );
+    }
+
+    @Override
+    public CompletableFuture<Map<String, AvailabilityResult>> checkProductAvailabilityAsync(Collection<String> productCodes) {
+        // Waits for a permit like the blocking calls, but not for the supplier answer
+        Permits permits = acquirePermits();
+        if (permits.rejection() != null) {
+            return CompletableFuture.completedFuture(rejected(productCodes, permits.rejection()));
+        }
+
+        long start = System.nanoTime();
+        int productCount = new LinkedHashSet<>(productCodes).size();
+        long permission = permits.circuitPermission();
+        CompletableFuture<Map<String, AvailabilityResult>> call;
+        try {
+            call = delegate.checkProductAvailabilityAsync(productCodes);
+        } catch (RuntimeException e) {
+            onCallCompleted(permission, true, start, productCount);
+            return CompletableFuture.failedFuture(e);
+        }
+        return call.whenComplete((results, e) ->
+            onCallCompleted(permission, e != null || results == null || isFailed(results), start, productCount)
+        );
+    }
+
+    private Map<String, AvailabilityResult> guarded(Collection<String> productCodes, Supplier<Map<String, AvailabilityResult>> call) {
+        Permits permits = acquirePermits();
+        if (permits.rejection() != null) {
+            return rejected(productCodes, permits.rejection());
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Map<String, AvailabilityResult> results = call.get();
+            failed = isFailed(results);
+            return results;
+        } finally {
+            onCallCompleted(permits.circuitPermission(), failed, start, new LinkedHashSet<>(productCodes).size());
+        }
+    }
+
+    /**
+     * Take a concurrency limit permit, waiting at most the read timeout for one, then a circuit breaker permission.
+     *
+     * @return the circuit breaker permission of the call, or the reason the call is rejected.
+     */
+    private Permits acquirePermits() {
+        boolean acquired;
+        try {
+            acquired = concurrencyLimiter.acquire(Duration.ofMillis(applicationProperties.getSupplierApi().getReadTimeoutMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            availabilityMetersService.trackConcurrencyLimitRejection();
+            return new Permits(SupplierCircuitBreaker.NOT_PERMITTED, CONCURRENCY_LIMIT_ERROR);
+        }
+        long permission = circuitBreaker.tryAcquirePermission();
+        if (permission == SupplierCircuitBreaker.NOT_PERMITTED) {
+            concurrencyLimiter.release();
+            availabilityMetersService.trackCircuitOpenRejection();
+            return new Permits(SupplierCircuitBreaker.NOT_PERMITTED, CIRCUIT_OPEN_ERROR);
+        }
+        return new Permits(permission, null);
+    }
+
+    /**
+     * @param permission the circuit breaker permission of the call.
+     * @param productCount the number of products asked in the call, a bulk call is allowed the slow call threshold per product.
+     */
+    private void onCallCompleted(long permission, boolean failed, long start, int productCount) {
+        Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        long slowCallThresholdMillis = applicationProperties.getSupplierApi().getCircuitBreaker().getSlowCallThresholdMillis();
+        boolean slow = latency.toMillis() > slowCallThresholdMillis * Math.max(1, productCount);
+        if (failed || slow) {
+            circuitBreaker.onFailure(permission);
+            concurrencyLimiter.onDropped();
+        } else {
+            circuitBreaker.onSuccess(permission);
+            concurrencyLimiter.onSuccess();
+        }
+    }
+
+    private void onTransition(SupplierCircuitBreaker.State state) {
+        switch (state) {
+            case OPEN -> {
+                LOG.warn("Supplier API circuit breaker opened, availability checks are short-circuited");
+                availabilityMetersService.trackCircuitOpened();
+            }
+            case HALF_OPEN -> {
+                LOG.info("Supplier API circuit breaker half-open, probing the supplier");
+                availabilityMetersService.trackCircuitHalfOpened();
+            }
+            case CLOSED -> {
+                LOG.info("Supplier API circuit breaker closed");
+                availabilityMetersService.trackCircuitClosed();
+            }
+        }
+    }
+
+    private static boolean isFailed(Map<String, AvailabilityResult> results) {
+        return !results.isEmpty() && results.values().stream().allMatch(result -> result == null || result.isError());
+    }
+
+    private static Map<String, AvailabilityResult> rejected(Collection<String> productCodes, String reason) {
+        Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+        for (String productCode : new LinkedHashSet<>(productCodes)) {
+            results.put(productCode, AvailabilityResult.rejected(reason));
+        }
+        return results;
+    }
+
+    /**
+     * @param circuitPermission the circuit breaker permission of the call, if it is permitted.
+     * @param rejection the reason the call is rejected, {@code null} if it is permitted.
+     */
+    private record Permits(long circuitPermission, String rejection) {}
+}
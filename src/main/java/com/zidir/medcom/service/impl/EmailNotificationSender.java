@@ -0,0 +1,68 @@
+package com.zidir.medcom.service.impl;
+
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.DispatchOutcome;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.PendingNotification;
+import com.zidir.medcom.service.MailService;
+import com.zidir.medcom.service.MailService.NotificationEmail;
+import com.zidir.medcom.service.NotificationChannelSender;
+import com.zidir.medcom.service.NotificationDeliveryException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends {@link NotificationType#EMAIL} notifications to the user, or to the pharmacy when the user has no email.
+ * <p>
+ * Batches are handed to {@link MailService#sendNotificationEmails(List)}, which reuses SMTP connections.
+ */
+@Service
+public class EmailNotificationSender implements NotificationChannelSender {
+
+    private final MailService mailService;
+
+    public EmailNotificationSender(MailService mailService) {
+        this.mailService = mailService;
+    }
+
+    @Override
+    public NotificationType getType() {
+        return NotificationType.EMAIL;
+    }
+
+    @Override
+    public String send(PendingNotification notification) {
+        DispatchOutcome outcome = sendAll(List.of(notification)).get(0);
+        if (!outcome.sent()) {
+            throw new NotificationDeliveryException(outcome.failureReason());
+        }
+        return null;
+    }
+
+    @Override
+    public List<DispatchOutcome> sendAll(List<PendingNotification> notifications) {
+        DispatchOutcome[] outcomes = new DispatchOutcome[notifications.size()];
+        List<NotificationEmail> emails = new ArrayList<>();
+        List<Integer> emailIndexes = new ArrayList<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            PendingNotification notification = notifications.get(i);
+            String to = notification.userEmail() != null ? notification.userEmail() : notification.pharmacyEmail();
+            if (to == null) {
+                outcomes[i] = DispatchOutcome.failed(notification, "No email address for notification " + notification.id());
+                continue;
+            }
+            emails.add(new NotificationEmail(to, notification.userLangKey(), notification.message()));
+            emailIndexes.add(i);
+        }
+
+        List<String> failures = mailService.sendNotificationEmails(emails);
+        for (int i = 0; i < emails.size(); i++) {
+            PendingNotification notification = notifications.get(emailIndexes.get(i));
+            String failure = failures.get(i);
+            outcomes[emailIndexes.get(i)] = failure == null
+                ? DispatchOutcome.sent(notification, null)
+                : DispatchOutcome.failed(notification, failure);
+        }
+        return List.of(outcomes);
+    }
+}
@@ -0,0 +1,26 @@
+package com.zidir.medcom.service.impl;
+
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.PendingNotification;
+import com.zidir.medcom.service.MessagingGateway;
+import com.zidir.medcom.service.NotificationChannelSender;
+import com.zidir.medcom.service.NotificationDeliveryException;
+
+/**
+ * Base class of the senders delivering notifications to the phone of the pharmacy through the {@link MessagingGateway}.
+ */
+abstract class GatewayNotificationSender implements NotificationChannelSender {
+
+    private final MessagingGateway messagingGateway;
+
+    GatewayNotificationSender(MessagingGateway messagingGateway) {
+        this.messagingGateway = messagingGateway;
+    }
+
+    @Override
+    public String send(PendingNotification notification) {
+        if (notification.pharmacyPhone() == null) {
+            throw new NotificationDeliveryException("No phone number for notification " + notification.id());
+        }
+        return messagingGateway.send(getType(), notification.pharmacyPhone(), notification.message());
+    }
+}
@@ -0,0 +1,348 @@
+package com.zidir.medcom.service.impl;
+
+import static com.zidir.medcom.management.AvailabilityMetersService.SUPPLIER_ENDPOINT_BULK;
+import static com.zidir.medcom.management.AvailabilityMetersService.SUPPLIER_ENDPOINT_SINGLE;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.ProductAvailabilityService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link ProductAvailabilityService} hedging the slow calls of the supplier client.
+ * <p>
+ * The latency of the single and bulk endpoints is tracked in a {@link LatencyWindow} each. When
+ * {@code application.supplier-api.hedging.enabled} is set, a call still running after the configured percentile of the
+ * recent latency of its endpoint is sent a second time, and the first usable answer wins. Hedges are capped by a budget of
+ * {@code budget-percent} of the calls, so a supplier slow for everyone does not see its load doubled. The losing request
+ * is not cancelled, blocking requests run until they complete or time out.
+ * <p>
+ * Hedging sits above the {@link CircuitBreakingProductAvailabilityService}, so a hedge takes a concurrency limit permit
+ * and a circuit breaker permission like any other call, and is answered rejected when the supplier is saturated. Blocking
+ * calls are run on the bounded {@code supplierHedgeExecutor} so the caller can return as soon as either request answers.
+ */
+@Service
+@Qualifier("hedgedSupplierClient")
+public class HedgingProductAvailabilityService implements ProductAvailabilityService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HedgingProductAvailabilityService.class);
+
+    private final ProductAvailabilityService delegate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final AvailabilityMetersService availabilityMetersService;
+
+    private final Map<String, LatencyWindow> latencyWindows;
+
+    private final HedgeBudget hedgeBudget;
+
+    private final Executor hedgeExecutor;
+
+    public HedgingProductAvailabilityService(
+        @Qualifier("guardedSupplierClient") ProductAvailabilityService delegate,
+        ApplicationProperties applicationProperties,
+        AvailabilityMetersService availabilityMetersService,
+        @Qualifier("supplierHedgeExecutor") Executor hedgeExecutor
+    ) {
+        this.delegate = delegate;
+        this.applicationProperties = applicationProperties;
+        this.availabilityMetersService = availabilityMetersService;
+
+        ApplicationProperties.SupplierApi.Hedging hedging = applicationProperties.getSupplierApi().getHedging();
+        this.latencyWindows = Map.of(
+            SUPPLIER_ENDPOINT_SINGLE,
+            new LatencyWindow(hedging.getWindowSize(), hedging.getMinSamples()),
+            SUPPLIER_ENDPOINT_BULK,
+            new LatencyWindow(hedging.getWindowSize(), hedging.getMinSamples())
+        );
+        double hedgeRatio = hedging.getBudgetPercent() / 100.0;
+        this.hedgeBudget = new HedgeBudget(hedgeRatio, Math.max(1, Math.floor(hedging.getWindowSize() * hedgeRatio)));
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    @Override
+    public AvailabilityResult checkProductAvailability(String productCode) {
+        if (!isEnabled()) {
+            return timed(
+                SUPPLIER_ENDPOINT_SINGLE,
+                () -> delegate.checkProductAvailability(productCode),
+                HedgingProductAvailabilityService::isRejected
+            );
+        }
+        return join(
+            hedged(
+                SUPPLIER_ENDPOINT_SINGLE,
+                () -> CompletableFuture.supplyAsync(() -> delegate.checkProductAvailability(productCode), hedgeExecutor),
+                HedgingProductAvailabilityService::isFailed,
+                HedgingProductAvailabilityService::isRejected
+            )
+        );
+    }
+
+    @Override
+    public CompletableFuture<AvailabilityResult> checkProductAvailabilityAsync(String productCode) {
+        if (!isEnabled()) {
+            long start = System.nanoTime();
+            return delegate
+                .checkProductAvailabilityAsync(productCode)
+                .whenComplete((result, e) -> recordLatency(SUPPLIER_ENDPOINT_SINGLE, start, true, e == null && isRejected(result)));
+        }
+        return hedged(
+            SUPPLIER_ENDPOINT_SINGLE,
+            () -> delegate.checkProductAvailabilityAsync(productCode),
+            HedgingProductAvailabilityService::isFailed,
+            HedgingProductAvailabilityService::isRejected
+        );
+    }
+
+    @Override
+    public Map<String, AvailabilityResult> checkProductAvailability(Collection<String> productCodes) {
+        if (!isEnabled()) {
+            return timed(
+                SUPPLIER_ENDPOINT_BULK,
+                () -> delegate.checkProductAvailability(productCodes),
+                HedgingProductAvailabilityService::allRejected
+            );
+        }
+        return join(
+            hedged(
+                SUPPLIER_ENDPOINT_BULK,
+                () -> CompletableFuture.supplyAsync(() -> delegate.checkProductAvailability(productCodes), hedgeExecutor),
+                HedgingProductAvailabilityService::allFailed,
+                HedgingProductAvailabilityService::allRejected
+            )
+        );
+    }
+
+    @Override
+    public CompletableFuture<Map<String, AvailabilityResult>> checkProductAvailabilityAsync(Collection<String> productCodes) {
+        if (!isEnabled()) {
+            long start = System.nanoTime();
+            return delegate
+                .checkProductAvailabilityAsync(productCodes)
+                .whenComplete((results, e) -> recordLatency(SUPPLIER_ENDPOINT_BULK, start, true, e == null && allRejected(results)));
+        }
+        return hedged(
+            SUPPLIER_ENDPOINT_BULK,
+            // Sent from the hedge executor, so that a delegate answering before returning is still hedged
+            () ->
+                CompletableFuture.supplyAsync(() -> delegate.checkProductAvailabilityAsync(productCodes), hedgeExecutor).thenCompose(
+                    Function.identity()
+                ),
+            HedgingProductAvailabilityService::allFailed,
+            HedgingProductAvailabilityService::allRejected
+        );
+    }
+
+    private boolean isEnabled() {
+        return applicationProperties.getSupplierApi().getHedging().getEnabled();
+    }
+
+    private <T> T timed(String endpoint, Supplier<T> call, Predicate<T> rejected) {
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = call.get();
+            return result;
+        } finally {
+            recordLatency(endpoint, start, true, result != null && rejected.test(result));
+        }
+    }
+
+    /**
+     * Send a request, and a second one if the first is still running after the hedge delay of its endpoint.
+     *
+     * @param endpoint the endpoint called.
+     * @param call the request, sent once or twice.
+     * @param failed whether an answer is not usable, so the other request is awaited.
+     * @param rejected whether an answer was refused without reaching the supplier, so its latency is not recorded.
+     * @return a future completed with the first usable answer, or with the last answer if none is usable.
+     */
+    private <T> CompletableFuture<T> hedged(
+        String endpoint,
+        Supplier<CompletableFuture<T>> call,
+        Predicate<T> failed,
+        Predicate<T> rejected
+    ) {
+        long start = System.nanoTime();
+        hedgeBudget.onCall();
+        CompletableFuture<T> primary = call
+            .get()
+            .whenComplete((result, e) -> recordLatency(endpoint, start, false, e == null && rejected.test(result)));
+
+        Optional<Duration> hedgeDelay = hedgeDelay(endpoint);
+        if (primary.isDone() || hedgeDelay.isEmpty()) {
+            return primary.whenComplete((result, e) -> availabilityMetersService.recordEffectiveLatency(endpoint, elapsed(start)));
+        }
+
+        Race<T> race = new Race<>(failed, availabilityMetersService::trackHedgeWon);
+        race.enter(primary, false);
+        CompletableFuture.delayedExecutor(hedgeDelay.orElseThrow().toNanos(), TimeUnit.NANOSECONDS, hedgeExecutor).execute(() -> {
+            if (race.winner.isDone()) {
+                return;
+            }
+            if (!hedgeBudget.tryAcquire()) {
+                availabilityMetersService.trackHedgeOverBudget();
+                return;
+            }
+            LOG.debug("Supplier {} call slower than {}, sending a hedge", endpoint, hedgeDelay.orElseThrow());
+            availabilityMetersService.trackHedgeIssued();
+            CompletableFuture<T> hedge;
+            try {
+                hedge = call.get();
+            } catch (RuntimeException e) {
+                hedge = CompletableFuture.failedFuture(e);
+            }
+            race.enter(hedge, true);
+        });
+        return race.winner.whenComplete((result, e) -> availabilityMetersService.recordEffectiveLatency(endpoint, elapsed(start)));
+    }
+
+    private Optional<Duration> hedgeDelay(String endpoint) {
+        ApplicationProperties.SupplierApi.Hedging hedging = applicationProperties.getSupplierApi().getHedging();
+        Duration minDelay = Duration.ofMillis(hedging.getMinDelayMillis());
+        return latencyWindows
+            .get(endpoint)
+            .percentile(hedging.getPercentile())
+            .map(percentile -> percentile.compareTo(minDelay) > 0 ? percentile : minDelay);
+    }
+
+    /**
+     * @param rejected whether the call was refused by the circuit breaker or the concurrency limit, its latency then
+     *        says nothing about the supplier and is not recorded.
+     */
+    private void recordLatency(String endpoint, long start, boolean effective, boolean rejected) {
+        if (rejected) {
+            return;
+        }
+        Duration latency = elapsed(start);
+        latencyWindows.get(endpoint).record(latency);
+        availabilityMetersService.recordPrimaryLatency(endpoint, latency);
+        if (effective) {
+            availabilityMetersService.recordEffectiveLatency(endpoint, latency);
+        }
+    }
+
+    private static Duration elapsed(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static boolean isFailed(AvailabilityResult result) {
+        return result == null || result.isError();
+    }
+
+    private static boolean isRejected(AvailabilityResult result) {
+        return result != null && result.rejected();
+    }
+
+    private static boolean allFailed(Map<String, AvailabilityResult> results) {
+        return !results.isEmpty() && results.values().stream().allMatch(HedgingProductAvailabilityService::isFailed);
+    }
+
+    private static boolean allRejected(Map<String, AvailabilityResult> results) {
+        return !results.isEmpty() && results.values().stream().allMatch(HedgingProductAvailabilityService::isRejected);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The requests of a hedged call, completing {@link #winner} with the first usable answer, or with the last answer once
+     * every request entered has completed without a usable one.
+     */
+    private static final class Race<T> {
+
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+
+        private final Predicate<T> failed;
+
+        private final Runnable onHedgeWon;
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Race(Predicate<T> failed, Runnable onHedgeWon) {
+            this.failed = failed;
+            this.onHedgeWon = onHedgeWon;
+        }
+
+        private void enter(CompletableFuture<T> request, boolean hedge) {
+            running.incrementAndGet();
+            request.whenComplete((result, e) -> {
+                boolean usable = e == null && !failed.test(result);
+                boolean last = running.decrementAndGet() == 0;
+                if (!usable && !last) {
+                    return;
+                }
+                // Settled before completing the winner, so that its callers see the metrics of the race
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+                if (usable && hedge) {
+                    onHedgeWon.run();
+                }
+                if (e != null) {
+                    winner.completeExceptionally(e);
+                } else {
+                    winner.complete(result);
+                }
+            });
+        }
+    }
+
+    /**
+     * Token bucket earning {@code ratio} of a hedge per call, up to {@code capacity} hedges.
+     */
+    private static final class HedgeBudget {
+
+        private final double ratio;
+
+        private final double capacity;
+
+        private double tokens;
+
+        private HedgeBudget(double ratio, double capacity) {
+            this.ratio = ratio;
+            this.capacity = capacity;
+        }
+
+        private synchronized void onCall() {
+            tokens = Math.min(capacity, tokens + ratio);
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.zidir.medcom.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.service.ProductAvailabilityService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import com.zidir.medcom.service.impl.AvailabilityValidatorStore.Validators;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+/**
+ * Non-blocking service implementation for checking product availability via external supplier API.
+ * <p>
+ * Uses the JDK {@link HttpClient}, which negotiates HTTP/2 and multiplexes requests over shared connections.
+ * At most {@code application.supplier-api.max-in-flight-requests} requests are outstanding at any time, the others are
+ * queued and sent as soon as an outstanding request completes.
+ * Single product checks are conditional on the validators of the previous answer, see {@link AvailabilityValidatorStore}.
+ * Enabled by setting {@code application.supplier-api.client} to {@code http-client}.
+ */
+@Service
+@Qualifier("supplierClient")
+@ConditionalOnProperty(prefix = "application.supplier-api", name = "client", havingValue = "http-client")
+public class HttpClientProductAvailabilityService implements ProductAvailabilityService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClientProductAvailabilityService.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final AvailabilityResponseReader responseReader;
+
+    private final HttpClient httpClient;
+
+    private final Semaphore inFlightRequests;
+
+    private final Queue<Runnable> pendingRequests = new ConcurrentLinkedQueue<>();
+
+    private final AvailabilityValidatorStore validatorStore;
+
+    public HttpClientProductAvailabilityService(
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper,
+        AvailabilityValidatorStore validatorStore
+    ) {
+        this.applicationProperties = applicationProperties;
+        this.objectMapper = objectMapper;
+        this.validatorStore = validatorStore;
+        this.responseReader = new AvailabilityResponseReader(objectMapper.getFactory());
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(applicationProperties.getSupplierApi().getConnectTimeoutMillis()))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        this.inFlightRequests = new Semaphore(applicationProperties.getSupplierApi().getMaxInFlightRequests());
+    }
+
+    @Override
+    public AvailabilityResult checkProductAvailability(String productCode) {
+        return checkProductAvailabilityAsync(productCode).join();
+    }
+
+    @Override
+    public CompletableFuture<AvailabilityResult> checkProductAvailabilityAsync(String productCode) {
+        if (!applicationProperties.getSupplierApi().getEnabled()) {
+            LOG.debug("Supplier API is disabled, returning placeholder data for product: {}", productCode);
+            // Placeholder: simulate availability check, random availability for testing
+            return CompletableFuture.completedFuture(AvailabilityResult.placeholder(Math.random() > 0.5));
+        }
+
+        String url = applicationProperties.getSupplierApi().getBaseUrl() + "/products/" + productCode + "/availability";
+        LOG.debug("Checking availability for product {} at URL: {}", productCode, url);
+        HttpRequest.Builder requestBuilder = requestBuilder(url);
+        Validators validators = validatorStore.find(productCode);
+        if (validators != null) {
+            validators.applyTo(requestBuilder::header);
+        }
+        HttpRequest request = requestBuilder.GET().build();
+
+        long start = System.nanoTime();
+        return send(request)
+            .thenApply(response -> {
+                if (validators != null && response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    // The body is not read, the availability of the cached validators is reused
+                    return AvailabilityResult.notModified(validators.available(), Instant.now(), elapsedSince(start));
+                }
+                if (response.statusCode() / 100 != 2) {
+                    LOG.warn("Unexpected response from supplier API for product {}: {}", productCode, response.statusCode());
+                    return AvailabilityResult.failed("Unexpected response from supplier API", Instant.now(), elapsedSince(start));
+                }
+                Boolean available = readAvailability(response.body());
+                validatorStore.store(
+                    productCode,
+                    response.headers().firstValue(HttpHeaders.ETAG).orElse(null),
+                    response.headers().firstValue(HttpHeaders.LAST_MODIFIED).orElse(null),
+                    available
+                );
+                return AvailabilityResult.of(available, Instant.now(), elapsedSince(start));
+            })
+            .exceptionally(e -> {
+                LOG.error("Error checking availability for product {}: {}", productCode, e.getMessage());
+                return AvailabilityResult.failed(e.getMessage(), Instant.now(), elapsedSince(start));
+            });
+    }
+
+    @Override
+    public Map<String, AvailabilityResult> checkProductAvailability(Collection<String> productCodes) {
+        return checkProductAvailabilityAsync(productCodes).join();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, AvailabilityResult>> checkProductAvailabilityAsync(Collection<String> productCodes) {
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(productCodes));
+        int batchSize = applicationProperties.getSupplierApi().getBatchSize();
+
+        List<CompletableFuture<Map<String, AvailabilityResult>>> chunks = new ArrayList<>();
+        if (!applicationProperties.getSupplierApi().getEnabled() || batchSize <= 1) {
+            chunks.add(checkEachProductAvailability(codes));
+        } else {
+            for (int from = 0; from < codes.size(); from += batchSize) {
+                chunks.add(checkProductAvailabilityChunk(codes.subList(from, Math.min(from + batchSize, codes.size()))));
+            }
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+            chunks.forEach(chunk -> results.putAll(chunk.join()));
+            return results;
+        });
+    }
+
+    private CompletableFuture<Map<String, AvailabilityResult>> checkProductAvailabilityChunk(List<String> productCodes) {
+        String url = applicationProperties.getSupplierApi().getBaseUrl() + "/products/availability";
+        LOG.debug("Checking availability for {} products at URL: {}", productCodes.size(), url);
+
+        HttpRequest request;
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("codes", productCodes));
+            request = requestBuilder(url)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.completedFuture(failAll(productCodes, e.getMessage(), Duration.ZERO));
+        }
+
+        long start = System.nanoTime();
+        return send(request)
+            .thenCompose(response -> {
+                if (ProductAvailabilityServiceImpl.BULK_UNSUPPORTED_STATUSES.contains(response.statusCode())) {
+                    LOG.warn("Supplier bulk API unsupported ({}), falling back to per-product checks", response.statusCode());
+                    return checkEachProductAvailability(productCodes);
+                }
+                if (response.statusCode() / 100 != 2) {
+                    LOG.warn("Unexpected response from supplier bulk API: {}", response.statusCode());
+                    return CompletableFuture.completedFuture(
+                        failAll(productCodes, "Unexpected response from supplier bulk API", elapsedSince(start))
+                    );
+                }
+                Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+                Map<String, Boolean> availabilities = readBulkAvailability(response.body());
+                Instant checkedAt = Instant.now();
+                Duration latency = elapsedSince(start);
+                for (String productCode : productCodes) {
+                    if (availabilities.containsKey(productCode)) {
+                        results.put(productCode, AvailabilityResult.of(availabilities.get(productCode), checkedAt, latency));
+                    }
+                }
+                LOG.debug("Bulk availability request answered {} of {} products", results.size(), productCodes.size());
+                // Codes the supplier did not answer are retried by the scheduler, not sent one by one
+                List<String> missingCodes = productCodes.stream().filter(productCode -> !results.containsKey(productCode)).toList();
+                results.putAll(failAll(missingCodes, ProductAvailabilityServiceImpl.NOT_IN_BULK_ANSWER_ERROR, latency));
+                return CompletableFuture.completedFuture(results);
+            })
+            .exceptionally(e -> {
+                // A timeout or I/O error must not turn into one more request per code to a struggling supplier
+                LOG.warn("Bulk availability request failed for {} products: {}", productCodes.size(), e.getMessage());
+                return failAll(productCodes, e.getMessage(), elapsedSince(start));
+            });
+    }
+
+    private static Map<String, AvailabilityResult> failAll(List<String> productCodes, String error, Duration latency) {
+        Instant failedAt = Instant.now();
+        Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+        productCodes.forEach(productCode -> results.put(productCode, AvailabilityResult.failed(error, failedAt, latency)));
+        return results;
+    }
+
+    private CompletableFuture<Map<String, AvailabilityResult>> checkEachProductAvailability(List<String> productCodes) {
+        Map<String, CompletableFuture<AvailabilityResult>> futures = new LinkedHashMap<>();
+        productCodes.forEach(productCode -> futures.put(productCode, checkProductAvailabilityAsync(productCode)));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+            futures.forEach((productCode, future) -> results.put(productCode, future.join()));
+            return results;
+        });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request) {
+        // Requests beyond the in-flight limit wait in a queue, never blocking the caller or the client threads
+        CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+        pendingRequests.add(() -> {
+            try {
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((result, e) -> {
+                    onRequestCompleted();
+                    if (e != null) {
+                        response.completeExceptionally(e);
+                    } else {
+                        response.complete(result);
+                    }
+                });
+            } catch (RuntimeException e) {
+                onRequestCompleted();
+                response.completeExceptionally(e);
+            }
+        });
+        startPendingRequests();
+        return response;
+    }
+
+    private void onRequestCompleted() {
+        inFlightRequests.release();
+        startPendingRequests();
+    }
+
+    private void startPendingRequests() {
+        while (!pendingRequests.isEmpty() && inFlightRequests.tryAcquire()) {
+            Runnable request = pendingRequests.poll();
+            if (request == null) {
+                // Started by a concurrent caller in the meantime
+                inFlightRequests.release();
+            } else {
+                request.run();
+            }
+        }
+    }
+
+    private HttpRequest.Builder requestBuilder(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofMillis(applicationProperties.getSupplierApi().getReadTimeoutMillis()))
+            .header("Accept", "application/json");
+    }
+
+    private Boolean readAvailability(byte[] body) {
+        try {
+            return responseReader.readAvailability(new ByteArrayInputStream(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<String, Boolean> readBulkAvailability(byte[] body) {
+        try {
+            return responseReader.readBulkAvailability(new ByteArrayInputStream(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Duration elapsedSince(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,50 @@
+package com.zidir.medcom.service.impl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Sliding window of the latencies of the last {@code windowSize} calls to a supplier endpoint.
+ * <p>
+ * Percentiles are computed on demand with the nearest-rank method, and only once {@code minSamples} latencies were recorded.
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+
+    private final int minSamples;
+
+    private int next;
+
+    private int size;
+
+    LatencyWindow(int windowSize, int minSamples) {
+        this.samples = new long[Math.max(1, windowSize)];
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length));
+    }
+
+    synchronized void record(Duration latency) {
+        samples[next] = latency.toNanos();
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100.
+     * @return the latency below which {@code percentile} percent of the recorded calls completed, empty while the window
+     *         holds fewer than {@code minSamples} latencies.
+     */
+    Optional<Duration> percentile(int percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (size < minSamples) {
+                return Optional.empty();
+            }
+            sorted = Arrays.copyOf(samples, size);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * sorted.length);
+        return Optional.of(Duration.ofNanos(sorted[Math.max(0, rank - 1)]));
+    }
+}
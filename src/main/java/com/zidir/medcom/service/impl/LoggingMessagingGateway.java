@@ -0,0 +1,26 @@
+package com.zidir.medcom.service.impl;
+
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import com.zidir.medcom.service.MessagingGateway;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Local {@link MessagingGateway} stub which only logs the messages, used until a real provider is configured.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.notification-dispatch", name = "gateway", havingValue = "log", matchIfMissing = true)
+public class LoggingMessagingGateway implements MessagingGateway {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoggingMessagingGateway.class);
+
+    @Override
+    public String send(NotificationType channel, String phoneNumber, String message) {
+        String messageId = UUID.randomUUID().toString();
+        LOG.info("Sending {} message {} to '{}': {}", channel, messageId, phoneNumber, message);
+        return messageId;
+    }
+}
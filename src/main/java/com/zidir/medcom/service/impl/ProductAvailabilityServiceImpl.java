@@ -1,72 +1,214 @@
 package com.zidir.medcom.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zidir.medcom.config.ApplicationProperties;
 import com.zidir.medcom.service.ProductAvailabilityService;
-import java.util.HashMap;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import com.zidir.medcom.service.impl.AvailabilityValidatorStore.Validators;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Service implementation for checking product availability via external supplier API.
+ * <p>
+ * Supplier responses are streamed through an {@link AvailabilityResponseReader} instead of being bound to maps.
+ * Single product checks are conditional on the validators of the previous answer, see {@link AvailabilityValidatorStore}.
+ * This blocking implementation is used unless {@code application.supplier-api.client} is set to {@code http-client}.
  */
 @Service
+@Qualifier("supplierClient")
+@ConditionalOnProperty(prefix = "application.supplier-api", name = "client", havingValue = "rest-template", matchIfMissing = true)
 public class ProductAvailabilityServiceImpl implements ProductAvailabilityService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProductAvailabilityServiceImpl.class);
 
+    /**
+     * Statuses telling that the supplier has no bulk endpoint, its products are then checked one by one.
+     */
+    static final Set<Integer> BULK_UNSUPPORTED_STATUSES = Set.of(
+        HttpStatus.NOT_FOUND.value(),
+        HttpStatus.METHOD_NOT_ALLOWED.value(),
+        HttpStatus.NOT_IMPLEMENTED.value()
+    );
+
+    static final String NOT_IN_BULK_ANSWER_ERROR = "Not in the supplier bulk answer";
+
     private final RestTemplate restTemplate;
 
     private final ApplicationProperties applicationProperties;
 
-    public ProductAvailabilityServiceImpl(RestTemplate restTemplate, ApplicationProperties applicationProperties) {
+    private final AvailabilityResponseReader responseReader;
+
+    private final AvailabilityValidatorStore validatorStore;
+
+    public ProductAvailabilityServiceImpl(
+        RestTemplate restTemplate,
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper,
+        AvailabilityValidatorStore validatorStore
+    ) {
         this.restTemplate = restTemplate;
         this.applicationProperties = applicationProperties;
+        this.responseReader = new AvailabilityResponseReader(objectMapper.getFactory());
+        this.validatorStore = validatorStore;
     }
 
     @Override
-    public Map<String, Object> checkProductAvailability(String productCode) {
-        Map<String, Object> result = new HashMap<>();
-
+    public AvailabilityResult checkProductAvailability(String productCode) {
         if (!applicationProperties.getSupplierApi().getEnabled()) {
             LOG.debug("Supplier API is disabled, returning placeholder data for product: {}", productCode);
             // Placeholder: simulate availability check
-            result.put("available", Math.random() > 0.5); // Random availability for testing
-            result.put("placeholder", true);
-            return result;
+            return AvailabilityResult.placeholder(Math.random() > 0.5); // Random availability for testing
         }
 
+        long start = System.nanoTime();
         try {
             String url = applicationProperties.getSupplierApi().getBaseUrl() + "/products/" + productCode + "/availability";
             LOG.debug("Checking availability for product {} at URL: {}", productCode, url);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Accept", "application/json");
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+            HttpHeaders headers = jsonHeaders();
+            Validators validators = validatorStore.find(productCode);
+            if (validators != null) {
+                validators.applyTo(headers::set);
+            }
+
+            AvailabilityResult result = restTemplate.execute(
+                url,
+                HttpMethod.GET,
+                restTemplate.httpEntityCallback(new HttpEntity<>(headers)),
+                response -> {
+                    if (validators != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        // The body is not read, the availability of the cached validators is reused
+                        return AvailabilityResult.notModified(validators.available(), Instant.now(), elapsedSince(start));
+                    }
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        LOG.warn("Unexpected response from supplier API for product {}: {}", productCode, response.getStatusCode());
+                        return AvailabilityResult.failed("Unexpected response from supplier API", Instant.now(), elapsedSince(start));
+                    }
+                    Boolean available = responseReader.readAvailability(response.getBody());
+                    validatorStore.store(
+                        productCode,
+                        response.getHeaders().getETag(),
+                        response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED),
+                        available
+                    );
+                    return AvailabilityResult.of(available, Instant.now(), elapsedSince(start));
+                }
+            );
+            LOG.debug("Successfully retrieved availability for product {}: {}", productCode, result.available());
+            return result;
+        } catch (RestClientException e) {
+            LOG.error("Error checking availability for product {}: {}", productCode, e.getMessage());
+            return AvailabilityResult.failed(e.getMessage(), Instant.now(), elapsedSince(start));
+        }
+    }
+
+    @Override
+    public Map<String, AvailabilityResult> checkProductAvailability(Collection<String> productCodes) {
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(productCodes));
+        Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+        int batchSize = applicationProperties.getSupplierApi().getBatchSize();
+
+        if (!applicationProperties.getSupplierApi().getEnabled() || batchSize <= 1) {
+            codes.forEach(code -> results.put(code, checkProductAvailability(code)));
+            return results;
+        }
+
+        for (int from = 0; from < codes.size(); from += batchSize) {
+            results.putAll(checkProductAvailabilityChunk(codes.subList(from, Math.min(from + batchSize, codes.size()))));
+        }
+        return results;
+    }
+
+    /**
+     * Check a chunk of product codes with one bulk request. The codes are checked one by one only if the supplier has
+     * no bulk endpoint: after a timeout or a server error, the supplier is not sent one more request per code, the codes
+     * get failed results that the guarding layer counts and the scheduler retries.
+     */
+    private Map<String, AvailabilityResult> checkProductAvailabilityChunk(List<String> productCodes) {
+        Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+
+        long start = System.nanoTime();
+        String error = NOT_IN_BULK_ANSWER_ERROR;
+        try {
+            String url = applicationProperties.getSupplierApi().getBaseUrl() + "/products/availability";
+            LOG.debug("Checking availability for {} products at URL: {}", productCodes.size(), url);
+
+            HttpHeaders headers = jsonHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("codes", productCodes), headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
+            Map<String, Boolean> availabilities = restTemplate.execute(
+                url,
+                HttpMethod.POST,
+                restTemplate.httpEntityCallback(entity),
+                response -> {
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        LOG.warn("Unexpected response from supplier bulk API: {}", response.getStatusCode());
+                        return Map.of();
+                    }
+                    return responseReader.readBulkAvailability(response.getBody());
+                }
+            );
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                result = response.getBody();
-                LOG.debug("Successfully retrieved availability for product {}: {}", productCode, result.get("available"));
-            } else {
-                LOG.warn("Unexpected response from supplier API for product {}: {}", productCode, response.getStatusCode());
-                result.put("available", false);
-                result.put("error", "Unexpected response from supplier API");
+            Instant checkedAt = Instant.now();
+            Duration latency = elapsedSince(start);
+            for (String productCode : productCodes) {
+                if (availabilities.containsKey(productCode)) {
+                    results.put(productCode, AvailabilityResult.of(availabilities.get(productCode), checkedAt, latency));
+                }
             }
+            LOG.debug("Bulk availability request answered {} of {} products", results.size(), productCodes.size());
         } catch (RestClientException e) {
-            LOG.error("Error checking availability for product {}: {}", productCode, e.getMessage());
-            result.put("available", false);
-            result.put("error", e.getMessage());
+            if (
+                e instanceof HttpStatusCodeException statusException &&
+                BULK_UNSUPPORTED_STATUSES.contains(statusException.getStatusCode().value())
+            ) {
+                LOG.warn("Supplier bulk API unsupported ({}), falling back to per-product checks", statusException.getStatusCode());
+                productCodes.forEach(productCode -> results.put(productCode, checkProductAvailability(productCode)));
+                return results;
+            }
+            LOG.warn("Bulk availability request failed for {} products: {}", productCodes.size(), e.getMessage());
+            error = e.getMessage();
+        }
+
+        Instant failedAt = Instant.now();
+        Duration latency = elapsedSince(start);
+        for (String productCode : productCodes) {
+            if (!results.containsKey(productCode)) {
+                results.put(productCode, AvailabilityResult.failed(error, failedAt, latency));
+            }
         }
+        return results;
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", "application/json");
+        return headers;
+    }
 
-        return result;
+    private static Duration elapsedSince(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
     }
 }
@@ -0,0 +1,21 @@
+package com.zidir.medcom.service.impl;
+
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import com.zidir.medcom.service.MessagingGateway;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends {@link NotificationType#SMS} notifications.
+ */
+@Service
+public class SmsNotificationSender extends GatewayNotificationSender {
+
+    public SmsNotificationSender(MessagingGateway messagingGateway) {
+        super(messagingGateway);
+    }
+
+    @Override
+    public NotificationType getType() {
+        return NotificationType.SMS;
+    }
+}
@@ -0,0 +1,183 @@
+package com.zidir.medcom.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Count-based circuit breaker guarding the supplier API.
+ * <p>
+ * The breaker opens once the share of failed calls among the last {@code slidingWindowSize} calls reaches
+ * {@code failureRateThreshold} percent. While open, no call is permitted until {@code openDuration} has elapsed;
+ * the breaker then lets {@code halfOpenCalls} probe calls through and closes again if all of them succeed.
+ * <p>
+ * Each permission carries the generation of the breaker, incremented on every transition. Outcomes are only counted
+ * for permissions of the current generation, so that a slow call permitted before a transition neither closes nor
+ * reopens the breaker.
+ */
+final class SupplierCircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private final int failureRateThreshold;
+
+    private final int minimumCalls;
+
+    private final Duration openDuration;
+
+    private final int halfOpenCalls;
+
+    private final Clock clock;
+
+    /**
+     * Returned by {@link #tryAcquirePermission()} when the call is not permitted.
+     */
+    static final long NOT_PERMITTED = -1;
+
+    private final Consumer<State> transitionListener;
+
+    private final boolean[] window;
+
+    private int windowIndex;
+
+    private int windowCount;
+
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+
+    private long generation;
+
+    private Instant openedAt;
+
+    private int halfOpenPermits;
+
+    private int halfOpenSuccesses;
+
+    SupplierCircuitBreaker(
+        int failureRateThreshold,
+        int slidingWindowSize,
+        int minimumCalls,
+        Duration openDuration,
+        int halfOpenCalls,
+        Clock clock,
+        Consumer<State> transitionListener
+    ) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDuration = openDuration;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        this.transitionListener = transitionListener;
+        this.window = new boolean[Math.max(1, slidingWindowSize)];
+    }
+
+    /**
+     * Whether a call may be sent to the supplier. Moves an open breaker to half-open once its open duration has elapsed.
+     *
+     * @return the permission of the call, to pass with its outcome, or {@link #NOT_PERMITTED}.
+     */
+    synchronized long tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return NOT_PERMITTED;
+            }
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return NOT_PERMITTED;
+            }
+            halfOpenPermits--;
+        }
+        return generation;
+    }
+
+    /**
+     * @param permission the permission of the call, as returned by {@link #tryAcquirePermission()}.
+     */
+    synchronized void onSuccess(long permission) {
+        if (permission != generation) {
+            // Late answer of a call permitted before the last transition
+            return;
+        }
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                if (++halfOpenSuccesses >= halfOpenCalls) {
+                    resetWindow();
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // No call is permitted while open
+            }
+        }
+    }
+
+    /**
+     * @param permission the permission of the call, as returned by {@link #tryAcquirePermission()}.
+     */
+    synchronized void onFailure(long permission) {
+        if (permission != generation) {
+            // Late answer of a call permitted before the last transition
+            return;
+        }
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {
+                // No call is permitted while open
+            }
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    private void open() {
+        openedAt = clock.instant();
+        resetWindow();
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        transitionListener.accept(newState);
+    }
+}
@@ -4,6 +4,7 @@ import com.zidir.medcom.domain.Notification;
 import com.zidir.medcom.domain.Pharmacy;
 import com.zidir.medcom.domain.User;
 import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.repository.NotificationRepository.NotificationView;
 import com.zidir.medcom.service.dto.NotificationDTO;
 import com.zidir.medcom.service.dto.PharmacyDTO;
 import com.zidir.medcom.service.dto.UserDTO;
@@ -20,6 +21,11 @@ public interface NotificationMapper extends EntityMapper<NotificationDTO, Notifi
     @Mapping(target = "watchListItem", source = "watchListItem", qualifiedByName = "watchListItemId")
     NotificationDTO toDto(Notification s);
 
+    @Mapping(target = "pharmacy", source = "pharmacyId", qualifiedByName = "pharmacyFromId")
+    @Mapping(target = "user", source = ".", qualifiedByName = "userFromView")
+    @Mapping(target = "watchListItem", source = "watchListItemId", qualifiedByName = "watchListItemFromId")
+    NotificationDTO toDto(NotificationView s);
+
     @Named("pharmacyId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -35,4 +41,35 @@ public interface NotificationMapper extends EntityMapper<NotificationDTO, Notifi
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
     WatchListItemDTO toDtoWatchListItemId(WatchListItem watchListItem);
+
+    @Named("pharmacyFromId")
+    default PharmacyDTO toDtoPharmacyFromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        PharmacyDTO pharmacyDTO = new PharmacyDTO();
+        pharmacyDTO.setId(id);
+        return pharmacyDTO;
+    }
+
+    @Named("userFromView")
+    default UserDTO toDtoUserFromView(NotificationView view) {
+        if (view.getUserId() == null) {
+            return null;
+        }
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(view.getUserId());
+        userDTO.setLogin(view.getUserLogin());
+        return userDTO;
+    }
+
+    @Named("watchListItemFromId")
+    default WatchListItemDTO toDtoWatchListItemFromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        WatchListItemDTO watchListItemDTO = new WatchListItemDTO();
+        watchListItemDTO.setId(id);
+        return watchListItemDTO;
+    }
 }
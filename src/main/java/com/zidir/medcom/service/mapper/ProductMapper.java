@@ -1,6 +1,7 @@
 package com.zidir.medcom.service.mapper;
 
 import com.zidir.medcom.domain.Product;
+import com.zidir.medcom.repository.ProductRepository.ProductView;
 import com.zidir.medcom.service.dto.ProductDTO;
 import org.mapstruct.*;
 
@@ -8,4 +9,6 @@ import org.mapstruct.*;
  * Mapper for the entity {@link Product} and its DTO {@link ProductDTO}.
  */
 @Mapper(componentModel = "spring")
-public interface ProductMapper extends EntityMapper<ProductDTO, Product> {}
+public interface ProductMapper extends EntityMapper<ProductDTO, Product> {
+    ProductDTO toDto(ProductView s);
+}
@@ -4,6 +4,7 @@ import com.zidir.medcom.domain.Pharmacy;
 import com.zidir.medcom.domain.Product;
 import com.zidir.medcom.domain.User;
 import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.repository.WatchListItemRepository.WatchListItemView;
 import com.zidir.medcom.service.dto.PharmacyDTO;
 import com.zidir.medcom.service.dto.ProductDTO;
 import com.zidir.medcom.service.dto.UserDTO;
@@ -20,6 +21,11 @@ public interface WatchListItemMapper extends EntityMapper<WatchListItemDTO, Watc
     @Mapping(target = "createdBy", source = "createdBy", qualifiedByName = "userLogin")
     WatchListItemDTO toDto(WatchListItem s);
 
+    @Mapping(target = "product", source = "productId", qualifiedByName = "productFromId")
+    @Mapping(target = "pharmacy", source = "pharmacyId", qualifiedByName = "pharmacyFromId")
+    @Mapping(target = "createdBy", source = ".", qualifiedByName = "createdByFromView")
+    WatchListItemDTO toDto(WatchListItemView s);
+
     @Named("productId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -35,4 +41,35 @@ public interface WatchListItemMapper extends EntityMapper<WatchListItemDTO, Watc
     @Mapping(target = "id", source = "id")
     @Mapping(target = "login", source = "login")
     UserDTO toDtoUserLogin(User user);
+
+    @Named("productFromId")
+    default ProductDTO toDtoProductFromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setId(id);
+        return productDTO;
+    }
+
+    @Named("pharmacyFromId")
+    default PharmacyDTO toDtoPharmacyFromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        PharmacyDTO pharmacyDTO = new PharmacyDTO();
+        pharmacyDTO.setId(id);
+        return pharmacyDTO;
+    }
+
+    @Named("createdByFromView")
+    default UserDTO toDtoCreatedByFromView(WatchListItemView view) {
+        if (view.getCreatedById() == null) {
+            return null;
+        }
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(view.getCreatedById());
+        userDTO.setLogin(view.getCreatedByLogin());
+        return userDTO;
+    }
 }
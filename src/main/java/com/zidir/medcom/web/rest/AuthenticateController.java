@@ -2,6 +2,7 @@ package com.zidir.medcom.web.rest;
 
 import static com.zidir.medcom.security.SecurityUtils.AUTHORITIES_CLAIM;
 import static com.zidir.medcom.security.SecurityUtils.JWT_ALGORITHM;
+import static com.zidir.medcom.security.SecurityUtils.PHARMACY_ID_CLAIM;
 import static com.zidir.medcom.security.SecurityUtils.USER_ID_CLAIM;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -99,6 +100,9 @@ public class AuthenticateController {
             .claim(AUTHORITIES_CLAIM, authorities);
         if (authentication.getPrincipal() instanceof UserWithId user) {
             builder.claim(USER_ID_CLAIM, user.getId());
+            if (user.getPharmacyId() != null) {
+                builder.claim(PHARMACY_ID_CLAIM, user.getPharmacyId());
+            }
         }
 
         JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
@@ -2,6 +2,7 @@ package com.zidir.medcom.web.rest;
 
 import com.zidir.medcom.repository.NotificationRepository;
 import com.zidir.medcom.service.NotificationService;
+import com.zidir.medcom.service.dto.NotificationCursor;
 import com.zidir.medcom.service.dto.NotificationDTO;
 import com.zidir.medcom.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
@@ -16,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -35,6 +37,8 @@ public class NotificationResource {
 
     private static final String ENTITY_NAME = "notification";
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -236,6 +240,83 @@ public class NotificationResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /notifications/my?limit=:limit&after=:after} : get a page of the notifications of the current user,
+     * newest first. Unlike the offset variant, pages are fetched in constant time and never counted.
+     *
+     * @param limit the maximum number of notifications to return.
+     * @param after the cursor of the page, as returned in the {@code X-Next-Cursor} header of the previous page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of notifications in body.
+     */
+    @GetMapping(value = "/my", params = "limit")
+    public ResponseEntity<List<NotificationDTO>> getMyNotificationsAfter(
+        @RequestParam("limit") int limit,
+        @RequestParam(name = "after", required = false) String after
+    ) {
+        LOG.debug("REST request to get current user's notifications after {}", after);
+        return feedResponse(notificationService.findByCurrentUser(parseCursor(after), limit));
+    }
+
+    /**
+     * {@code GET  /notifications/my-pharmacy?limit=:limit&after=:after} : get a page of the notifications of the
+     * current user's pharmacy, newest first.
+     *
+     * @param limit the maximum number of notifications to return.
+     * @param after the cursor of the page, as returned in the {@code X-Next-Cursor} header of the previous page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of notifications in body.
+     */
+    @GetMapping(value = "/my-pharmacy", params = "limit")
+    public ResponseEntity<List<NotificationDTO>> getMyPharmacyNotificationsAfter(
+        @RequestParam("limit") int limit,
+        @RequestParam(name = "after", required = false) String after
+    ) {
+        LOG.debug("REST request to get current user's pharmacy notifications after {}", after);
+        return feedResponse(notificationService.findByCurrentUserPharmacy(parseCursor(after), limit));
+    }
+
+    /**
+     * {@code GET  /notifications/unread?limit=:limit&after=:after} : get a page of the unread notifications of the
+     * current user, newest first.
+     *
+     * @param limit the maximum number of notifications to return.
+     * @param after the cursor of the page, as returned in the {@code X-Next-Cursor} header of the previous page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of unread notifications in body.
+     */
+    @GetMapping(value = "/unread", params = "limit")
+    public ResponseEntity<List<NotificationDTO>> getUnreadNotificationsAfter(
+        @RequestParam("limit") int limit,
+        @RequestParam(name = "after", required = false) String after
+    ) {
+        LOG.debug("REST request to get unread notifications for current user after {}", after);
+        return feedResponse(notificationService.findUnreadByCurrentUser(parseCursor(after), limit));
+    }
+
+    /**
+     * The cursor of the next page is the {@link NotificationCursor} of the last notification, sent in the
+     * {@code X-Next-Cursor} header and in a {@code Link} header, only when there is a next page.
+     */
+    private ResponseEntity<List<NotificationDTO>> feedResponse(Slice<NotificationDTO> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            String cursor = NotificationCursor.of(page.getContent().get(page.getNumberOfElements() - 1)).toString();
+            String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", cursor).toUriString();
+            headers.add(NEXT_CURSOR_HEADER, cursor);
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private static NotificationCursor parseCursor(String after) {
+        if (after == null) {
+            return null;
+        }
+        try {
+            return NotificationCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
     /**
      * {@code GET  /notifications/unread/count} : count unread notifications for the current user.
      *
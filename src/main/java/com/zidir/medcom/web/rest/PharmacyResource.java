@@ -1,9 +1,8 @@
 package com.zidir.medcom.web.rest;
 
-import com.zidir.medcom.domain.User;
 import com.zidir.medcom.repository.PharmacyRepository;
-import com.zidir.medcom.repository.UserRepository;
-import com.zidir.medcom.security.SecurityUtils;
+import com.zidir.medcom.service.CurrentUserService;
+import com.zidir.medcom.service.CurrentUserService.CurrentUser;
 import com.zidir.medcom.service.PharmacyService;
 import com.zidir.medcom.service.dto.PharmacyDTO;
 import com.zidir.medcom.web.rest.errors.BadRequestAlertException;
@@ -44,12 +43,12 @@ public class PharmacyResource {
 
     private final PharmacyRepository pharmacyRepository;
 
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
 
-    public PharmacyResource(PharmacyService pharmacyService, PharmacyRepository pharmacyRepository, UserRepository userRepository) {
+    public PharmacyResource(PharmacyService pharmacyService, PharmacyRepository pharmacyRepository, CurrentUserService currentUserService) {
         this.pharmacyService = pharmacyService;
         this.pharmacyRepository = pharmacyRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
     }
 
     /**
@@ -58,13 +57,8 @@ public class PharmacyResource {
      * @return the current user
      * @throws BadRequestAlertException if user is not authenticated or not found
      */
-    private User getCurrentUser() {
-        String login = SecurityUtils.getCurrentUserLogin()
-            .orElseThrow(() -> new BadRequestAlertException("User not authenticated", ENTITY_NAME, "notauthenticated"));
-
-        return userRepository
-            .findOneByLogin(login)
-            .orElseThrow(() -> new BadRequestAlertException("User not found", ENTITY_NAME, "usernotfound"));
+    private CurrentUser getCurrentUser() {
+        return currentUserService.getCurrentUser(ENTITY_NAME);
     }
 
     /**
@@ -74,13 +68,26 @@ public class PharmacyResource {
      * @throws AccessDeniedException if user cannot access the pharmacy
      */
     private void checkPharmacyAccess(Long pharmacyId) {
-        User currentUser = getCurrentUser();
+        checkPharmacyAccess(pharmacyId, getCurrentUser());
+    }
+
+    /**
+     * Check if the current user can update a pharmacy, using the pharmacy stored in the database rather than the one of
+     * the token, which is stale until the token expires if the user was moved to another pharmacy.
+     *
+     * @param pharmacyId the pharmacy id to check
+     * @throws AccessDeniedException if user cannot update the pharmacy
+     */
+    private void checkPharmacyWriteAccess(Long pharmacyId) {
+        checkPharmacyAccess(pharmacyId, currentUserService.getCurrentUserFromDatabase(ENTITY_NAME));
+    }
 
-        if (currentUser.getPharmacy() == null) {
+    private static void checkPharmacyAccess(Long pharmacyId, CurrentUser currentUser) {
+        if (!currentUser.hasPharmacy()) {
             throw new BadRequestAlertException("User has no pharmacy", ENTITY_NAME, "nopharmacy");
         }
 
-        if (!currentUser.getPharmacy().getId().equals(pharmacyId)) {
+        if (!currentUser.pharmacyId().equals(pharmacyId)) {
             throw new AccessDeniedException("User can only access their own pharmacy");
         }
     }
@@ -136,7 +143,7 @@ public class PharmacyResource {
         }
 
         // Check that user can only update their own pharmacy
-        checkPharmacyAccess(id);
+        checkPharmacyWriteAccess(id);
 
         pharmacyDTO = pharmacyService.update(pharmacyDTO);
         return ResponseEntity.ok()
@@ -174,7 +181,7 @@ public class PharmacyResource {
         }
 
         // Check that user can only update their own pharmacy
-        checkPharmacyAccess(id);
+        checkPharmacyWriteAccess(id);
 
         Optional<PharmacyDTO> result = pharmacyService.partialUpdate(pharmacyDTO);
 
@@ -194,13 +201,13 @@ public class PharmacyResource {
     @GetMapping("")
     public ResponseEntity<List<PharmacyDTO>> getAllPharmacies(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         LOG.debug("REST request to get current user's pharmacy");
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUser();
 
-        if (currentUser.getPharmacy() == null) {
+        if (!currentUser.hasPharmacy()) {
             throw new BadRequestAlertException("User has no pharmacy", ENTITY_NAME, "nopharmacy");
         }
 
-        Optional<PharmacyDTO> pharmacyDTO = pharmacyService.findOne(currentUser.getPharmacy().getId());
+        Optional<PharmacyDTO> pharmacyDTO = pharmacyService.findOne(currentUser.pharmacyId());
         List<PharmacyDTO> pharmacies = pharmacyDTO.map(List::of).orElse(List.of());
 
         return ResponseEntity.ok().body(pharmacies);
@@ -0,0 +1,63 @@
+package com.zidir.medcom.web.rest;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.service.AvailabilityEventIngestionService;
+import com.zidir.medcom.service.dto.AvailabilityEventsDTO;
+import com.zidir.medcom.web.rest.errors.BadRequestAlertException;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller receiving the availability changes pushed by the supplier.
+ * <p>
+ * Restricted to the {@link com.zidir.medcom.security.AuthoritiesConstants#SUPPLIER} accounts, see
+ * {@link com.zidir.medcom.config.SecurityConfiguration}.
+ */
+@RestController
+@RequestMapping("/api/supplier")
+public class SupplierEventResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SupplierEventResource.class);
+
+    private static final String ENTITY_NAME = "availabilityEvent";
+
+    private final AvailabilityEventIngestionService availabilityEventIngestionService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SupplierEventResource(
+        AvailabilityEventIngestionService availabilityEventIngestionService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.availabilityEventIngestionService = availabilityEventIngestionService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * {@code POST  /supplier/availability-events} : Push a batch of availability changes.
+     * The events are applied asynchronously, within {@code application.supplier-push.flush-interval-millis}.
+     *
+     * @param availabilityEvents the availability changes.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, or with status {@code 429 (Too Many Requests)}
+     *         and a {@code Retry-After} header if the events cannot be buffered, in which case none of them is kept.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the batch is larger than the buffer.
+     */
+    @PostMapping("/availability-events")
+    public ResponseEntity<Void> pushAvailabilityEvents(@Valid @RequestBody AvailabilityEventsDTO availabilityEvents) {
+        LOG.debug("REST request to push {} availability events", availabilityEvents.events().size());
+        if (availabilityEvents.events().size() > availabilityEventIngestionService.getCapacity()) {
+            throw new BadRequestAlertException("Too many events in one batch", ENTITY_NAME, "batchtoolarge");
+        }
+        if (!availabilityEventIngestionService.offer(availabilityEvents.events())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(applicationProperties.getSupplierPush().getRetryAfterSeconds()))
+                .build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
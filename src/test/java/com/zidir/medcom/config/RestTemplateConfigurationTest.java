@@ -0,0 +1,112 @@
+package com.zidir.medcom.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Unit tests for the {@link RestTemplateConfiguration} transport.
+ */
+class RestTemplateConfigurationTest {
+
+    private final RestTemplateConfiguration configuration = new RestTemplateConfiguration();
+
+    private final Set<Object> remoteAddresses = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger compressedResponses = new AtomicInteger();
+
+    private HttpServer server;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private CloseableHttpClient httpClient;
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/availability", exchange -> {
+            remoteAddresses.add(exchange.getRemoteAddress());
+            byte[] body = "{\"available\":true}".getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                compressedResponses.incrementAndGet();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        connectionManager = configuration.supplierConnectionManager(applicationProperties);
+        httpClient = configuration.supplierHttpClient(connectionManager, applicationProperties);
+        restTemplate = configuration.restTemplate(new RestTemplateBuilder(), httpClient);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReuseConnectionsAndDecompressResponses() {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/availability";
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(restTemplate.getForObject(url, String.class)).isEqualTo("{\"available\":true}");
+        }
+
+        assertThat(compressedResponses).hasValue(5);
+        assertThat(remoteAddresses).hasSize(1);
+        assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+    }
+
+    @Test
+    void shouldPublishPoolMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        configuration.supplierConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+
+        assertThat(
+            meterRegistry
+                .get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", RestTemplateConfiguration.SUPPLIER_POOL_NAME)
+                .gauge()
+                .value()
+        ).isEqualTo(64);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections").gauges()).hasSize(2);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
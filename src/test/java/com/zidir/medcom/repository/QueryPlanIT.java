@@ -0,0 +1,154 @@
+package com.zidir.medcom.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zidir.medcom.IntegrationTest;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests checking that the queries of the repositories are served by the indexes added for them.
+ * <p>
+ * Sequential scans are disabled for the test transaction, so the plans do not depend on the table statistics:
+ * a query falls back to a sequential scan only if no index can serve it. Queries on the notification table are
+ * also checked to only scan the partitions of the months they select.
+ */
+@IntegrationTest
+@Transactional
+class QueryPlanIT {
+
+    private static final long USER_ID = 2L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @BeforeEach
+    void setup() {
+        // A long read history and a few unread or pending notifications, as in production
+        jdbcTemplate.update(
+            "insert into notification (id, message, read_at, sent, failed, user_id) " +
+            "select 1000000 + g, 'Product is now available', case when g % 100 = 0 then null else now() end, g % 50 <> 0, false, ? " +
+            "from generate_series(1, 5000) g",
+            USER_ID
+        );
+        jdbcTemplate.execute("analyze notification");
+        jdbcTemplate.execute("set local enable_seqscan = off");
+    }
+
+    @Test
+    void unreadNotificationsUsePartialIndex() {
+        String[] unreadIndexScans = indexScans("idx_notification__unread");
+        assertThat(plan("select * from notification where user_id = " + USER_ID + " and read_at is null order by id limit 20"))
+            .containsAnyOf(unreadIndexScans);
+        assertThat(plan("update notification set read_at = now() where user_id = " + USER_ID + " and read_at is null"))
+            .containsAnyOf(unreadIndexScans);
+    }
+
+    @Test
+    void notificationFeedsUseCompositeIndexes() {
+        assertThat(plan("select * from notification where user_id = " + USER_ID + " order by id limit 20")).containsAnyOf(
+            indexScans("idx_notification__user_id_id")
+        );
+        assertThat(plan("select * from notification where pharmacy_id = 1 order by id limit 20")).containsAnyOf(
+            indexScans("idx_notification__pharmacy_id_id")
+        );
+    }
+
+    @Test
+    void pendingNotificationsUsePartialIndex() {
+        assertThat(plan("select id from notification where sent = false and failed = false order by id limit 100")).containsAnyOf(
+            indexScans("idx_notification__pending")
+        );
+    }
+
+    @Test
+    void watchListAndUserLookupsUseIndexes() {
+        assertThat(plan("select * from watch_list_item where pharmacy_id = 1 order by id limit 20")).contains(
+            "idx_watch_list_item__pharmacy_id_id"
+        );
+        assertThat(plan("select id from watch_list_item where product_id = 1")).contains("idx_watch_list_item__product_id");
+        assertThat(plan("select id from product where code in ('A', 'B')")).contains("idx_product__code");
+        assertThat(plan("select * from jhi_user where pharmacy_id in (1, 2)")).contains("idx_jhi_user__pharmacy_id");
+    }
+
+    @Test
+    void notificationQueriesOnlyScanPartitionsOfTheirMonths() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        String plan = plan(
+            "select * from notification where user_id = " +
+            USER_ID +
+            " and created_date >= '" +
+            currentMonth.atDay(1) +
+            "' and created_date < '" +
+            currentMonth.plusMonths(1).atDay(1) +
+            "'"
+        );
+
+        assertThat(plan).contains(partitionName(currentMonth)).doesNotContain(partitionName(currentMonth.plusMonths(1)));
+    }
+
+    @Test
+    void boundedFeedAndOutboxQueriesDoNotScanOlderPartitions() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        YearMonth oldMonth = currentMonth.minusMonths(3);
+        notificationRepository.createPartition(oldMonth);
+        String createdFrom = "'" + currentMonth.atDay(1) + "'";
+
+        assertThat(
+            plan(
+                "select * from notification where user_id = " +
+                USER_ID +
+                " and id < 2000000 and created_date >= " +
+                createdFrom +
+                " and created_date < '9999-12-31' order by id desc limit 21"
+            )
+        )
+            .contains(partitionName(currentMonth))
+            .doesNotContain(partitionName(oldMonth));
+        assertThat(
+            plan(
+                "select id from notification where sent = false and failed = false and created_date >= " +
+                createdFrom +
+                " order by id limit 100 for update skip locked"
+            )
+        )
+            .contains(partitionName(currentMonth))
+            .doesNotContain(partitionName(oldMonth));
+    }
+
+    /**
+     * The notification table is partitioned, its indexes appear in plans under the names of the partition indexes.
+     *
+     * @return the plan fragments of a scan of the given index or of one of its partition indexes.
+     */
+    private String[] indexScans(String index) {
+        List<String> names = new ArrayList<>(
+            jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid where i.inhparent = ?::regclass",
+                String.class,
+                index
+            )
+        );
+        names.add(index);
+        return names.stream().map(name -> "using " + name + " on ").toArray(String[]::new);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("notification_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private String plan(String query) {
+        List<String> lines = jdbcTemplate.queryForList("explain " + query, String.class);
+        return String.join("\n", lines);
+    }
+}
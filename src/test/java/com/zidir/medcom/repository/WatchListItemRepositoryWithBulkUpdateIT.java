@@ -0,0 +1,120 @@
+package com.zidir.medcom.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zidir.medcom.IntegrationTest;
+import com.zidir.medcom.domain.Product;
+import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.repository.WatchListItemRepositoryWithBulkUpdate.AvailabilityUpdate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link WatchListItemRepositoryWithBulkUpdate#applyAvailability(List)}.
+ * <p>
+ * Each step runs in its own committed transaction, as in production, so that the second-level cache is populated and
+ * read across transactions.
+ */
+@IntegrationTest
+class WatchListItemRepositoryWithBulkUpdateIT {
+
+    private static final Instant LAST_CHANGE = Instant.parse("2026-10-01T10:00:00Z");
+
+    @Autowired
+    private WatchListItemRepository watchListItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private List<Product> products;
+
+    private WatchListItem unavailableItem;
+
+    private WatchListItem availableItem;
+
+    private WatchListItem otherProductItem;
+
+    @BeforeEach
+    void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            products = productRepository.saveAll(
+                List.of(new Product().name("Bulk A").code("BULK-A"), new Product().name("Bulk B").code("BULK-B"))
+            );
+            unavailableItem = watchListItemRepository.save(createItem(products.get(0), false));
+            availableItem = watchListItemRepository.save(createItem(products.get(0), true));
+            otherProductItem = watchListItemRepository.save(createItem(products.get(1), false));
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        transactionTemplate.executeWithoutResult(status -> {
+            watchListItemRepository.deleteAllById(List.of(unavailableItem.getId(), availableItem.getId(), otherProductItem.getId()));
+            productRepository.deleteAll(products);
+        });
+    }
+
+    @Test
+    void shouldOnlyUpdateAndReturnTheItemsWhoseAvailabilityChanged() {
+        Instant checkedAt = LAST_CHANGE.plus(Duration.ofHours(1));
+
+        List<Long> changedIds = apply(new AvailabilityUpdate("BULK-A", true, checkedAt));
+
+        assertThat(changedIds).containsExactly(unavailableItem.getId());
+        WatchListItem changed = find(unavailableItem.getId());
+        assertThat(changed.getLastAvailability()).isTrue();
+        assertThat(changed.getLastAvailabilityTime().toInstant()).isEqualTo(checkedAt);
+        WatchListItem unchanged = find(availableItem.getId());
+        assertThat(unchanged.getLastAvailability()).isTrue();
+        assertThat(unchanged.getLastAvailabilityTime().toInstant()).isEqualTo(LAST_CHANGE);
+        assertThat(find(otherProductItem.getId()).getLastAvailability()).isFalse();
+    }
+
+    @Test
+    void shouldNotRevertANewerAvailabilityWithAnOlderCheck() {
+        apply(new AvailabilityUpdate("BULK-A", true, LAST_CHANGE.plus(Duration.ofHours(2))));
+
+        List<Long> changedIds = apply(new AvailabilityUpdate("BULK-A", false, LAST_CHANGE.plus(Duration.ofHours(1))));
+
+        assertThat(changedIds).isEmpty();
+        assertThat(find(unavailableItem.getId()).getLastAvailability()).isTrue();
+        assertThat(find(availableItem.getId()).getLastAvailability()).isTrue();
+        assertThat(apply(new AvailabilityUpdate("BULK-B", true, LAST_CHANGE.minus(Duration.ofHours(1))))).isEmpty();
+    }
+
+    @Test
+    void shouldNotServeTheOldAvailabilityFromTheSecondLevelCache() {
+        // Loaded in the second-level cache
+        assertThat(find(unavailableItem.getId()).getLastAvailability()).isFalse();
+
+        apply(new AvailabilityUpdate("BULK-A", true, LAST_CHANGE.plus(Duration.ofHours(1))));
+
+        assertThat(find(unavailableItem.getId()).getLastAvailability()).isTrue();
+    }
+
+    private static WatchListItem createItem(Product product, boolean available) {
+        return new WatchListItem().product(product).lastAvailability(available).lastAvailabilityTime(LAST_CHANGE.atZone(ZoneOffset.UTC));
+    }
+
+    private List<Long> apply(AvailabilityUpdate update) {
+        return transactionTemplate.execute(status -> watchListItemRepository.applyAvailability(List.of(update)));
+    }
+
+    private WatchListItem find(Long id) {
+        return transactionTemplate.execute(status -> watchListItemRepository.findById(id).orElseThrow());
+    }
+}
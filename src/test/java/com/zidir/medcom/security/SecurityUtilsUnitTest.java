@@ -1,5 +1,6 @@
 package com.zidir.medcom.security;
 
+import static com.zidir.medcom.security.SecurityUtils.PHARMACY_ID_CLAIM;
 import static com.zidir.medcom.security.SecurityUtils.USER_ID_CLAIM;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -61,6 +62,23 @@ class SecurityUtilsUnitTest {
         assertThat(contextUserId.orElse(null)).isEqualTo(userId);
     }
 
+    @Test
+    void testGetCurrentUserPharmacyId() {
+        var pharmacyId = 2L;
+        var securityContext = SecurityContextHolder.createEmptyContext();
+        var now = Instant.now();
+        var jwt = Jwt.withTokenValue("token")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(60))
+            .claim(PHARMACY_ID_CLAIM, pharmacyId)
+            .header("Test", "test")
+            .build();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(jwt, "token"));
+        SecurityContextHolder.setContext(securityContext);
+        var contextPharmacyId = SecurityUtils.getCurrentUserPharmacyId();
+        assertThat(contextPharmacyId.orElse(null)).isEqualTo(pharmacyId);
+    }
+
     @Test
     void testIsAuthenticated() {
         SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
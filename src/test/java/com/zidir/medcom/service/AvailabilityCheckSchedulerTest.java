@@ -0,0 +1,139 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.repository.WatchListItemRepository.ProductWatchStats;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AvailabilityCheckSchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private AvailabilityCheckScheduler scheduler;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAvailabilityCheck().setIntervalMinutes(30);
+        applicationProperties.getAvailabilityCheck().setMinIntervalMinutes(5);
+        applicationProperties.getAvailabilityCheck().setMaxIntervalMinutes(240);
+        scheduler = new AvailabilityCheckScheduler(applicationProperties);
+    }
+
+    @Test
+    void shouldMakeNewProductsDueImmediatelyWithinBudget() {
+        scheduler.refresh(List.of(stats("A", 1, null), stats("B", 1, null), stats("C", 1, null)), NOW);
+
+        assertThat(scheduler.pollDue(NOW, 2)).hasSize(2);
+        assertThat(scheduler.countDue(NOW)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecheckHeavilyWatchedProductsMoreOften() {
+        scheduler.refresh(List.of(stats("POPULAR", 16, null), stats("NICHE", 1, null)), NOW);
+        List<String> due = scheduler.pollDue(NOW, 10);
+        scheduler.reschedule(due, List.of(available(true), available(true)), NOW);
+
+        assertThat(scheduler.scheduleOf("POPULAR").getNextDueAt()).isEqualTo(NOW.plus(Duration.ofMinutes(6)));
+        assertThat(scheduler.scheduleOf("NICHE").getNextDueAt()).isEqualTo(NOW.plus(Duration.ofMinutes(30)));
+        assertThat(scheduler.pollDue(NOW.plus(Duration.ofMinutes(10)), 10)).containsExactly("POPULAR");
+    }
+
+    @Test
+    void shouldRecheckVolatileProductsMoreOftenThanStableOnes() {
+        ZonedDateTime longAgo = NOW.minus(Duration.ofDays(7)).atZone(ZoneOffset.UTC);
+        scheduler.refresh(List.of(stats("VOLATILE", 1, null), stats("STABLE", 1, longAgo)), NOW);
+
+        Instant time = NOW;
+        for (int i = 0; i < 4; i++) {
+            boolean volatileAvailability = i % 2 == 0;
+            List<String> due = scheduler.pollDue(time, 10);
+            scheduler.reschedule(due, due.stream().map(code -> available("STABLE".equals(code) || volatileAvailability)).toList(), time);
+            time = time.plus(Duration.ofMinutes(240));
+        }
+
+        assertThat(scheduler.scheduleOf("VOLATILE").getChangeRate()).isPositive();
+        assertThat(scheduler.scheduleOf("STABLE").getChangeRate()).isZero();
+        Duration volatileInterval = scheduler.intervalOf(scheduler.scheduleOf("VOLATILE"), time);
+        Duration stableInterval = scheduler.intervalOf(scheduler.scheduleOf("STABLE"), time);
+        assertThat(volatileInterval).isLessThan(Duration.ofMinutes(30));
+        assertThat(stableInterval).isGreaterThan(Duration.ofMinutes(30));
+    }
+
+    @Test
+    void shouldRetryFailedChecksAfterMinimumInterval() {
+        scheduler.refresh(List.of(stats("A", 1, null)), NOW);
+        List<String> due = scheduler.pollDue(NOW, 10);
+        scheduler.reschedule(due, Collections.singletonList(null), NOW);
+
+        assertThat(scheduler.scheduleOf("A").getChangeRate()).isZero();
+        assertThat(scheduler.scheduleOf("A").getNextDueAt()).isEqualTo(NOW.plus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void shouldRetryErroredAndRejectedChecksAfterMinimumIntervalWhateverTheirInterval() {
+        ZonedDateTime longAgo = NOW.minus(Duration.ofDays(30)).atZone(ZoneOffset.UTC);
+        scheduler.refresh(List.of(stats("FAILED", 1, longAgo), stats("REJECTED", 1, longAgo), stats("OK", 1, longAgo)), NOW);
+        List<String> due = scheduler.pollDue(NOW, 10);
+        scheduler.reschedule(
+            due,
+            due
+                .stream()
+                .map(code ->
+                    switch (code) {
+                        case "FAILED" -> AvailabilityResult.failed("timeout", NOW, Duration.ZERO);
+                        case "REJECTED" -> AvailabilityResult.rejected("circuit open");
+                        default -> available(true);
+                    }
+                )
+                .toList(),
+            NOW
+        );
+
+        assertThat(scheduler.scheduleOf("FAILED").getNextDueAt()).isEqualTo(NOW.plus(Duration.ofMinutes(5)));
+        assertThat(scheduler.scheduleOf("REJECTED").getNextDueAt()).isEqualTo(NOW.plus(Duration.ofMinutes(5)));
+        assertThat(scheduler.scheduleOf("OK").getNextDueAt()).isAfter(NOW.plus(Duration.ofMinutes(60)));
+        assertThat(scheduler.pollDue(NOW.plus(Duration.ofMinutes(5)), 10)).containsExactlyInAnyOrder("FAILED", "REJECTED");
+    }
+
+    @Test
+    void shouldDropProductsNoLongerWatched() {
+        scheduler.refresh(List.of(stats("A", 1, null), stats("B", 1, null)), NOW);
+        scheduler.refresh(List.of(stats("A", 1, null)), NOW);
+
+        assertThat(scheduler.pollDue(NOW, 10)).containsExactly("A");
+        assertThat(scheduler.scheduleOf("B")).isNull();
+    }
+
+    private static AvailabilityResult available(boolean available) {
+        return AvailabilityResult.of(available, NOW, Duration.ZERO);
+    }
+
+    private static ProductWatchStats stats(String productCode, long watcherCount, ZonedDateTime lastAvailabilityTime) {
+        return new ProductWatchStats() {
+            @Override
+            public String getProductCode() {
+                return productCode;
+            }
+
+            @Override
+            public long getWatcherCount() {
+                return watcherCount;
+            }
+
+            @Override
+            public ZonedDateTime getLastAvailabilityTime() {
+                return lastAvailabilityTime;
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.repository.WatchListItemRepositoryWithBulkUpdate.AvailabilityUpdate;
+import com.zidir.medcom.service.AvailabilityMonitoringService.AppliedChanges;
+import com.zidir.medcom.service.dto.AvailabilityEventsDTO.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityEventIngestionServiceTest {
+
+    private static final Instant CHECKED_AT = Instant.now().minus(1, ChronoUnit.MINUTES);
+
+    @Mock
+    private AvailabilityMonitoringService availabilityMonitoringService;
+
+    @Captor
+    private ArgumentCaptor<List<AvailabilityUpdate>> updatesCaptor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AvailabilityEventIngestionService ingestionService;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSupplierPush().setBufferCapacity(3);
+        applicationProperties.getSupplierPush().setBatchSize(10);
+        ingestionService = new AvailabilityEventIngestionService(
+            availabilityMonitoringService,
+            new AvailabilityMetersService(meterRegistry),
+            applicationProperties
+        );
+    }
+
+    @Test
+    void shouldRefuseBatchNotFittingInBuffer() {
+        assertThat(ingestionService.offer(List.of(new Event("A", true, CHECKED_AT), new Event("B", true, CHECKED_AT)))).isTrue();
+
+        assertThat(ingestionService.offer(List.of(new Event("C", true, CHECKED_AT), new Event("D", true, CHECKED_AT)))).isFalse();
+
+        assertThat(events("accepted")).isEqualTo(2);
+        assertThat(events("rejected")).isEqualTo(2);
+        assertThat(meterRegistry.get(AvailabilityMetersService.PUSH_BUFFER_METER_NAME).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldApplyLatestEventOfEachProductCode() {
+        when(availabilityMonitoringService.applyAvailabilityUpdates(any())).thenReturn(new AppliedChanges(2, 2, List.of()));
+        ingestionService.offer(List.of(new Event("A", true, CHECKED_AT.plusSeconds(1)), new Event("B", false, CHECKED_AT)));
+        ingestionService.offer(List.of(new Event("A", false, CHECKED_AT)));
+
+        ingestionService.flush();
+
+        verify(availabilityMonitoringService).applyAvailabilityUpdates(updatesCaptor.capture());
+        assertThat(updatesCaptor.getValue()).containsExactly(
+            new AvailabilityUpdate("A", true, CHECKED_AT.plusSeconds(1)),
+            new AvailabilityUpdate("B", false, CHECKED_AT)
+        );
+        assertThat(events("coalesced")).isEqualTo(1);
+        assertThat(ingestionService.offer(List.of(new Event("C", true, null), new Event("D", true, null), new Event("E", true, null))))
+            .isTrue();
+    }
+
+    @Test
+    void shouldNotTrustCheckTimesAheadOfOurClock() {
+        when(availabilityMonitoringService.applyAvailabilityUpdates(any())).thenReturn(new AppliedChanges(1, 1, List.of()));
+        Instant future = Instant.now().plus(1, ChronoUnit.HOURS);
+        ingestionService.offer(List.of(new Event("A", true, future)));
+
+        ingestionService.flush();
+
+        verify(availabilityMonitoringService).applyAvailabilityUpdates(updatesCaptor.capture());
+        assertThat(updatesCaptor.getValue()).singleElement().satisfies(update -> assertThat(update.checkedAt()).isBefore(future));
+    }
+
+    @Test
+    void shouldPutFailedEventsBackForNextFlush() {
+        AvailabilityUpdate failed = new AvailabilityUpdate("A", true, CHECKED_AT);
+        when(availabilityMonitoringService.applyAvailabilityUpdates(any())).thenReturn(
+            new AppliedChanges(1, 1, List.of(failed)),
+            new AppliedChanges(1, 1, List.of())
+        );
+        ingestionService.offer(List.of(new Event("A", true, CHECKED_AT), new Event("B", true, CHECKED_AT)));
+
+        ingestionService.flush();
+
+        verify(availabilityMonitoringService, times(1)).applyAvailabilityUpdates(any());
+        assertThat(meterRegistry.get(AvailabilityMetersService.PUSH_BUFFER_METER_NAME).gauge().value()).isEqualTo(1);
+
+        ingestionService.flush();
+
+        verify(availabilityMonitoringService, times(2)).applyAvailabilityUpdates(updatesCaptor.capture());
+        assertThat(updatesCaptor.getValue()).containsExactly(failed);
+        assertThat(meterRegistry.get(AvailabilityMetersService.PUSH_BUFFER_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldDropEventsFailingTooOften() {
+        when(availabilityMonitoringService.applyAvailabilityUpdates(any())).thenThrow(new IllegalStateException("database down"));
+        ingestionService.offer(List.of(new Event("A", true, CHECKED_AT)));
+
+        for (int i = 0; i < AvailabilityEventIngestionService.MAX_ATTEMPTS + 1; i++) {
+            ingestionService.flush();
+        }
+
+        verify(availabilityMonitoringService, times(AvailabilityEventIngestionService.MAX_ATTEMPTS)).applyAvailabilityUpdates(any());
+        assertThat(events("dropped")).isEqualTo(1);
+        assertThat(meterRegistry.get(AvailabilityMetersService.PUSH_BUFFER_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldNotApplyAnythingWhenBufferIsEmpty() {
+        ingestionService.flush();
+
+        verify(availabilityMonitoringService, never()).applyAvailabilityUpdates(any());
+    }
+
+    private double events(String outcome) {
+        return meterRegistry.get(AvailabilityMetersService.PUSH_EVENTS_METER_NAME).tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,118 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.repository.WatchListItemRepository;
+import com.zidir.medcom.repository.WatchListItemRepository.ProductWatchStats;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class AvailabilityMonitoringServiceTest {
+
+    private WatchListItemRepository watchListItemRepository;
+
+    private SupplierPollingEngine supplierPollingEngine;
+
+    private AvailabilityCheckScheduler availabilityCheckScheduler;
+
+    private AvailabilityShardingService availabilityShardingService;
+
+    private AvailabilityMonitoringService availabilityMonitoringService;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAvailabilityCheck().setMinIntervalMinutes(5);
+        applicationProperties.getAvailabilityCheck().setWatchRefreshSeconds(300);
+        watchListItemRepository = mock(WatchListItemRepository.class);
+        supplierPollingEngine = mock(SupplierPollingEngine.class);
+        availabilityShardingService = mock(AvailabilityShardingService.class);
+        availabilityCheckScheduler = new AvailabilityCheckScheduler(applicationProperties);
+        availabilityMonitoringService = new AvailabilityMonitoringService(
+            watchListItemRepository,
+            mock(NotificationFanOutService.class),
+            supplierPollingEngine,
+            availabilityCheckScheduler,
+            availabilityShardingService,
+            new AvailabilityMetersService(new SimpleMeterRegistry()),
+            applicationProperties,
+            mock(PlatformTransactionManager.class)
+        );
+        when(watchListItemRepository.findProductWatchStats()).thenReturn(List.of(stats("A"), stats("B")));
+        when(availabilityShardingService.isLocallyOwned(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void shouldPutCodesClaimedElsewhereBackInTheQueue() {
+        when(availabilityShardingService.claim(anyList())).thenReturn(List.of("A"));
+        when(supplierPollingEngine.poll(List.of("A"))).thenReturn(Collections.singletonList(null));
+
+        Instant before = Instant.now();
+        availabilityMonitoringService.checkAvailability();
+
+        verify(supplierPollingEngine).poll(List.of("A"));
+        assertThat(availabilityCheckScheduler.scheduleOf("B").getNextDueAt()).isAfterOrEqualTo(before.plus(Duration.ofMinutes(5)));
+        assertThat(availabilityCheckScheduler.pollDue(Instant.now().plus(Duration.ofMinutes(5)), 10)).contains("B");
+    }
+
+    @Test
+    void shouldNotCheckDueCodesNoLongerOwned() {
+        when(availabilityShardingService.isLocallyOwned("B")).thenReturn(true, false);
+        when(availabilityShardingService.claim(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(supplierPollingEngine.poll(anyList())).thenReturn(Collections.singletonList(null));
+
+        availabilityMonitoringService.checkAvailability();
+
+        verify(availabilityShardingService).claim(List.of("A"));
+        verify(supplierPollingEngine).poll(List.of("A"));
+        assertThat(availabilityCheckScheduler.scheduleOf("B")).isNotNull();
+    }
+
+    @Test
+    void shouldReloadWatchStatsWhenOwnershipChanges() {
+        when(availabilityShardingService.claim(anyList())).thenReturn(List.of());
+
+        availabilityMonitoringService.checkAvailability();
+        availabilityMonitoringService.checkAvailability();
+        verify(watchListItemRepository, times(1)).findProductWatchStats();
+
+        when(availabilityShardingService.getOwnershipVersion()).thenReturn(1L);
+        availabilityMonitoringService.checkAvailability();
+        verify(watchListItemRepository, times(2)).findProductWatchStats();
+    }
+
+    private static ProductWatchStats stats(String productCode) {
+        return new ProductWatchStats() {
+            @Override
+            public String getProductCode() {
+                return productCode;
+            }
+
+            @Override
+            public long getWatcherCount() {
+                return 1;
+            }
+
+            @Override
+            public ZonedDateTime getLastAvailabilityTime() {
+                return null;
+            }
+        };
+    }
+}
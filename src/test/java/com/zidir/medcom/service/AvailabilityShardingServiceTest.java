@@ -0,0 +1,125 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.hazelcast.cluster.Cluster;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.cluster.MembershipEvent;
+import com.hazelcast.cluster.MembershipListener;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.MigrationListener;
+import com.hazelcast.partition.Partition;
+import com.hazelcast.partition.PartitionService;
+import com.zidir.medcom.config.ApplicationProperties;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class AvailabilityShardingServiceTest {
+
+    private static final UUID LOCAL_MEMBER = UUID.randomUUID();
+
+    private static final UUID OTHER_MEMBER = UUID.randomUUID();
+
+    private ApplicationProperties applicationProperties;
+
+    private PartitionService partitionService;
+
+    private Cluster cluster;
+
+    private IMap<String, UUID> claims;
+
+    private AvailabilityShardingService availabilityShardingService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getAvailabilityCheck().setSharded(true);
+        applicationProperties.getAvailabilityCheck().setTickSeconds(60);
+        applicationProperties.getAvailabilityCheck().setMinIntervalMinutes(5);
+
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        partitionService = mock(PartitionService.class);
+        cluster = mock(Cluster.class);
+        claims = mock(IMap.class);
+        Member localMember = mock(Member.class);
+        when(localMember.getUuid()).thenReturn(LOCAL_MEMBER);
+        when(cluster.getLocalMember()).thenReturn(localMember);
+        when(hazelcastInstance.getCluster()).thenReturn(cluster);
+        when(hazelcastInstance.getPartitionService()).thenReturn(partitionService);
+        when(hazelcastInstance.<String, UUID>getMap(AvailabilityShardingService.CHECK_CLAIMS_MAP)).thenReturn(claims);
+
+        availabilityShardingService = new AvailabilityShardingService(hazelcastInstance, applicationProperties);
+    }
+
+    @Test
+    void shouldClaimFreeAndOwnCodesButNotCodesClaimedElsewhere() {
+        when(claims.putIfAbsent(eq("FREE"), eq(LOCAL_MEMBER), anyLong(), any())).thenReturn(null);
+        when(claims.putIfAbsent(eq("MINE"), eq(LOCAL_MEMBER), anyLong(), any())).thenReturn(LOCAL_MEMBER);
+        when(claims.putIfAbsent(eq("OTHER"), eq(LOCAL_MEMBER), anyLong(), any())).thenReturn(OTHER_MEMBER);
+
+        assertThat(availabilityShardingService.claim(List.of("FREE", "MINE", "OTHER"))).containsExactly("FREE", "MINE");
+        verify(claims).putIfAbsent("FREE", LOCAL_MEMBER, 240, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldClaimForTheMinimumIntervalMinusOneTickAndAtLeastOneTick() {
+        assertThat(availabilityShardingService.claimSeconds()).isEqualTo(240);
+
+        applicationProperties.getAvailabilityCheck().setMinIntervalMinutes(1);
+        applicationProperties.getAvailabilityCheck().setTickSeconds(90);
+        assertThat(availabilityShardingService.claimSeconds()).isEqualTo(90);
+    }
+
+    @Test
+    void shouldOwnOnlyCodesOfLocalPartitions() {
+        Member localOwner = mock(Member.class);
+        when(localOwner.localMember()).thenReturn(true);
+        Partition localPartition = mock(Partition.class);
+        when(localPartition.getOwner()).thenReturn(localOwner);
+        Partition migratingPartition = mock(Partition.class);
+        when(partitionService.getPartition(anyString())).thenReturn(migratingPartition);
+        when(partitionService.getPartition("LOCAL")).thenReturn(localPartition);
+
+        assertThat(availabilityShardingService.isLocallyOwned("LOCAL")).isTrue();
+        assertThat(availabilityShardingService.isLocallyOwned("MIGRATING")).isFalse();
+    }
+
+    @Test
+    void shouldBypassShardingWhenDisabled() {
+        applicationProperties.getAvailabilityCheck().setSharded(false);
+
+        assertThat(availabilityShardingService.isLocallyOwned("A")).isTrue();
+        assertThat(availabilityShardingService.claim(List.of("A", "B"))).containsExactly("A", "B");
+        verifyNoInteractions(claims);
+    }
+
+    @Test
+    void shouldBumpOwnershipVersionOnMembershipChangeAndMigration() {
+        ArgumentCaptor<MembershipListener> membershipListener = ArgumentCaptor.forClass(MembershipListener.class);
+        verify(cluster).addMembershipListener(membershipListener.capture());
+        ArgumentCaptor<MigrationListener> migrationListener = ArgumentCaptor.forClass(MigrationListener.class);
+        verify(partitionService).addMigrationListener(migrationListener.capture());
+        MembershipEvent event = mock(MembershipEvent.class);
+
+        long version = availabilityShardingService.getOwnershipVersion();
+        membershipListener.getValue().memberRemoved(event);
+        assertThat(availabilityShardingService.getOwnershipVersion()).isEqualTo(version + 1);
+        membershipListener.getValue().memberAdded(event);
+        migrationListener.getValue().migrationFinished(null);
+        assertThat(availabilityShardingService.getOwnershipVersion()).isEqualTo(version + 3);
+    }
+}
@@ -0,0 +1,116 @@
+package com.zidir.medcom.service;
+
+import static com.zidir.medcom.security.SecurityUtils.PHARMACY_ID_CLAIM;
+import static com.zidir.medcom.security.SecurityUtils.USER_ID_CLAIM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.zidir.medcom.domain.Pharmacy;
+import com.zidir.medcom.domain.User;
+import com.zidir.medcom.repository.UserRepository;
+import com.zidir.medcom.service.CurrentUserService.CurrentUser;
+import com.zidir.medcom.web.rest.errors.BadRequestAlertException;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class CurrentUserServiceTest {
+
+    private UserRepository userRepository;
+
+    private CurrentUserService currentUserService;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        currentUserService = new CurrentUserService(userRepository);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldReadUserFromTokenClaims() {
+        var now = Instant.now();
+        var jwt = Jwt.withTokenValue("token")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(60))
+            .subject("john")
+            .claim(USER_ID_CLAIM, 1L)
+            .claim(PHARMACY_ID_CLAIM, 2L)
+            .header("Test", "test")
+            .build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(jwt, "token"));
+
+        assertThat(currentUserService.getCurrentUser("notification")).isEqualTo(new CurrentUser(1L, "john", 2L));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldLookUpUserOncePerRequestWithoutClaims() {
+        var pharmacy = new Pharmacy();
+        pharmacy.setId(2L);
+        var user = new User();
+        user.setId(1L);
+        user.setLogin("john");
+        user.setPharmacy(pharmacy);
+        when(userRepository.findOneByLogin("john")).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("john", "token"));
+
+        assertThat(currentUserService.getCurrentUser("notification")).isEqualTo(new CurrentUser(1L, "john", 2L));
+        assertThat(currentUserService.getCurrentUser("watchListItem")).isEqualTo(new CurrentUser(1L, "john", 2L));
+        verify(userRepository, times(1)).findOneByLogin("john");
+    }
+
+    @Test
+    void shouldReadPharmacyFromDatabaseBeforeChangingData() {
+        var now = Instant.now();
+        var jwt = Jwt.withTokenValue("token")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(60))
+            .subject("john")
+            .claim(USER_ID_CLAIM, 1L)
+            .claim(PHARMACY_ID_CLAIM, 2L)
+            .header("Test", "test")
+            .build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(jwt, "token"));
+        var pharmacy = new Pharmacy();
+        pharmacy.setId(3L);
+        var user = new User();
+        user.setId(1L);
+        user.setLogin("john");
+        user.setPharmacy(pharmacy);
+        when(userRepository.findOneByLogin("john")).thenReturn(Optional.of(user));
+
+        assertThat(currentUserService.getCurrentUserFromDatabase("watchListItem")).isEqualTo(new CurrentUser(1L, "john", 3L));
+        assertThat(currentUserService.getCurrentUser("watchListItem")).isEqualTo(new CurrentUser(1L, "john", 3L));
+        verify(userRepository, times(1)).findOneByLogin("john");
+    }
+
+    @Test
+    void shouldRejectUnknownUser() {
+        when(userRepository.findOneByLogin("john")).thenReturn(Optional.empty());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("john", "token"));
+
+        assertThatThrownBy(() -> currentUserService.getCurrentUser("notification"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .hasFieldOrPropertyWithValue("errorKey", "usernotfound");
+    }
+}
@@ -0,0 +1,190 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.MailMetersService;
+import com.zidir.medcom.service.MailService.NotificationEmail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Tests {@link MailService#sendNotificationEmails(List)} against a minimal local SMTP server.
+ */
+class MailServiceBatchTest {
+
+    private SmtpServer smtpServer;
+
+    private MeterRegistry meterRegistry;
+
+    private MailService mailService;
+
+    @BeforeEach
+    void setup() throws IOException {
+        smtpServer = new SmtpServer();
+
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.getPort());
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setFrom("medcom@localhost");
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getNotificationDispatch().setMailBatchSize(10);
+        meterRegistry = new SimpleMeterRegistry();
+
+        mailService = new MailService(
+            jHipsterProperties,
+            javaMailSender,
+            messageSource,
+            templateEngine,
+            applicationProperties,
+            new MailMetersService(meterRegistry)
+        );
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        smtpServer.close();
+    }
+
+    @Test
+    void shouldSendEachBatchOverOneConnection() {
+        List<NotificationEmail> emails = IntStream.range(0, 25)
+            .mapToObj(i -> new NotificationEmail("user" + i + "@localhost", i % 2 == 0 ? "en" : "fr", "Product 'Doliprane' is available"))
+            .toList();
+
+        List<String> failures = mailService.sendNotificationEmails(emails);
+
+        assertThat(failures).hasSize(25).containsOnlyNulls();
+        assertThat(smtpServer.getConnections()).isEqualTo(3);
+        assertThat(smtpServer.getMessages()).hasSize(25);
+        assertThat(smtpServer.getMessages().get(0)).contains("To: user0@localhost").contains("Doliprane");
+        assertThat(meterRegistry.get(MailMetersService.EMAILS_METER_NAME).tag("outcome", "sent").counter().count()).isEqualTo(25);
+        assertThat(meterRegistry.get(MailMetersService.BATCH_DURATION_METER_NAME).timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(MailMetersService.QUEUE_DEPTH_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldReportFailuresWhenServerIsUnreachable() throws IOException {
+        smtpServer.close();
+
+        List<String> failures = mailService.sendNotificationEmails(
+            List.of(new NotificationEmail("user@localhost", "en", "Product 'Doliprane' is now available"))
+        );
+
+        assertThat(failures).hasSize(1).doesNotContainNull();
+        assertThat(meterRegistry.get(MailMetersService.EMAILS_METER_NAME).tag("outcome", "failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(MailMetersService.QUEUE_DEPTH_METER_NAME).gauge().value()).isZero();
+    }
+
+    /**
+     * SMTP server accepting every message, one connection at a time.
+     */
+    private static final class SmtpServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        private SmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread thread = new Thread(this::serve, "smtp-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void serve() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    converse(socket);
+                } catch (IOException e) {
+                    // Closed
+                }
+            }
+        }
+
+        private void converse(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            reply(out, "220 localhost ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder message = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            message.append(line).append('\n');
+                        }
+                        messages.add(message.toString());
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String reply) {
+            out.print(reply + "\r\n");
+            out.flush();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private int getConnections() {
+            return connections.get();
+        }
+
+        private List<String> getMessages() {
+            return messages;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.*;
 import com.zidir.medcom.IntegrationTest;
 import com.zidir.medcom.config.Constants;
 import com.zidir.medcom.domain.User;
+import com.zidir.medcom.service.MailService.NotificationEmail;
 import jakarta.mail.Multipart;
 import jakarta.mail.Session;
 import jakarta.mail.internet.MimeBodyPart;
@@ -18,6 +19,7 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -184,6 +186,32 @@ class MailServiceIT {
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
+    @Test
+    void testSendNotificationEmails() throws Exception {
+        List<String> failures = mailService.sendNotificationEmails(
+            List.of(new NotificationEmail("john.doe@example.com", "en", "Product 'Doliprane' is now available"))
+        );
+        assertThat(failures).containsExactly((String) null);
+        ArgumentCaptor<MimeMessage[]> batchCaptor = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(javaMailSender).send(batchCaptor.capture());
+        assertThat(batchCaptor.getValue()).hasSize(1);
+        MimeMessage message = batchCaptor.getValue()[0];
+        assertThat(message.getSubject()).isEqualTo("medcom product availability update");
+        assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
+        assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
+        assertThat(message.getContent().toString()).contains("Doliprane").contains("is now available");
+        assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
+    }
+
+    @Test
+    void testSendNotificationEmailsWithException() {
+        doThrow(new MailSendException("Connection refused")).when(javaMailSender).send(any(MimeMessage[].class));
+        List<String> failures = mailService.sendNotificationEmails(
+            List.of(new NotificationEmail("john.doe@example.com", "en", "testContent"))
+        );
+        assertThat(failures).containsExactly("Connection refused");
+    }
+
     @Test
     void testSendEmailWithException() {
         doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
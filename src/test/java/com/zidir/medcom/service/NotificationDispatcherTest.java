@@ -0,0 +1,119 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.domain.enumeration.NotificationType;
+import com.zidir.medcom.repository.NotificationRepository;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.DispatchOutcome;
+import com.zidir.medcom.repository.NotificationRepositoryWithOutbox.PendingNotification;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class NotificationDispatcherTest {
+
+    private static final Instant CREATED_DATE = Instant.parse("2025-01-01T00:00:00Z");
+
+    private NotificationRepository notificationRepository;
+
+    private NotificationChannelSender emailSender;
+
+    private NotificationChannelSender smsSender;
+
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationDispatcher notificationDispatcher;
+
+    @BeforeEach
+    void setup() {
+        notificationRepository = mock(NotificationRepository.class);
+        emailSender = mock(NotificationChannelSender.class, Answers.CALLS_REAL_METHODS);
+        when(emailSender.getType()).thenReturn(NotificationType.EMAIL);
+        smsSender = mock(NotificationChannelSender.class, Answers.CALLS_REAL_METHODS);
+        when(smsSender.getType()).thenReturn(NotificationType.SMS);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getNotificationDispatch().setBatchSize(10);
+        transactionManager = mock(PlatformTransactionManager.class);
+        notificationDispatcher = new NotificationDispatcher(
+            notificationRepository,
+            List.of(emailSender, smsSender),
+            applicationProperties,
+            transactionManager
+        );
+    }
+
+    @Test
+    void shouldDispatchThroughChannelOfEachNotification() {
+        PendingNotification email = pending(1L, NotificationType.EMAIL);
+        PendingNotification untyped = pending(2L, null);
+        PendingNotification sms = pending(3L, NotificationType.SMS);
+        PendingNotification whatsApp = pending(4L, NotificationType.WHATSAPP);
+        when(notificationRepository.claimPending(any(), any(), any(), eq(10))).thenReturn(List.of(email, untyped, sms, whatsApp));
+        when(smsSender.send(sms)).thenThrow(new NotificationDeliveryException("No phone number"));
+
+        notificationDispatcher.dispatchPending();
+
+        verify(emailSender).sendAll(List.of(email));
+        verify(smsSender).sendAll(List.of(sms));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DispatchOutcome>> outcomes = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).markDispatched(outcomes.capture(), any());
+        assertThat(outcomes.getValue()).containsExactlyInAnyOrder(
+            DispatchOutcome.sent(email, null),
+            DispatchOutcome.failed(untyped, NotificationDispatcher.NO_CHANNEL_ERROR),
+            DispatchOutcome.failed(sms, "No phone number"),
+            DispatchOutcome.failed(whatsApp, "No sender for channel WHATSAPP")
+        );
+    }
+
+    @Test
+    void shouldClaimBatchesUntilNoneIsFull() {
+        List<PendingNotification> fullBatch = LongStream.rangeClosed(1, 10)
+            .mapToObj(id -> pending(id, NotificationType.EMAIL))
+            .toList();
+        when(notificationRepository.claimPending(any(), any(), any(), anyInt())).thenReturn(
+            fullBatch,
+            List.of(pending(11L, NotificationType.EMAIL))
+        );
+
+        notificationDispatcher.dispatchPending();
+
+        verify(notificationRepository, times(2)).claimPending(any(), any(), any(), eq(10));
+    }
+
+    @Test
+    void shouldSendOutsideTheClaimingTransaction() {
+        PendingNotification email = pending(1L, NotificationType.EMAIL);
+        when(notificationRepository.claimPending(any(), any(), any(), eq(10))).thenReturn(List.of(email));
+
+        notificationDispatcher.dispatchPending();
+
+        // Claim committed, mails sent, then outcomes written in a second transaction
+        InOrder inOrder = inOrder(transactionManager, emailSender, notificationRepository);
+        inOrder.verify(notificationRepository).claimPending(any(), any(), any(), eq(10));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(emailSender).sendAll(List.of(email));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(notificationRepository).markDispatched(any(), any());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    private static PendingNotification pending(Long id, NotificationType type) {
+        return new PendingNotification(id, CREATED_DATE, type, "Product 'Doliprane' is now available", "user@localhost", "en", null, null);
+    }
+}
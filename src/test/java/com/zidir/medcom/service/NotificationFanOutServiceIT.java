@@ -0,0 +1,203 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.zidir.medcom.IntegrationTest;
+import com.zidir.medcom.domain.Pharmacy;
+import com.zidir.medcom.domain.Product;
+import com.zidir.medcom.domain.User;
+import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.repository.NotificationRepository;
+import com.zidir.medcom.repository.PharmacyRepository;
+import com.zidir.medcom.repository.ProductRepository;
+import com.zidir.medcom.repository.UserRepository;
+import com.zidir.medcom.repository.WatchListItemRepository;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link NotificationFanOutService}.
+ * <p>
+ * The fan-out runs in its own committed or rolled back transaction, as in production, so that the pushes sent after
+ * the commit are observed.
+ */
+@IntegrationTest
+class NotificationFanOutServiceIT {
+
+    private static final String AVAILABLE_MESSAGE = "Product 'Fan-out product' is now available";
+
+    private static final String UNAVAILABLE_MESSAGE = "Product 'Fan-out product' is now unavailable";
+
+    @Autowired
+    private NotificationFanOutService notificationFanOutService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PharmacyRepository pharmacyRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WatchListItemRepository watchListItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private List<Pharmacy> pharmacies;
+
+    private List<User> users;
+
+    private Product product;
+
+    private List<WatchListItem> items;
+
+    @BeforeEach
+    void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            pharmacies = pharmacyRepository.saveAll(
+                List.of(new Pharmacy().name("Fan-out pharmacy 1"), new Pharmacy().name("Fan-out pharmacy 2"))
+            );
+            users = userRepository.saveAll(
+                List.of(
+                    createUser("fanout-user-1", pharmacies.get(0)),
+                    createUser("fanout-user-2", pharmacies.get(0)),
+                    createUser("fanout-user-3", pharmacies.get(1))
+                )
+            );
+            product = productRepository.save(new Product().name("Fan-out product").code("FANOUT-A"));
+            items = watchListItemRepository.saveAll(
+                List.of(
+                    new WatchListItem().product(product).pharmacy(pharmacies.get(0)).notifyAllUsers(true).lastAvailability(true),
+                    new WatchListItem().product(product).pharmacy(pharmacies.get(1)).notifyAllUsers(true).lastAvailability(false),
+                    new WatchListItem()
+                        .product(product)
+                        .pharmacy(pharmacies.get(1))
+                        .notifyAllUsers(false)
+                        .createdBy(users.get(0))
+                        .lastAvailability(true)
+                )
+            );
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        List<Long> userIds = users.stream().map(User::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            userIds.forEach(userId -> {
+                jdbcTemplate.update("delete from notification where user_id = ?", userId);
+                jdbcTemplate.update("delete from unread_notification_counter where user_id = ?", userId);
+            });
+            watchListItemRepository.deleteAll(items);
+            productRepository.delete(product);
+            userRepository.deleteAll(users);
+            pharmacyRepository.deleteAll(pharmacies);
+        });
+    }
+
+    @Test
+    void shouldNotifyEveryRecipientAndIncrementTheirCounters() {
+        int count = transactionTemplate.execute(status -> notificationFanOutService.fanOut(items));
+
+        assertThat(count).isEqualTo(4);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "select user_id, pharmacy_id, watch_list_item_id, notification_type, message, sent from notification " +
+            "where watch_list_item_id in (?, ?, ?) order by watch_list_item_id, user_id",
+            items.get(0).getId(),
+            items.get(1).getId(),
+            items.get(2).getId()
+        );
+        assertThat(rows)
+            .extracting(
+                row -> row.get("user_id"),
+                row -> row.get("pharmacy_id"),
+                row -> row.get("watch_list_item_id"),
+                row -> row.get("message")
+            )
+            .containsExactly(
+                tuple(users.get(0).getId(), pharmacies.get(0).getId(), items.get(0).getId(), AVAILABLE_MESSAGE),
+                tuple(users.get(1).getId(), pharmacies.get(0).getId(), items.get(0).getId(), AVAILABLE_MESSAGE),
+                tuple(users.get(2).getId(), pharmacies.get(1).getId(), items.get(1).getId(), UNAVAILABLE_MESSAGE),
+                tuple(users.get(0).getId(), pharmacies.get(1).getId(), items.get(2).getId(), AVAILABLE_MESSAGE)
+            );
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.get("notification_type")).isEqualTo("EMAIL");
+            assertThat(row.get("sent")).isEqualTo(false);
+        });
+
+        assertThat(notificationRepository.findUnreadCount(users.get(0).getId())).isEqualTo(2);
+        assertThat(notificationRepository.findUnreadCount(users.get(1).getId())).isEqualTo(1);
+        assertThat(notificationRepository.findUnreadCount(users.get(2).getId())).isEqualTo(1);
+        users.forEach(user ->
+            verify(messagingTemplate, timeout(5000)).convertAndSendToUser(
+                eq(user.getLogin()),
+                eq(NotificationPushService.USER_DESTINATION),
+                any()
+            )
+        );
+    }
+
+    @Test
+    void shouldNeitherInsertNorPushWhenTheTransactionRollsBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationFanOutService.fanOut(items);
+            status.setRollbackOnly();
+        });
+
+        assertThat(
+            jdbcTemplate.queryForObject(
+                "select count(*) from notification where watch_list_item_id in (?, ?, ?)",
+                Long.class,
+                items.get(0).getId(),
+                items.get(1).getId(),
+                items.get(2).getId()
+            )
+        ).isZero();
+        users.forEach(user -> assertThat(notificationRepository.findUnreadCount(user.getId())).isZero());
+        verify(messagingTemplate, after(500).never()).convertAndSendToUser(anyString(), anyString(), any());
+    }
+
+    private static User createUser(String login, Pharmacy pharmacy) {
+        User user = new User();
+        user.setLogin(login);
+        user.setPassword(RandomStringUtils.insecure().nextAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail(login + "@localhost");
+        user.setLangKey("en");
+        user.setPharmacy(pharmacy);
+        return user;
+    }
+}
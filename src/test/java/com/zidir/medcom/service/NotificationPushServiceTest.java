@@ -0,0 +1,110 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import com.zidir.medcom.domain.Notification;
+import com.zidir.medcom.domain.User;
+import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.service.NotificationPushService.UserPush;
+import com.zidir.medcom.service.dto.NotificationPushDTO;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class NotificationPushServiceTest {
+
+    private ITopic<UserPush> topic;
+
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private NotificationPushService notificationPushService;
+
+    private MessageListener<UserPush> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        topic = mock(ITopic.class);
+        when(topic.publishAllAsync(anyCollection())).thenAnswer(invocation -> {
+            Collection<UserPush> pushes = invocation.getArgument(0);
+            pushes.forEach(push -> listener.onMessage(new Message<>(NotificationPushService.PUSH_TOPIC, push, 0, null)));
+            return CompletableFuture.completedFuture(null);
+        });
+        ArgumentCaptor<MessageListener<UserPush>> listenerCaptor = ArgumentCaptor.forClass(MessageListener.class);
+        when(topic.addMessageListener(listenerCaptor.capture())).thenReturn(null);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<UserPush>getTopic(NotificationPushService.PUSH_TOPIC)).thenReturn(topic);
+        messagingTemplate = mock(SimpMessageSendingOperations.class);
+
+        notificationPushService = new NotificationPushService(hazelcastInstance, messagingTemplate);
+        listener = listenerCaptor.getValue();
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldPushCreatedNotificationsPerUserAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        notificationPushService.pushCreated(
+            List.of(notification(1L, "john", 10L), notification(2L, "jane", 10L), notification(3L, "john", 11L))
+        );
+        verify(topic, never()).publishAllAsync(anyCollection());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<NotificationPushDTO> johnPush = ArgumentCaptor.forClass(NotificationPushDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("john"), eq(NotificationPushService.USER_DESTINATION), johnPush.capture());
+        assertThat(johnPush.getValue().unreadDelta()).isEqualTo(2);
+        assertThat(johnPush.getValue().notifications()).extracting(NotificationPushDTO.Item::id).containsExactly(1L, 3L);
+        ArgumentCaptor<NotificationPushDTO> janePush = ArgumentCaptor.forClass(NotificationPushDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("jane"), eq(NotificationPushService.USER_DESTINATION), janePush.capture());
+        assertThat(janePush.getValue().unreadDelta()).isEqualTo(1);
+        assertThat(janePush.getValue().notifications().get(0).watchListItemId()).isEqualTo(10L);
+    }
+
+    @Test
+    void shouldPushUnreadDecreaseWhenNotificationsAreRead() {
+        notificationPushService.pushRead("john", 3);
+        notificationPushService.pushRead("jane", 0);
+
+        verify(messagingTemplate).convertAndSendToUser("john", NotificationPushService.USER_DESTINATION, NotificationPushDTO.read(3));
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("jane"), any(), any());
+    }
+
+    private static Notification notification(Long id, String login, Long watchListItemId) {
+        User user = new User();
+        user.setLogin(login);
+        WatchListItem watchListItem = new WatchListItem();
+        watchListItem.setId(watchListItemId);
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setUser(user);
+        notification.setWatchListItem(watchListItem);
+        notification.setMessage("Product 'Doliprane' is now available");
+        return notification;
+    }
+}
@@ -0,0 +1,135 @@
+package com.zidir.medcom.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.repository.NotificationRepository;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class NotificationRetentionServiceTest {
+
+    private static final YearMonth CURRENT_MONTH = YearMonth.of(2026, 10);
+
+    private NotificationRepository notificationRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private IMap<String, Boolean> maintenanceLocks;
+
+    private UnreadCounterReconciliationService unreadCounterReconciliationService;
+
+    private NotificationRetentionService notificationRetentionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        notificationRepository = mock(NotificationRepository.class);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getNotificationRetention().setRetentionMonths(3);
+        applicationProperties.getNotificationRetention().setPremakeMonths(2);
+        maintenanceLocks = mock(IMap.class);
+        unreadCounterReconciliationService = mock(UnreadCounterReconciliationService.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<String, Boolean>getMap(ClusterTaskLock.TASK_LOCKS_MAP)).thenReturn(maintenanceLocks);
+        notificationRetentionService = new NotificationRetentionService(
+            notificationRepository,
+            applicationProperties,
+            mock(PlatformTransactionManager.class),
+            hazelcastInstance,
+            unreadCounterReconciliationService
+        );
+    }
+
+    @Test
+    void shouldCreateUpcomingPartitionsAndRetireExpiredOnes() {
+        when(notificationRepository.findPartitionMonths()).thenReturn(
+            List.of(YearMonth.of(2026, 6), YearMonth.of(2026, 7), YearMonth.of(2026, 8), CURRENT_MONTH)
+        );
+
+        notificationRetentionService.maintainPartitions(CURRENT_MONTH);
+
+        verify(notificationRepository).createPartition(CURRENT_MONTH);
+        verify(notificationRepository).createPartition(YearMonth.of(2026, 11));
+        verify(notificationRepository).createPartition(YearMonth.of(2026, 12));
+        verify(notificationRepository).detachPartition(YearMonth.of(2026, 6));
+        verify(notificationRepository).archivePartition(YearMonth.of(2026, 6), "notification_archive");
+        verify(notificationRepository).detachPartition(YearMonth.of(2026, 7));
+        verify(notificationRepository).archivePartition(YearMonth.of(2026, 7), "notification_archive");
+        verify(notificationRepository, never()).detachPartition(YearMonth.of(2026, 8));
+        verify(unreadCounterReconciliationService).reconcileUnreadCounters();
+    }
+
+    @Test
+    void shouldKeepRetiringWhenOnePartitionFails() {
+        when(notificationRepository.findPartitionMonths()).thenReturn(List.of(YearMonth.of(2026, 1), YearMonth.of(2026, 2)));
+        doThrow(new DataAccessResourceFailureException("lock timeout")).when(notificationRepository).detachPartition(YearMonth.of(2026, 1));
+
+        notificationRetentionService.maintainPartitions(CURRENT_MONTH);
+
+        verify(notificationRepository, times(2)).detachPartition(any());
+        verify(notificationRepository, never()).archivePartition(eq(YearMonth.of(2026, 1)), any());
+        verify(notificationRepository).archivePartition(YearMonth.of(2026, 2), "notification_archive");
+    }
+
+    @Test
+    void shouldNotReconcileWithoutExpiredPartitions() {
+        when(notificationRepository.findPartitionMonths()).thenReturn(List.of(CURRENT_MONTH));
+
+        notificationRetentionService.maintainPartitions(CURRENT_MONTH);
+
+        verify(notificationRepository, never()).detachPartition(any());
+        verify(unreadCounterReconciliationService, never()).reconcileUnreadCounters();
+    }
+
+    @Test
+    void shouldSkipMaintenanceWhileAnotherMemberHoldsTheLock() throws InterruptedException {
+        when(maintenanceLocks.tryLock(any(), anyLong(), any(), anyLong(), any())).thenReturn(false);
+
+        notificationRetentionService.maintainPartitions();
+
+        verify(notificationRepository, never()).createPartition(any());
+        verify(notificationRepository, never()).findPartitionMonths();
+        verify(maintenanceLocks, never()).unlock(any());
+    }
+
+    @Test
+    void shouldReleaseTheLockAfterMaintenance() throws InterruptedException {
+        when(maintenanceLocks.tryLock(any(), anyLong(), any(), anyLong(), any())).thenReturn(true);
+        when(maintenanceLocks.isLocked(NotificationRetentionService.MAINTENANCE_LOCK)).thenReturn(true);
+        when(notificationRepository.findPartitionMonths()).thenReturn(List.of());
+
+        notificationRetentionService.maintainPartitions();
+
+        verify(notificationRepository, times(3)).createPartition(any());
+        verify(maintenanceLocks).unlock(NotificationRetentionService.MAINTENANCE_LOCK);
+    }
+
+    @Test
+    void shouldNotFailWhenTheLockExpiredDuringMaintenance() throws InterruptedException {
+        when(maintenanceLocks.tryLock(any(), anyLong(), any(), anyLong(), any())).thenReturn(true);
+        when(maintenanceLocks.isLocked(NotificationRetentionService.MAINTENANCE_LOCK)).thenReturn(true);
+        doThrow(new IllegalMonitorStateException("Current thread is not owner of the lock!"))
+            .when(maintenanceLocks)
+            .unlock(NotificationRetentionService.MAINTENANCE_LOCK);
+        when(notificationRepository.findPartitionMonths()).thenReturn(List.of());
+
+        notificationRetentionService.maintainPartitions();
+
+        verify(notificationRepository, times(3)).createPartition(any());
+    }
+}
@@ -0,0 +1,116 @@
+package com.zidir.medcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SupplierPollingEngineTest {
+
+    private static final Instant NOW = Instant.now();
+
+    private static final Duration LATENCY = Duration.ofMillis(5);
+
+    private ProductAvailabilityService productAvailabilityService;
+
+    private ExecutorService executor;
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private AvailabilityMetersService availabilityMetersService;
+
+    private SupplierPollingEngine supplierPollingEngine;
+
+    @BeforeEach
+    void setup() {
+        productAvailabilityService = mock(ProductAvailabilityService.class);
+        executor = Executors.newFixedThreadPool(4);
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        availabilityMetersService = new AvailabilityMetersService(meterRegistry);
+        applicationProperties.getAvailabilityCheck().setMaxConcurrentRequests(2);
+        applicationProperties.getSupplierApi().setBatchSize(2);
+        supplierPollingEngine = new SupplierPollingEngine(
+            productAvailabilityService,
+            executor,
+            applicationProperties,
+            availabilityMetersService
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnResultsInRequestOrder() {
+        when(productAvailabilityService.checkProductAvailabilityAsync(List.of("A", "B"))).thenReturn(
+            CompletableFuture.completedFuture(
+                Map.of("A", AvailabilityResult.of(true, NOW, LATENCY), "B", AvailabilityResult.of(false, NOW, LATENCY))
+            )
+        );
+        when(productAvailabilityService.checkProductAvailabilityAsync(List.of("C", "D"))).thenThrow(new IllegalStateException("boom"));
+        when(productAvailabilityService.checkProductAvailabilityAsync(List.of("E"))).thenReturn(
+            CompletableFuture.completedFuture(Map.of("E", AvailabilityResult.failed("Unexpected response from supplier API", NOW, LATENCY)))
+        );
+
+        List<AvailabilityResult> results = supplierPollingEngine.poll(List.of("A", "B", "C", "D", "E"));
+
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0).available()).isTrue();
+        assertThat(results.get(1).available()).isFalse();
+        assertThat(results.get(2)).isNull();
+        assertThat(results.get(3)).isNull();
+        assertThat(results.get(4).error()).isEqualTo("Unexpected response from supplier API");
+        assertThat(meterRegistry.get(AvailabilityMetersService.SUPPLIER_CHECKS_METER_NAME).tag("outcome", "success").counter().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(AvailabilityMetersService.SUPPLIER_CHECKS_METER_NAME).tag("outcome", "error").counter().count())
+            .isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotHoldAThreadWhileTheSupplierAnswers() {
+        executor.shutdownNow();
+        executor = Executors.newSingleThreadExecutor();
+        supplierPollingEngine = new SupplierPollingEngine(
+            productAvailabilityService,
+            executor,
+            applicationProperties,
+            availabilityMetersService
+        );
+        CompletableFuture<Map<String, AvailabilityResult>> firstChunk = new CompletableFuture<>();
+        CompletableFuture<Map<String, AvailabilityResult>> secondChunk = new CompletableFuture<>();
+        when(productAvailabilityService.checkProductAvailabilityAsync(List.of("A", "B"))).thenReturn(firstChunk);
+        when(productAvailabilityService.checkProductAvailabilityAsync(List.of("C"))).thenReturn(secondChunk);
+
+        CompletableFuture<List<AvailabilityResult>> poll = CompletableFuture.supplyAsync(() ->
+            supplierPollingEngine.poll(List.of("A", "B", "C"))
+        );
+
+        // Both chunks are sent from the single executor thread before the supplier answers the first one
+        verify(productAvailabilityService, timeout(5000)).checkProductAvailabilityAsync(List.of("C"));
+        firstChunk.complete(Map.of("A", AvailabilityResult.of(true, NOW, LATENCY), "B", AvailabilityResult.of(false, NOW, LATENCY)));
+        secondChunk.complete(Map.of("C", AvailabilityResult.of(true, NOW, LATENCY)));
+        assertThat(poll.join()).extracting(AvailabilityResult::available).containsExactly(true, false, true);
+    }
+}
@@ -0,0 +1,82 @@
+package com.zidir.medcom.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.repository.NotificationRepository;
+import com.zidir.medcom.repository.NotificationRepositoryWithUnreadCounter.ReconciledBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class UnreadCounterReconciliationServiceTest {
+
+    private NotificationRepository notificationRepository;
+
+    private IMap<String, Boolean> reconciliationLocks;
+
+    private UnreadCounterReconciliationService unreadCounterReconciliationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() throws InterruptedException {
+        notificationRepository = mock(NotificationRepository.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUnreadCounter().setReconcileBatchSize(2);
+        reconciliationLocks = mock(IMap.class);
+        when(reconciliationLocks.tryLock(any(), anyLong(), any(), anyLong(), any())).thenReturn(true);
+        when(reconciliationLocks.isLocked(UnreadCounterReconciliationService.RECONCILIATION_LOCK)).thenReturn(true);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<String, Boolean>getMap(ClusterTaskLock.TASK_LOCKS_MAP)).thenReturn(reconciliationLocks);
+        unreadCounterReconciliationService = new UnreadCounterReconciliationService(
+            notificationRepository,
+            applicationProperties,
+            mock(PlatformTransactionManager.class),
+            hazelcastInstance
+        );
+    }
+
+    @Test
+    void shouldReconcileBatchesUntilTheLastUser() {
+        when(notificationRepository.reconcileUnreadCounts(0, 2)).thenReturn(new ReconciledBatch(2, 7, 1));
+        when(notificationRepository.reconcileUnreadCounts(7, 2)).thenReturn(new ReconciledBatch(2, 12, 0));
+        when(notificationRepository.reconcileUnreadCounts(12, 2)).thenReturn(new ReconciledBatch(1, 15, 1));
+
+        unreadCounterReconciliationService.reconcileUnreadCounters();
+
+        verify(notificationRepository).reconcileUnreadCounts(12, 2);
+        verify(notificationRepository, never()).reconcileUnreadCounts(15, 2);
+        verify(reconciliationLocks).unlock(UnreadCounterReconciliationService.RECONCILIATION_LOCK);
+    }
+
+    @Test
+    void shouldStopAtTheFailedBatchAndReleaseTheLock() {
+        when(notificationRepository.reconcileUnreadCounts(0, 2)).thenReturn(new ReconciledBatch(2, 7, 0));
+        when(notificationRepository.reconcileUnreadCounts(7, 2)).thenThrow(new CannotAcquireLockException("deadlock"));
+
+        unreadCounterReconciliationService.reconcileUnreadCounters();
+
+        verify(notificationRepository, times(2)).reconcileUnreadCounts(anyLong(), anyInt());
+        verify(reconciliationLocks).unlock(UnreadCounterReconciliationService.RECONCILIATION_LOCK);
+    }
+
+    @Test
+    void shouldSkipReconciliationWhileAnotherMemberHoldsTheLock() throws InterruptedException {
+        when(reconciliationLocks.tryLock(any(), anyLong(), any(), anyLong(), any())).thenReturn(false);
+
+        unreadCounterReconciliationService.reconcileUnreadCounters();
+
+        verify(notificationRepository, never()).reconcileUnreadCounts(anyLong(), anyInt());
+        verify(reconciliationLocks, never()).unlock(any());
+    }
+}
@@ -0,0 +1,25 @@
+package com.zidir.medcom.service.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class NotificationCursorTest {
+
+    @Test
+    void shouldRoundTripWithMicrosecondPrecision() {
+        NotificationCursor cursor = new NotificationCursor(Instant.parse("2026-10-18T12:00:00.123456Z"), 42L);
+
+        assertThat(cursor.toString()).isEqualTo("1792324800123456_42");
+        assertThat(NotificationCursor.parse(cursor.toString())).isEqualTo(cursor);
+    }
+
+    @Test
+    void shouldRejectInvalidCursors() {
+        assertThatThrownBy(() -> NotificationCursor.parse("42")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> NotificationCursor.parse("_42")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> NotificationCursor.parse("abc_42")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
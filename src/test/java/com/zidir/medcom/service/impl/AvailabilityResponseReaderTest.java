@@ -0,0 +1,50 @@
+package com.zidir.medcom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AvailabilityResponseReaderTest {
+
+    private final AvailabilityResponseReader reader = new AvailabilityResponseReader(new JsonFactory());
+
+    @Test
+    void shouldReadAvailableFlagAndSkipOtherFields() throws IOException {
+        Boolean available = reader.readAvailability(
+            body("{\"code\":\"A\",\"stock\":{\"warehouses\":[{\"id\":1,\"available\":false}]},\"available\":true,\"price\":12.5}")
+        );
+
+        assertThat(available).isTrue();
+    }
+
+    @Test
+    void shouldReturnNullWithoutBooleanAvailableField() throws IOException {
+        assertThat(reader.readAvailability(body("{\"available\":\"yes\"}"))).isNull();
+        assertThat(reader.readAvailability(body("[]"))).isNull();
+    }
+
+    @Test
+    void shouldReadBulkResponseKeyedByProductCode() throws IOException {
+        Map<String, Boolean> availabilities = reader.readBulkAvailability(
+            body("{\"A\":{\"available\":true},\"B\":{\"available\":false,\"eta\":\"2026-01-01\"},\"C\":{},\"D\":null}")
+        );
+
+        assertThat(availabilities).hasSize(3).containsEntry("A", true).containsEntry("B", false).containsEntry("C", null);
+    }
+
+    @Test
+    void shouldFailOnMalformedBody() {
+        assertThatThrownBy(() -> reader.readAvailability(body("{\"available\":"))).isInstanceOf(IOException.class);
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.zidir.medcom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.ProductAvailabilityService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class CachingProductAvailabilityServiceTest {
+
+    private ProductAvailabilityService delegate;
+
+    private IMap<String, AvailabilityResult> cache;
+
+    private CachingProductAvailabilityService productAvailabilityService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        delegate = mock(ProductAvailabilityService.class);
+        cache = mock(IMap.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<String, AvailabilityResult>getMap(CachingProductAvailabilityService.AVAILABILITY_CACHE)).thenReturn(cache);
+        productAvailabilityService = new CachingProductAvailabilityService(
+            delegate,
+            new ApplicationProperties(),
+            new AvailabilityMetersService(new SimpleMeterRegistry()),
+            hazelcastInstance
+        );
+    }
+
+    @Test
+    void shouldCacheNotModifiedAnswerAsPlainAnswer() {
+        AvailabilityResult notModified = AvailabilityResult.notModified(true, Instant.now(), Duration.ofMillis(5));
+        when(delegate.checkProductAvailability("A")).thenReturn(notModified);
+
+        assertThat(productAvailabilityService.checkProductAvailability("A")).isEqualTo(notModified);
+
+        ArgumentCaptor<AvailabilityResult> cached = ArgumentCaptor.forClass(AvailabilityResult.class);
+        verify(cache).setAsync(eq("A"), cached.capture(), anyLong(), eq(TimeUnit.SECONDS));
+        assertThat(cached.getValue().notModified()).isFalse();
+        assertThat(cached.getValue().available()).isTrue();
+        assertThat(cached.getValue().checkedAt()).isEqualTo(notModified.checkedAt());
+    }
+
+    @Test
+    void shouldNotCacheLocallyRejectedChecks() {
+        AvailabilityResult rejected = AvailabilityResult.rejected(CircuitBreakingProductAvailabilityService.CIRCUIT_OPEN_ERROR);
+        when(delegate.checkProductAvailability("A")).thenReturn(rejected);
+
+        assertThat(productAvailabilityService.checkProductAvailability("A")).isEqualTo(rejected);
+
+        verify(cache, never()).setAsync(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void shouldNegativeCacheSupplierFailures() {
+        AvailabilityResult failed = AvailabilityResult.failed("HTTP 503", Instant.now(), Duration.ofMillis(5));
+        when(delegate.checkProductAvailability("A")).thenReturn(failed);
+
+        productAvailabilityService.checkProductAvailability("A");
+
+        verify(cache).setAsync("A", failed, new ApplicationProperties().getSupplierApi().getNegativeCacheTtlSeconds(), TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.zidir.medcom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.ProductAvailabilityService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingProductAvailabilityServiceTest {
+
+    private static final List<String> PRODUCT_CODES = List.of("A", "B", "C", "D", "E", "F", "G", "H", "I", "J");
+
+    @Mock
+    private ProductAvailabilityService delegate;
+
+    private CircuitBreakingProductAvailabilityService productAvailabilityService;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.SupplierApi.CircuitBreaker circuitBreaker = applicationProperties.getSupplierApi().getCircuitBreaker();
+        circuitBreaker.setFailureRateThreshold(50);
+        circuitBreaker.setSlidingWindowSize(1);
+        circuitBreaker.setMinimumCalls(1);
+        circuitBreaker.setSlowCallThresholdMillis(100);
+        applicationProperties.getSupplierApi().getConcurrencyLimit().setInitialLimit(1);
+        applicationProperties.getSupplierApi().getConcurrencyLimit().setMinLimit(1);
+        productAvailabilityService = new CircuitBreakingProductAvailabilityService(
+            delegate,
+            applicationProperties,
+            new AvailabilityMetersService(new SimpleMeterRegistry())
+        );
+    }
+
+    @Test
+    void shouldCountSynchronousDelegateFailureAndReleasePermit() {
+        when(delegate.checkProductAvailabilityAsync("A")).thenThrow(new IllegalStateException("boom"));
+
+        CompletableFuture<AvailabilityResult> result = productAvailabilityService.checkProductAvailabilityAsync("A");
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(productAvailabilityService.checkProductAvailabilityAsync("A").join().error()).isEqualTo(
+            CircuitBreakingProductAvailabilityService.CIRCUIT_OPEN_ERROR
+        );
+    }
+
+    @Test
+    void shouldAllowBulkCallTheSlowCallThresholdPerProduct() {
+        when(delegate.checkProductAvailability(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            Map<String, AvailabilityResult> results = new LinkedHashMap<>();
+            PRODUCT_CODES.forEach(code -> results.put(code, AvailabilityResult.of(true, Instant.now(), Duration.ofMillis(200))));
+            return results;
+        });
+
+        productAvailabilityService.checkProductAvailability(PRODUCT_CODES);
+
+        assertThat(productAvailabilityService.checkProductAvailability(PRODUCT_CODES).values()).noneMatch(AvailabilityResult::isError);
+    }
+}
@@ -0,0 +1,186 @@
+package com.zidir.medcom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.management.AvailabilityMetersService;
+import com.zidir.medcom.service.ProductAvailabilityService;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class HedgingProductAvailabilityServiceTest {
+
+    private static final int MIN_SAMPLES = 5;
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SlowSupplier supplier = new SlowSupplier();
+
+    private final ThreadPoolTaskExecutor hedgeExecutor = new ThreadPoolTaskExecutor();
+
+    private HedgingProductAvailabilityService hedgingService;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties.SupplierApi.Hedging hedging = applicationProperties.getSupplierApi().getHedging();
+        hedging.setEnabled(true);
+        hedging.setPercentile(50);
+        hedging.setMinDelayMillis(10);
+        hedging.setMinSamples(MIN_SAMPLES);
+        hedging.setBudgetPercent(100);
+        hedgeExecutor.setCorePoolSize(4);
+        hedgeExecutor.setMaxPoolSize(4);
+        hedgeExecutor.initialize();
+    }
+
+    @AfterEach
+    void cleanup() {
+        supplier.release.countDown();
+        hedgeExecutor.shutdown();
+    }
+
+    @Test
+    void shouldAnswerWithHedgeWhenFirstRequestIsSlow() {
+        createService();
+        warmUp();
+        supplier.slowCall = MIN_SAMPLES + 1;
+
+        long start = System.nanoTime();
+        AvailabilityResult result = hedgingService.checkProductAvailability("A");
+
+        assertThat(result.available()).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(SlowSupplier.SLOW_CALL_LATENCY);
+        assertThat(supplier.calls).hasValue(MIN_SAMPLES + 2);
+        assertThat(hedges("issued")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotHedgeBeyondBudget() {
+        applicationProperties.getSupplierApi().getHedging().setBudgetPercent(0);
+        createService();
+        warmUp();
+        supplier.slowCall = MIN_SAMPLES + 1;
+        releaseLater();
+
+        AvailabilityResult result = hedgingService.checkProductAvailability("A");
+
+        assertThat(result.available()).isTrue();
+        assertThat(supplier.calls).hasValue(MIN_SAMPLES + 1);
+        assertThat(hedges("issued")).isZero();
+        assertThat(hedges("over-budget")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotHedgeBeforeEnoughLatenciesAreKnown() {
+        createService();
+        supplier.slowCall = 1;
+        releaseLater();
+
+        AvailabilityResult result = hedgingService.checkProductAvailability("A");
+
+        assertThat(result.available()).isTrue();
+        assertThat(supplier.calls).hasValue(1);
+        assertThat(hedges("issued")).isZero();
+    }
+
+    @Test
+    void shouldNotSendHedgeWithoutConcurrencyLimitPermit() {
+        applicationProperties.getSupplierApi().setReadTimeoutMillis(50);
+        applicationProperties.getSupplierApi().getConcurrencyLimit().setInitialLimit(1);
+        applicationProperties.getSupplierApi().getConcurrencyLimit().setMinLimit(1);
+        applicationProperties.getSupplierApi().getConcurrencyLimit().setMaxLimit(1);
+        AvailabilityMetersService availabilityMetersService = new AvailabilityMetersService(meterRegistry);
+        createService(new CircuitBreakingProductAvailabilityService(supplier, applicationProperties, availabilityMetersService));
+        warmUp();
+        supplier.slowCall = MIN_SAMPLES + 1;
+        releaseLater();
+
+        AvailabilityResult result = hedgingService.checkProductAvailability("A");
+
+        assertThat(result.available()).isTrue();
+        assertThat(supplier.calls).hasValue(MIN_SAMPLES + 1);
+        assertThat(hedges("issued")).isEqualTo(1);
+        assertThat(hedges("won")).isZero();
+    }
+
+    private void createService() {
+        createService(supplier);
+    }
+
+    private void createService(ProductAvailabilityService delegate) {
+        hedgingService = new HedgingProductAvailabilityService(
+            delegate,
+            applicationProperties,
+            new AvailabilityMetersService(meterRegistry),
+            hedgeExecutor
+        );
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < MIN_SAMPLES; i++) {
+            hedgingService.checkProductAvailability("A");
+        }
+    }
+
+    private void releaseLater() {
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            supplier.release.countDown();
+        });
+        releaser.setDaemon(true);
+        releaser.start();
+    }
+
+    private double hedges(String outcome) {
+        return meterRegistry.get(AvailabilityMetersService.HEDGES_METER_NAME).tag("outcome", outcome).counter().count();
+    }
+
+    /**
+     * Supplier answering immediately, except for the {@code slowCall}-th call that waits for {@code release}.
+     */
+    private static final class SlowSupplier implements ProductAvailabilityService {
+
+        private static final Duration SLOW_CALL_LATENCY = Duration.ofSeconds(5);
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile int slowCall;
+
+        @Override
+        public AvailabilityResult checkProductAvailability(String productCode) {
+            if (calls.incrementAndGet() == slowCall) {
+                try {
+                    release.await(SLOW_CALL_LATENCY.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return AvailabilityResult.of(true, Instant.now(), Duration.ZERO);
+        }
+
+        @Override
+        public Map<String, AvailabilityResult> checkProductAvailability(Collection<String> productCodes) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.zidir.medcom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpClientProductAvailabilityServiceTest {
+
+    private final CountDownLatch firstReceived = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger receivedRequests = new AtomicInteger();
+
+    private HttpServer server;
+
+    private HttpClientProductAvailabilityService productAvailabilityService;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/products", exchange -> {
+            receivedRequests.incrementAndGet();
+            firstReceived.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"available\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSupplierApi().setEnabled(true);
+        applicationProperties.getSupplierApi().setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        applicationProperties.getSupplierApi().setMaxInFlightRequests(1);
+        productAvailabilityService = new HttpClientProductAvailabilityService(
+            applicationProperties,
+            new ObjectMapper(),
+            mock(AvailabilityValidatorStore.class)
+        );
+    }
+
+    @AfterEach
+    void cleanup() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldQueueRequestsBeyondInFlightLimitWithoutBlocking() throws Exception {
+        CompletableFuture<AvailabilityResult> first = productAvailabilityService.checkProductAvailabilityAsync("A");
+        CompletableFuture<AvailabilityResult> second = productAvailabilityService.checkProductAvailabilityAsync("B");
+
+        assertThat(firstReceived.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(second).isNotDone();
+        assertThat(receivedRequests).hasValue(1);
+
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).available()).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS).available()).isTrue();
+        assertThat(receivedRequests).hasValue(2);
+    }
+}
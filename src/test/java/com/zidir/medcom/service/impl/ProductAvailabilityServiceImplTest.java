@@ -0,0 +1,136 @@
+package com.zidir.medcom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zidir.medcom.config.ApplicationProperties;
+import com.zidir.medcom.service.dto.AvailabilityResult;
+import com.zidir.medcom.service.impl.AvailabilityValidatorStore.Validators;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+class ProductAvailabilityServiceImplTest {
+
+    private static final String URL = "http://supplier.test/products/A/availability";
+
+    private static final String BULK_URL = "http://supplier.test/products/availability";
+
+    private MockRestServiceServer server;
+
+    private AvailabilityValidatorStore validatorStore;
+
+    private ProductAvailabilityServiceImpl productAvailabilityService;
+
+    @BeforeEach
+    void setup() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        validatorStore = mock(AvailabilityValidatorStore.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSupplierApi().setEnabled(true);
+        applicationProperties.getSupplierApi().setBaseUrl("http://supplier.test");
+        productAvailabilityService = new ProductAvailabilityServiceImpl(
+            restTemplate,
+            applicationProperties,
+            new ObjectMapper(),
+            validatorStore
+        );
+    }
+
+    @Test
+    void shouldRememberValidatorsOfFullAnswer() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v1\"");
+        headers.set(HttpHeaders.LAST_MODIFIED, "Sun, 18 Oct 2026 08:00:00 GMT");
+        server
+            .expect(requestTo(URL))
+            .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+            .andRespond(withSuccess("{\"available\":true}", MediaType.APPLICATION_JSON).headers(headers));
+
+        AvailabilityResult result = productAvailabilityService.checkProductAvailability("A");
+
+        assertThat(result.available()).isTrue();
+        assertThat(result.notModified()).isFalse();
+        verify(validatorStore).store("A", "\"v1\"", "Sun, 18 Oct 2026 08:00:00 GMT", true);
+        server.verify();
+    }
+
+    @Test
+    void shouldSendConditionalRequestAndSkipBodyWhenNotModified() {
+        when(validatorStore.find("A")).thenReturn(new Validators("\"v1\"", "Sun, 18 Oct 2026 08:00:00 GMT", false));
+        server
+            .expect(requestTo(URL))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+            .andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, "Sun, 18 Oct 2026 08:00:00 GMT"))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        AvailabilityResult result = productAvailabilityService.checkProductAvailability("A");
+
+        assertThat(result.notModified()).isTrue();
+        assertThat(result.isError()).isFalse();
+        assertThat(result.available()).isFalse();
+        verify(validatorStore, never()).store(any(), any(), any(), any());
+        server.verify();
+    }
+
+    @Test
+    void shouldFailCodesOfFailedBulkRequestWithoutCheckingThemOneByOne() {
+        server
+            .expect(requestTo(BULK_URL))
+            .andExpect(method(HttpMethod.POST))
+            .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        Map<String, AvailabilityResult> results = productAvailabilityService.checkProductAvailability(List.of("A", "B"));
+
+        assertThat(results).containsOnlyKeys("A", "B");
+        assertThat(results.values()).allMatch(AvailabilityResult::isError);
+        server.verify();
+    }
+
+    @Test
+    void shouldFailCodesMissingFromBulkAnswer() {
+        server
+            .expect(requestTo(BULK_URL))
+            .andRespond(withSuccess("{\"A\":{\"available\":true}}", MediaType.APPLICATION_JSON));
+
+        Map<String, AvailabilityResult> results = productAvailabilityService.checkProductAvailability(List.of("A", "B"));
+
+        assertThat(results.get("A").available()).isTrue();
+        assertThat(results.get("B").error()).isEqualTo(ProductAvailabilityServiceImpl.NOT_IN_BULK_ANSWER_ERROR);
+        server.verify();
+    }
+
+    @Test
+    void shouldCheckCodesOneByOneWhenBulkEndpointIsUnsupported() {
+        server.expect(requestTo(BULK_URL)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+        server.expect(requestTo(URL)).andRespond(withSuccess("{\"available\":true}", MediaType.APPLICATION_JSON));
+        server
+            .expect(requestTo("http://supplier.test/products/B/availability"))
+            .andRespond(withSuccess("{\"available\":false}", MediaType.APPLICATION_JSON));
+
+        Map<String, AvailabilityResult> results = productAvailabilityService.checkProductAvailability(List.of("A", "B"));
+
+        assertThat(results.get("A").available()).isTrue();
+        assertThat(results.get("B").available()).isFalse();
+        server.verify();
+    }
+}
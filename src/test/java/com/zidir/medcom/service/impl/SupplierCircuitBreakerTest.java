@@ -0,0 +1,130 @@
+package com.zidir.medcom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SupplierCircuitBreakerTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    private Instant now;
+
+    private List<SupplierCircuitBreaker.State> transitions;
+
+    private SupplierCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setup() {
+        now = START;
+        transitions = new ArrayList<>();
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        circuitBreaker = new SupplierCircuitBreaker(50, 4, 4, Duration.ofSeconds(60), 2, clock, transitions::add);
+    }
+
+    @Test
+    void shouldStayClosedBelowMinimumCalls() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(permitted());
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(SupplierCircuitBreaker.State.CLOSED);
+        assertThat(transitions).isEmpty();
+    }
+
+    @Test
+    void shouldOpenAtFailureRateAndRejectCalls() {
+        circuitBreaker.onSuccess(permitted());
+        circuitBreaker.onSuccess(permitted());
+        circuitBreaker.onFailure(permitted());
+        circuitBreaker.onFailure(permitted());
+
+        assertThat(circuitBreaker.getState()).isEqualTo(SupplierCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isEqualTo(SupplierCircuitBreaker.NOT_PERMITTED);
+        assertThat(transitions).containsExactly(SupplierCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulProbes() {
+        openCircuit();
+        now = START.plusSeconds(60);
+
+        long firstProbe = permitted();
+        long secondProbe = permitted();
+        assertThat(circuitBreaker.tryAcquirePermission()).isEqualTo(SupplierCircuitBreaker.NOT_PERMITTED);
+        circuitBreaker.onSuccess(firstProbe);
+        circuitBreaker.onSuccess(secondProbe);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(SupplierCircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly(
+            SupplierCircuitBreaker.State.OPEN,
+            SupplierCircuitBreaker.State.HALF_OPEN,
+            SupplierCircuitBreaker.State.CLOSED
+        );
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        openCircuit();
+        now = START.plusSeconds(60);
+
+        circuitBreaker.onFailure(permitted());
+
+        assertThat(circuitBreaker.getState()).isEqualTo(SupplierCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isEqualTo(SupplierCircuitBreaker.NOT_PERMITTED);
+    }
+
+    @Test
+    void shouldIgnoreLateOutcomesOfCallsPermittedBeforeHalfOpen() {
+        long slowCall = permitted();
+        openCircuit();
+        now = START.plusSeconds(60);
+        long probe = permitted();
+
+        // The slow call started while closed is no probe, whatever its outcome
+        circuitBreaker.onSuccess(slowCall);
+        circuitBreaker.onSuccess(slowCall);
+        assertThat(circuitBreaker.getState()).isEqualTo(SupplierCircuitBreaker.State.HALF_OPEN);
+        circuitBreaker.onFailure(slowCall);
+        assertThat(circuitBreaker.getState()).isEqualTo(SupplierCircuitBreaker.State.HALF_OPEN);
+
+        circuitBreaker.onSuccess(probe);
+        circuitBreaker.onSuccess(permitted());
+        assertThat(circuitBreaker.getState()).isEqualTo(SupplierCircuitBreaker.State.CLOSED);
+    }
+
+    private long permitted() {
+        long permission = circuitBreaker.tryAcquirePermission();
+        assertThat(permission).isNotEqualTo(SupplierCircuitBreaker.NOT_PERMITTED);
+        return permission;
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure(permitted());
+        }
+    }
+}
@@ -2,9 +2,18 @@ package com.zidir.medcom.service.mapper;
 
 import static com.zidir.medcom.domain.NotificationAsserts.*;
 import static com.zidir.medcom.domain.NotificationTestSamples.*;
+import static org.assertj.core.api.Assertions.assertThat;
 
+import com.zidir.medcom.domain.Pharmacy;
+import com.zidir.medcom.domain.User;
+import com.zidir.medcom.domain.WatchListItem;
+import com.zidir.medcom.repository.NotificationRepository.NotificationView;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 class NotificationMapperTest {
 
@@ -21,4 +30,43 @@ class NotificationMapperTest {
         var actual = notificationMapper.toEntity(notificationMapper.toDto(expected));
         assertNotificationAllPropertiesEquals(expected, actual);
     }
+
+    @Test
+    void shouldConvertViewToSameDtoAsEntity() {
+        var notification = getNotificationSample1().readAt(ZonedDateTime.now()).sent(true);
+        var pharmacy = new Pharmacy();
+        pharmacy.setId(3L);
+        var user = new User();
+        user.setId(4L);
+        user.setLogin("john");
+        var watchListItem = new WatchListItem();
+        watchListItem.setId(5L);
+        notification.pharmacy(pharmacy).user(user).watchListItem(watchListItem);
+
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", notification.getId());
+        columns.put("message", notification.getMessage());
+        columns.put("readAt", notification.getReadAt());
+        columns.put("sent", notification.getSent());
+        columns.put("failureReason", notification.getFailureReason());
+        columns.put("externalMessageId", notification.getExternalMessageId());
+        columns.put("pharmacyId", pharmacy.getId());
+        columns.put("userId", user.getId());
+        columns.put("userLogin", user.getLogin());
+        columns.put("watchListItemId", watchListItem.getId());
+        var view = new SpelAwareProxyProjectionFactory().createProjection(NotificationView.class, columns);
+
+        assertThat(notificationMapper.toDto(view)).usingRecursiveComparison().isEqualTo(notificationMapper.toDto(notification));
+    }
+
+    @Test
+    void shouldConvertViewWithoutRelationships() {
+        var view = new SpelAwareProxyProjectionFactory().createProjection(NotificationView.class, Map.of("id", 1L));
+
+        var actual = notificationMapper.toDto(view);
+
+        assertThat(actual.getPharmacy()).isNull();
+        assertThat(actual.getUser()).isNull();
+        assertThat(actual.getWatchListItem()).isNull();
+    }
 }
@@ -4,6 +4,9 @@ import static com.zidir.medcom.domain.NotificationAsserts.*;
 import static com.zidir.medcom.web.rest.TestUtil.createUpdateProxyForBean;
 import static com.zidir.medcom.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -12,6 +15,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zidir.medcom.IntegrationTest;
 import com.zidir.medcom.domain.Notification;
+import com.zidir.medcom.domain.User;
 import com.zidir.medcom.domain.enumeration.NotificationType;
 import com.zidir.medcom.repository.NotificationRepository;
 import com.zidir.medcom.repository.UserRepository;
@@ -36,6 +40,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -545,6 +550,72 @@ class NotificationResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    @WithMockUser("unread-counter-user")
+    void countUnreadNotificationsFromCounter() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity();
+        user.setLogin("unread-counter-user");
+        userRepository.saveAndFlush(user);
+        notificationRepository.saveAndFlush(createEntity().user(user).readAt(null));
+        notificationRepository.saveAndFlush(createEntity().user(user).readAt(null));
+        notificationRepository.reconcileUnreadCounts(0, Integer.MAX_VALUE);
+
+        restNotificationMockMvc
+            .perform(get(ENTITY_API_URL + "/unread/count").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().string("2"));
+
+        restNotificationMockMvc
+            .perform(put(ENTITY_API_URL + "/mark-all-as-read").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().string("2"));
+
+        // The counter is decremented along with the notifications
+        assertThat(notificationRepository.findUnreadCount(user.getId())).isZero();
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("feed-cursor-user")
+    void getMyNotificationsWithCursor() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity();
+        user.setLogin("feed-cursor-user");
+        userRepository.saveAndFlush(user);
+        Notification oldest = notificationRepository.saveAndFlush(createEntity().user(user));
+        Notification middle = notificationRepository.saveAndFlush(createEntity().user(user));
+        Notification newest = notificationRepository.saveAndFlush(createEntity().user(user));
+
+        // The first page is the newest notifications, with the cursor of the next page. Created in the same
+        // transaction, the notifications have the same creation date and are ordered by id
+        String cursor = restNotificationMockMvc
+            .perform(get(ENTITY_API_URL + "/my?limit=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(newest.getId().intValue(), middle.getId().intValue())))
+            .andExpect(header().string(NotificationResource.NEXT_CURSOR_HEADER, endsWith("_" + middle.getId())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=")))
+            .andReturn()
+            .getResponse()
+            .getHeader(NotificationResource.NEXT_CURSOR_HEADER);
+
+        // The last page has no cursor
+        restNotificationMockMvc
+            .perform(get(ENTITY_API_URL + "/my?limit=2&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(oldest.getId().intValue())))
+            .andExpect(header().doesNotExist(NotificationResource.NEXT_CURSOR_HEADER))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("feed-cursor-user")
+    void getMyNotificationsWithInvalidCursor() throws Exception {
+        restNotificationMockMvc.perform(get(ENTITY_API_URL + "/my?limit=2&after=42")).andExpect(status().isBadRequest());
+    }
+
     protected long getRepositoryCount() {
         return notificationRepository.count();
     }
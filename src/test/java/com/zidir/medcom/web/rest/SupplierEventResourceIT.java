@@ -0,0 +1,62 @@
+package com.zidir.medcom.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zidir.medcom.IntegrationTest;
+import com.zidir.medcom.security.AuthoritiesConstants;
+import com.zidir.medcom.service.dto.AvailabilityEventsDTO;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link SupplierEventResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.SUPPLIER)
+class SupplierEventResourceIT {
+
+    private static final String API_URL = "/api/supplier/availability-events";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private MockMvc restSupplierEventMockMvc;
+
+    @Test
+    void pushAvailabilityEvents() throws Exception {
+        AvailabilityEventsDTO events = new AvailabilityEventsDTO(List.of(new AvailabilityEventsDTO.Event("CODE-1", true, Instant.now())));
+
+        restSupplierEventMockMvc
+            .perform(post(API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(events)))
+            .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void pushAvailabilityEventsWithoutProductCode() throws Exception {
+        AvailabilityEventsDTO events = new AvailabilityEventsDTO(List.of(new AvailabilityEventsDTO.Event(null, true, Instant.now())));
+
+        restSupplierEventMockMvc
+            .perform(post(API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(events)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void pushAvailabilityEventsAsUserIsForbidden() throws Exception {
+        AvailabilityEventsDTO events = new AvailabilityEventsDTO(List.of(new AvailabilityEventsDTO.Event("CODE-1", true, Instant.now())));
+
+        restSupplierEventMockMvc
+            .perform(post(API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(events)))
+            .andExpect(status().isForbidden());
+    }
+}